@@ -0,0 +1,65 @@
+package com.wargame.bench;
+
+import com.wargame.enums.Rank;
+import com.wargame.enums.StorageMode;
+import com.wargame.factory.BattalionFactory;
+import com.wargame.model.Battalion;
+import com.wargame.util.AppController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Aggregate reads on a mixed battalion built once per trial.
+ */
+@State(Scope.Benchmark)
+public class BattalionAggregateBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "LIST", "COLUMNAR", "LAZY", "PACKED", "OFF_HEAP" })
+    public StorageMode mode;
+
+    private Battalion battalion;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BattalionFactory factory = new BattalionFactory(new AppController().getRegistry());
+        battalion = factory.createMixedBattalion("Bench", Prototypes.KEYS, size, mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        battalion.release();
+    }
+
+    @Benchmark
+    public long getTotalCombatPower() {
+        return battalion.getTotalCombatPower();
+    }
+
+    @Benchmark
+    public int getAverageCombatPower() {
+        return battalion.getAverageCombatPower();
+    }
+
+    @Benchmark
+    public int getEliteCount() {
+        return battalion.getEliteCount();
+    }
+
+    @Benchmark
+    public int getRankCount() {
+        return battalion.getRankCount(Rank.SERGEANT);
+    }
+
+    @Benchmark
+    public int getPowerPercentile() {
+        return battalion.getPowerPercentile(50);
+    }
+}
@@ -0,0 +1,58 @@
+package com.wargame.bench;
+
+import com.wargame.enums.StorageMode;
+import com.wargame.factory.BattalionFactory;
+import com.wargame.model.Battalion;
+import com.wargame.util.AppController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Battalion production for every storage mode and size, cloning on the calling thread
+ * ({@code parallelism = 1}) or on the factory's pool. Off-heap battalions are released
+ * as soon as they are measured, as {@code removeBattalion} would.
+ */
+@State(Scope.Thread)
+public class BattalionFactoryBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "LIST", "COLUMNAR", "LAZY", "PACKED", "OFF_HEAP" })
+    public StorageMode mode;
+
+    @Param({ "1", "4" })
+    public int parallelism;
+
+    private BattalionFactory factory;
+
+    @Setup
+    public void setUp() {
+        factory = new BattalionFactory(new AppController().getRegistry(), parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public int createBattalion() {
+        return measured(factory.createBattalion("Bench", Prototypes.KEYS[1], size, mode));
+    }
+
+    @Benchmark
+    public int createMixedBattalion() {
+        return measured(factory.createMixedBattalion("Bench", Prototypes.KEYS, size, mode));
+    }
+
+    private static int measured(Battalion battalion) {
+        int size = battalion.getSize();
+        battalion.release();
+        return size;
+    }
+}
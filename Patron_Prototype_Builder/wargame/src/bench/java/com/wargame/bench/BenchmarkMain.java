@@ -0,0 +1,47 @@
+package com.wargame.bench;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH entry point for the Builder, Prototype and Battalion benchmarks.
+ *
+ * <p>Every benchmark reports throughput and average time, with the {@code gc} profiler's
+ * allocation rate and bytes per operation, in two forked JVMs of 4 GB each. The benchmark
+ * classes are generated by JMH's annotation processor, which must therefore be on the
+ * processor path when compiling. From {@code Patron_Prototype_Builder/wargame}, with
+ * {@code $JMH} listing the jmh-core, jmh-generator-annprocess, jopt-simple and
+ * commons-math3 jars separated by {@code :}:</p>
+ * <pre>
+ *   javac -cp "$JMH" -processorpath "$JMH" -d out $(find src/main/java src/bench/java -name '*.java')
+ *   java -cp "out:$JMH" com.wargame.bench.BenchmarkMain [regex] [JMH options]
+ * </pre>
+ * <p>Standard JMH options replace the matching defaults, e.g. {@code -p size=1000 -f 1 -wi 2}.</p>
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions given = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(given);
+        if (given.getIncludes().isEmpty())  options.include(BenchmarkMain.class.getPackageName() + ".*");
+        if (given.getBenchModes().isEmpty()) options.mode(Mode.Throughput).mode(Mode.AverageTime);
+        if (!given.getTimeUnit().hasValue()) options.timeUnit(TimeUnit.MICROSECONDS);
+        if (given.getProfilers().isEmpty())  options.addProfiler(GCProfiler.class);
+        if (!given.getForkCount().hasValue()) options.forks(2);
+        if (!given.getJvmArgsAppend().hasValue()) options.jvmArgsAppend("-Xmx4g");
+        if (!given.getWarmupIterations().hasValue()) options.warmupIterations(3);
+        if (!given.getWarmupTime().hasValue()) options.warmupTime(TimeValue.seconds(1));
+        if (!given.getMeasurementIterations().hasValue()) options.measurementIterations(5);
+        if (!given.getMeasurementTime().hasValue()) options.measurementTime(TimeValue.seconds(1));
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,60 @@
+package com.wargame.bench;
+
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+import com.wargame.model.Battalion;
+import com.wargame.model.Soldier;
+import com.wargame.util.AppController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * {@link AppController} round trips: every mutation is undone in the same call, so the
+ * controller's state does not grow over the run.
+ */
+@State(Scope.Thread)
+public class ControllerBenchmark {
+
+    private AppController controller;
+
+    /**
+     * Battalion sizes; a separate state so that only the battalion benchmark runs per size.
+     */
+    @State(Scope.Thread)
+    public static class Sizes {
+
+        @Param({ "1000", "100000", "1000000" })
+        public int size;
+    }
+
+    @Setup
+    public void setUp() {
+        controller = new AppController();
+    }
+
+    @Benchmark
+    public Soldier buildSaveRegister() {
+        Soldier soldier = controller.buildSoldier("Bench", Rank.SERGEANT, 120, 60, 90,
+                WeaponType.SNIPER_RIFLE, WeaponType.PISTOL, HelmetType.STEALTH_HELMET,
+                List.of(SkillType.STEALTH), "Bench", false);
+        controller.saveSoldier(soldier);
+        controller.registerAsPrototype("Bench", soldier);
+        controller.removeSoldier(soldier);
+        controller.removePrototype("Bench");
+        return soldier;
+    }
+
+    @Benchmark
+    public int createAndRemoveBattalion(Sizes sizes) {
+        Battalion battalion = controller.createBattalion("Bench", Prototypes.KEYS[0], sizes.size);
+        controller.removeBattalion(battalion);
+        return battalion.getSize();
+    }
+}
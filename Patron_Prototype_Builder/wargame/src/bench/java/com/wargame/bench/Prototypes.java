@@ -0,0 +1,39 @@
+package com.wargame.bench;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+import com.wargame.model.Soldier;
+
+/**
+ * Fixtures shared by the benchmarks.
+ */
+final class Prototypes {
+
+    /** Keys of the default prototypes every {@code AppController} seeds. */
+    static final String[] KEYS = { "Sniper Elite", "Heavy Infantry", "Combat Medic" };
+
+    private Prototypes() {}
+
+    /**
+     * A fully specified soldier, as the builder panel would produce it.
+     */
+    static Soldier build(SoldierBuilder builder) {
+        return builder.reset()
+                .withName("Bench")
+                .withRank(Rank.CAPTAIN)
+                .withHealth(150)
+                .withArmor(80)
+                .withSpeed(70)
+                .withPrimaryWeapon(WeaponType.ROCKET_LAUNCHER)
+                .withSecondaryWeapon(WeaponType.PISTOL)
+                .withHelmet(HelmetType.BALLISTIC_HELMET)
+                .withSkill(SkillType.EXPLOSIVES_EXPERT)
+                .withSkill(SkillType.COMMANDER)
+                .withFaction("Bench")
+                .asElite(true)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.wargame.bench;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.factory.SoldierRegistry;
+import com.wargame.model.Soldier;
+import com.wargame.util.AppController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building a soldier from scratch against cloning a registered prototype.
+ */
+@State(Scope.Thread)
+public class SoldierBenchmark {
+
+    private SoldierBuilder builder;
+    private SoldierRegistry registry;
+
+    @Setup
+    public void setUp() {
+        builder = new SoldierBuilder();
+        registry = new AppController().getRegistry();
+    }
+
+    @Benchmark
+    public Soldier builderBuild() {
+        return Prototypes.build(builder);
+    }
+
+    @Benchmark
+    public Soldier registryClonePrototype() {
+        return registry.clonePrototype(Prototypes.KEYS[0]);
+    }
+}
@@ -1,15 +1,21 @@
 package com.wargame;
 
+import com.wargame.cli.BatchMain;
 import com.wargame.ui.MainWindow;
 
-import javax.swing.*;
+import java.util.Arrays;
 
 public class Main {
 
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            MainWindow window = new MainWindow();
-            window.setVisible(true);
-        });
+    /**
+     * Opens the window, or with {@code --batch <scenario> ...} runs the scenario headless
+     * (see {@link BatchMain}) without initializing Swing.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchMain.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        MainWindow.launch();
     }
 }
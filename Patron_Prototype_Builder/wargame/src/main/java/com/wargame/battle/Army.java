@@ -0,0 +1,102 @@
+package com.wargame.battle;
+
+import com.wargame.enums.SkillType;
+import com.wargame.model.Battalion;
+import com.wargame.model.SoldierRow;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Combat state of one side of a {@link Battle}, kept as primitive columns.
+ *
+ * <p>Stats are derived once from the battalion's soldiers; the battalion itself is never
+ * modified by a battle.</p>
+ */
+final class Army {
+
+    /** Dodge chances are expressed out of this many. */
+    static final int DODGE_SCALE = 1 << 16;
+
+    final String name;
+    final int size;
+
+    final int[] health;
+    final int[] maxHealth;
+    final int[] attack;
+    final int[] defense;
+    final int[] dodge;
+    final int[] regen;
+
+    /** Damage received during the current tick, summed across attacking threads. */
+    final AtomicIntegerArray incoming;
+
+    /** Indexes of the living soldiers, in ascending order; valid up to {@link #aliveCount}. */
+    int[] alive;
+    int aliveCount;
+
+    private Army(String name, int size) {
+        this.name = name;
+        this.size = size;
+        this.health = new int[size];
+        this.maxHealth = new int[size];
+        this.attack = new int[size];
+        this.defense = new int[size];
+        this.dodge = new int[size];
+        this.regen = new int[size];
+        this.incoming = new AtomicIntegerArray(size);
+        this.alive = new int[size];
+    }
+
+    static Army of(Battalion battalion) {
+        try (Battalion.Pin pin = battalion.pin()) {
+            return read(battalion);
+        }
+    }
+
+    /**
+     * Reads each row's attributes into the columns; no {@link com.wargame.model.Soldier} is
+     * materialized and no id rendered.
+     */
+    private static Army read(Battalion battalion) {
+        Army army = new Army(battalion.getName(), battalion.getSize());
+        SoldierRow row = new SoldierRow();
+        for (int i = 0; i < army.size; i++) {
+            battalion.readAttributes(i, row);
+            int skills = row.getSkillMask();
+            army.health[i] = army.maxHealth[i] = row.getHealth();
+            army.attack[i] = attackOf(row, skills);
+            army.defense[i] = row.getArmor() + (row.getHelmet() != null ? row.getHelmet().getDefenseValue() : 0);
+            army.dodge[i] = row.getSpeed() * DODGE_SCALE / 400;
+            army.regen[i] = (has(skills, SkillType.MEDIC) ? 10 : 0)
+                          + (has(skills, SkillType.SURVIVALIST) ? 5 : 0);
+            if (army.health[i] > 0) army.alive[army.aliveCount++] = i;
+        }
+        return army;
+    }
+
+    private static int attackOf(SoldierRow row, int skills) {
+        int attack = (row.getPrimaryWeapon() != null ? row.getPrimaryWeapon().getDamageValue() : 0)
+                   + (row.getSecondaryWeapon() != null ? row.getSecondaryWeapon().getDamageValue() / 2 : 0)
+                   + (row.getRank() != null ? row.getRank().getLevel() * 5 : 0)
+                   + (row.isElite() ? 10 : 0);
+        if (has(skills, SkillType.EXPLOSIVES_EXPERT)) attack += 10;
+        if (has(skills, SkillType.SNIPER_TRAINING))   attack += attack / 4;
+        return attack;
+    }
+
+    private static boolean has(int skillMask, SkillType skill) {
+        return (skillMask & (1 << skill.ordinal())) != 0;
+    }
+
+    /**
+     * Drops the soldiers that died this tick from the alive list, keeping index order.
+     */
+    void compact() {
+        int n = 0;
+        for (int k = 0; k < aliveCount; k++) {
+            int i = alive[k];
+            if (health[i] > 0) alive[n++] = i;
+        }
+        aliveCount = n;
+    }
+}
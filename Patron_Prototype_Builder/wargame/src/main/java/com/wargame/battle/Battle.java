@@ -0,0 +1,139 @@
+package com.wargame.battle;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A running engagement between two armies, advanced one tick at a time.
+ *
+ * <p>Each tick has two phases, each split into fixed-size chunks on a fork-join pool:</p>
+ * <ol>
+ *   <li><b>Strike</b> — every living soldier of both sides picks a living enemy and hits it
+ *       unless the target dodges. Targets, dodges and damage depend only on the seed, the
+ *       tick and the attacker's index, and hits are summed into the target's incoming
+ *       damage, so the order in which threads run does not matter.</li>
+ *   <li><b>Resolve</b> — incoming damage is applied, survivors regenerate, and the dead are
+ *       dropped from the alive lists in index order.</li>
+ * </ol>
+ * <p>The outcome is therefore identical for any parallelism level.</p>
+ */
+public class Battle {
+
+    private static final int CHUNK_SIZE = 32_768;
+
+    private final Army first;
+    private final Army second;
+    private final long seed;
+    private final ForkJoinPool pool;
+
+    private int tick;
+    private long damageByFirst;
+    private long damageBySecond;
+
+    Battle(Army first, Army second, long seed, ForkJoinPool pool) {
+        this.first = first;
+        this.second = second;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    public boolean isOver() {
+        return first.aliveCount == 0 || second.aliveCount == 0;
+    }
+
+    /**
+     * Advances the battle by one tick. Does nothing once the battle is over.
+     */
+    public void tick() {
+        if (isOver()) return;
+        tick++;
+        damageByFirst  += forEachChunk(first.aliveCount,  (lo, hi) -> strike(first, second, 0, lo, hi));
+        damageBySecond += forEachChunk(second.aliveCount, (lo, hi) -> strike(second, first, 1, lo, hi));
+        forEachChunk(first.aliveCount,  (lo, hi) -> resolve(first, lo, hi));
+        forEachChunk(second.aliveCount, (lo, hi) -> resolve(second, lo, hi));
+        first.compact();
+        second.compact();
+    }
+
+    public int getTick()             { return tick; }
+    public int getFirstSurvivors()   { return first.aliveCount; }
+    public int getSecondSurvivors()  { return second.aliveCount; }
+
+    public BattleResult result() {
+        return new BattleResult(first.name, second.name, tick,
+                first.aliveCount, second.aliveCount, damageByFirst, damageBySecond);
+    }
+
+    // ─── Phases ───────────────────────────────────────────────────────────────
+
+    private long strike(Army from, Army to, int side, int lo, int hi) {
+        int targets = to.aliveCount;
+        long dealt = 0;
+        for (int k = lo; k < hi; k++) {
+            int i = from.alive[k];
+            long h = mix(seed ^ ((long) tick << 33) ^ ((long) side << 32) ^ i);
+            int t = to.alive[(int) (((h & 0xFFFF_FFFFL) * targets) >>> 32)];
+            if ((int) (h >>> 48) < to.dodge[t]) continue;
+            int damage = Math.max(1, from.attack[i] * 100 / (100 + to.defense[t]));
+            to.incoming.getAndAdd(t, damage);
+            dealt += damage;
+        }
+        return dealt;
+    }
+
+    private static long resolve(Army army, int lo, int hi) {
+        for (int k = lo; k < hi; k++) {
+            int i = army.alive[k];
+            int h = army.health[i] - army.incoming.get(i);
+            army.incoming.set(i, 0);
+            if (h > 0) h = Math.min(army.maxHealth[i], h + army.regen[i]);
+            army.health[i] = h;
+        }
+        return 0;
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ─── Chunked execution ────────────────────────────────────────────────────
+
+    @FunctionalInterface
+    private interface ChunkBody {
+        long run(int lo, int hi);
+    }
+
+    /**
+     * Runs {@code body} over {@code [0, n)} in chunks and returns the sum of the results.
+     */
+    private long forEachChunk(int n, ChunkBody body) {
+        if (n <= CHUNK_SIZE) return body.run(0, n);
+        return pool.invoke(new ChunkTask(body, 0, n));
+    }
+
+    private static final class ChunkTask extends RecursiveTask<Long> {
+
+        private final ChunkBody body;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(ChunkBody body, int lo, int hi) {
+            this.body = body;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hi - lo <= CHUNK_SIZE) return body.run(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            ChunkTask left = new ChunkTask(body, lo, mid);
+            left.fork();
+            long right = new ChunkTask(body, mid, hi).compute();
+            return left.join() + right;
+        }
+    }
+}
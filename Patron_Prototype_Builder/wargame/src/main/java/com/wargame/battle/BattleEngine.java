@@ -0,0 +1,81 @@
+package com.wargame.battle;
+
+import com.wargame.model.Battalion;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Deterministic, tick-based battle simulator that pits two {@link Battalion}s against each other.
+ *
+ * <p>Given the same battalions and seed, every run produces the same {@link BattleResult},
+ * whatever the parallelism level. Ticks run on a fork-join pool: the common pool, one the
+ * caller shares, or a pool of its own that {@link #close()} shuts down.</p>
+ */
+public class BattleEngine implements AutoCloseable {
+
+    private final long seed;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+
+    /**
+     * Runs ticks on the common fork-join pool.
+     */
+    public BattleEngine(long seed) {
+        this(seed, ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * Runs ticks on {@code pool}, which stays open when this engine is closed.
+     */
+    public BattleEngine(long seed, ForkJoinPool pool) {
+        this(seed, pool, false);
+    }
+
+    /**
+     * Runs ticks on a pool of its own; close the engine to stop its threads.
+     *
+     * @param seed        seed for target selection and dodges
+     * @param parallelism number of worker threads used for each tick
+     */
+    public BattleEngine(long seed, int parallelism) {
+        this(seed, newPool(parallelism), true);
+    }
+
+    private BattleEngine(long seed, ForkJoinPool pool, boolean ownsPool) {
+        this.seed = seed;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    private static ForkJoinPool newPool(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1.");
+        return new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Prepares a battle that the caller advances with {@link Battle#tick()}. Both battalions
+     * are read here, on the caller's thread, and must not be growing meanwhile: the
+     * controller refuses battalions that are still being produced
+     * ({@link com.wargame.util.AppController#requireFinished}).
+     */
+    public Battle engage(Battalion first, Battalion second) {
+        return new Battle(Army.of(first), Army.of(second), seed, pool);
+    }
+
+    /**
+     * Runs a battle until one side is wiped out or {@code maxTicks} ticks have passed.
+     */
+    public BattleResult fight(Battalion first, Battalion second, int maxTicks) {
+        Battle battle = engage(first, second);
+        while (!battle.isOver() && battle.getTick() < maxTicks) battle.tick();
+        return battle.result();
+    }
+
+    /**
+     * Shuts down the pool if this engine created it; a shared pool is left alone.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) pool.shutdown();
+    }
+}
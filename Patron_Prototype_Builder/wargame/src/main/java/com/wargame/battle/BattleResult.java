@@ -0,0 +1,52 @@
+package com.wargame.battle;
+
+/**
+ * Outcome of a {@link Battle}: who is left standing and how much damage each side dealt.
+ */
+public class BattleResult {
+
+    private final String firstName;
+    private final String secondName;
+    private final int ticks;
+    private final int firstSurvivors;
+    private final int secondSurvivors;
+    private final long damageByFirst;
+    private final long damageBySecond;
+
+    BattleResult(String firstName, String secondName, int ticks,
+                 int firstSurvivors, int secondSurvivors, long damageByFirst, long damageBySecond) {
+        this.firstName = firstName;
+        this.secondName = secondName;
+        this.ticks = ticks;
+        this.firstSurvivors = firstSurvivors;
+        this.secondSurvivors = secondSurvivors;
+        this.damageByFirst = damageByFirst;
+        this.damageBySecond = damageBySecond;
+    }
+
+    /**
+     * Returns the name of the side that still has soldiers while the other has none,
+     * or {@code null} for a draw (both wiped out, or the tick limit was reached).
+     */
+    public String getWinner() {
+        if (firstSurvivors > 0 && secondSurvivors == 0) return firstName;
+        if (secondSurvivors > 0 && firstSurvivors == 0) return secondName;
+        return null;
+    }
+
+    public String getFirstName()       { return firstName; }
+    public String getSecondName()      { return secondName; }
+    public int getTicks()              { return ticks; }
+    public int getFirstSurvivors()     { return firstSurvivors; }
+    public int getSecondSurvivors()    { return secondSurvivors; }
+    public long getDamageByFirst()     { return damageByFirst; }
+    public long getDamageBySecond()    { return damageBySecond; }
+
+    @Override
+    public String toString() {
+        String winner = getWinner();
+        return String.format("Battle '%s' vs '%s' | Ticks: %d | Survivors: %d / %d | Damage: %d / %d | Winner: %s",
+                firstName, secondName, ticks, firstSurvivors, secondSurvivors,
+                damageByFirst, damageBySecond, winner != null ? winner : "draw");
+    }
+}
@@ -4,10 +4,16 @@ import com.wargame.enums.HelmetType;
 import com.wargame.enums.Rank;
 import com.wargame.enums.SkillType;
 import com.wargame.enums.WeaponType;
+import com.wargame.metrics.LatencyHistogram;
+import com.wargame.metrics.Metrics;
+import com.wargame.metrics.SoldierBuildEvent;
+import com.wargame.metrics.Tracing;
 import com.wargame.model.Soldier;
 
 public class SoldierBuilder {
 
+    private static final LatencyHistogram BUILD_TIME = Metrics.timer("builder.build");
+
     private String name          = "Unknown";
     private Rank rank            = Rank.PRIVATE;
     private int health           = 100;
@@ -83,6 +89,9 @@ public class SoldierBuilder {
             throw new IllegalStateException("Soldier must have a name.");
         }
 
+        long start = System.nanoTime();
+        SoldierBuildEvent event = Tracing.JFR ? new SoldierBuildEvent() : null;
+        if (event != null) event.begin();
         Soldier soldier = Soldier.createEmpty();
         soldier.setName(name);
         soldier.setRank(rank);
@@ -95,6 +104,12 @@ public class SoldierBuilder {
         skills.forEach(soldier::addSkill);
         soldier.setFaction(faction);
         soldier.setElite(isElite);
+        BUILD_TIME.recordSince(start);
+        if (event != null && event.shouldCommit()) {
+            event.soldierId = soldier.getId();
+            event.skills = skills.size();
+            event.commit();
+        }
         return soldier;
     }
 
@@ -0,0 +1,92 @@
+package com.wargame.cli;
+
+import com.wargame.metrics.Tracing;
+import com.wargame.util.AppController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Headless entry point: drives an {@link AppController} from a scenario file and prints
+ * how long each step took. No Swing or AWT class is loaded on this path.
+ *
+ * <p>Run from {@code Patron_Prototype_Builder/wargame}:</p>
+ * <pre>
+ *   javac -d out $(find src/main/java -name '*.java')
+ *   java -Djava.awt.headless=true -cp out com.wargame.cli.BatchMain scenario.txt
+ *        [--snapshot=state.snapshot] [--empty]
+ * </pre>
+ * <p>or {@code java -cp out com.wargame.Main --batch scenario.txt ...}. The scenario is read
+ * from standard input when its name is {@code -}. {@code --snapshot} starts from a saved
+ * state instead of the default prototypes; {@code --empty} starts with no prototypes at all.
+ * See {@link ScenarioRunner} for the commands.</p>
+ */
+public final class BatchMain {
+
+    private BatchMain() {}
+
+    public static void main(String[] args) throws IOException {
+        disableTracingByDefault();
+        System.exit(run(args, System.out));
+    }
+
+    /**
+     * Turns the JFR events off unless a recording was asked for, before anything reads
+     * {@link Tracing#JFR}: a batch run is usually over before a recording could be started
+     * with {@code jcmd}, so only the flags that record from startup are worth the cost.
+     */
+    private static void disableTracingByDefault() {
+        if (System.getProperty(Tracing.PROPERTY) != null) return;
+        String[] jvmArgs = ProcessHandle.current().info().arguments().orElse(new String[0]);
+        for (String arg : jvmArgs) {
+            if (arg.startsWith("-XX:StartFlightRecording") || arg.startsWith("-XX:FlightRecorderOptions")) return;
+        }
+        System.setProperty(Tracing.PROPERTY, "false");
+    }
+
+    /**
+     * Runs a scenario and returns the process exit code: 0 on success, 1 if a command
+     * failed, 2 on bad arguments.
+     */
+    public static int run(String[] args, PrintStream out) throws IOException {
+        String scenario = null;
+        Path snapshot = null;
+        boolean empty = false;
+        for (String arg : args) {
+            if (arg.startsWith("--snapshot="))  snapshot = Path.of(arg.substring(11));
+            else if (arg.equals("--empty"))     empty = true;
+            else if (scenario == null)          scenario = arg;
+            else {
+                out.println("Unexpected argument: " + arg);
+                return 2;
+            }
+        }
+        if (scenario == null) {
+            out.println("Usage: BatchMain <scenario|-> [--snapshot=file] [--empty]");
+            return 2;
+        }
+
+        long start = System.nanoTime();
+        List<String> lines = scenario.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).lines().toList()
+                : Files.readAllLines(Path.of(scenario));
+        AppController controller = snapshot != null ? AppController.fromSnapshot(snapshot)
+                                 : empty ? AppController.empty()
+                                 : new AppController();
+        long ready = System.nanoTime();
+
+        out.printf("%10.3f ms  startup: scenario read, controller ready%n", (ready - start) / 1e6);
+        ScenarioRunner runner = new ScenarioRunner(controller, out);
+        boolean ok = runner.run(lines);
+        controller.close();
+        out.printf("%10.3f ms  total for %d commands%s%n",
+                (System.nanoTime() - ready) / 1e6, runner.getCommandCount(), ok ? "" : " (stopped on error)");
+        return ok ? 0 : 1;
+    }
+}
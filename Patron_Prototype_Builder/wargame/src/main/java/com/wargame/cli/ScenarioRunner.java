@@ -0,0 +1,268 @@
+package com.wargame.cli;
+
+import com.wargame.battle.BattleEngine;
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.*;
+import com.wargame.metrics.Metrics;
+import com.wargame.model.Battalion;
+import com.wargame.model.Soldier;
+import com.wargame.model.SoldierQuery;
+import com.wargame.util.AppController;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Executes scenario commands against an {@link AppController}, one per line, timing each.
+ *
+ * <p>Blank lines and lines starting with {@code #} are skipped. Arguments are separated by
+ * spaces; wrap an argument in double quotes to keep its spaces. Options are
+ * {@code name=value} pairs, and enum values use their constant names.</p>
+ * <pre>
+ *   prototype &lt;key&gt; [name= rank= health= armor= speed= primary= secondary= helmet=
+ *                    skills=A,B faction= elite=true]
+ *   clone &lt;key&gt; &lt;n&gt;                          clone a prototype n times, keeping nothing
+ *   battalion &lt;name&gt; &lt;count&gt; &lt;key[,key...]&gt; [mode=LIST]
+ *   remove &lt;battalion&gt;
+ *   stats &lt;battalion&gt;                         size, power, elite count, median and p90
+ *   top &lt;battalion&gt; &lt;k&gt;                       the k strongest soldiers
+ *   query &lt;battalion&gt; [rank= weapon= helmet= skill= faction= elite=true]
+ *   battle &lt;first&gt; &lt;second&gt; [ticks=100 seed=1 threads=N]
+ *   army                                      army-wide totals
+ *   export &lt;file&gt; [CSV|NDJSON]
+ *   snapshot &lt;file&gt;
+ *   metrics &lt;file&gt;                            dump the operation metrics
+ *   repeat &lt;n&gt; &lt;command...&gt;                  run a command n times, reporting the mean
+ * </pre>
+ */
+public final class ScenarioRunner {
+
+    private final AppController controller;
+    private final PrintStream out;
+    private int commands;
+
+    public ScenarioRunner(AppController controller, PrintStream out) {
+        this.controller = controller;
+        this.out = out;
+    }
+
+    /**
+     * Runs every line in order, stopping at the first one that fails.
+     *
+     * @return {@code true} if every command succeeded
+     */
+    public boolean run(List<String> lines) {
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                execute(tokenize(line));
+            } catch (IOException | RuntimeException e) {
+                out.printf("     error  line %d: %s%n            %s%n", i + 1, line, e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getCommandCount() {
+        return commands;
+    }
+
+    // ─── Commands ─────────────────────────────────────────────────────────────
+
+    private void execute(List<String> args) throws IOException {
+        int times = 1;
+        if (args.get(0).equals("repeat")) {
+            require(args, 3, "repeat <n> <command...>");
+            times = Integer.parseInt(args.get(1));
+            if (times < 1) throw new IllegalArgumentException("Repeat count must be at least 1.");
+            args = args.subList(2, args.size());
+        }
+        String result = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) result = apply(args);
+        double millis = (System.nanoTime() - start) / 1e6 / times;
+        commands += times;
+        out.printf(Locale.ROOT, "%10.3f ms  %s%s%s%n", millis, String.join(" ", args),
+                times > 1 ? "  (mean of " + times + ")" : "", result.isEmpty() ? "" : "  ->  " + result);
+    }
+
+    /**
+     * Runs one command and returns what it has to report.
+     */
+    private String apply(List<String> args) throws IOException {
+        switch (args.get(0)) {
+            case "prototype" -> {
+                require(args, 2, "prototype <key> [attribute=value...]");
+                Soldier soldier = buildSoldier(args.get(1), options(args, 2));
+                controller.registerAsPrototype(args.get(1), soldier);
+                return "power " + soldier.calculateCombatPower();
+            }
+            case "clone" -> {
+                require(args, 3, "clone <key> <n>");
+                int n = Integer.parseInt(args.get(2));
+                return controller.getRegistry().clonePrototypes(args.get(1), n).length + " clones";
+            }
+            case "battalion" -> {
+                require(args, 4, "battalion <name> <count> <key[,key...]> [mode=...]");
+                int count = Integer.parseInt(args.get(2));
+                String[] keys = args.get(3).split(",");
+                StorageMode mode = StorageMode.valueOf(options(args, 4).getOrDefault("mode", "LIST"));
+                Battalion battalion = keys.length == 1
+                        ? controller.createBattalion(args.get(1), keys[0], count, mode)
+                        : controller.createMixedBattalion(args.get(1), keys, count, mode);
+                return battalion.getId() + ", " + battalion.getSize() + " soldiers";
+            }
+            case "remove" -> {
+                require(args, 2, "remove <battalion>");
+                controller.removeBattalion(battalion(args.get(1)));
+                return "";
+            }
+            case "stats" -> {
+                require(args, 2, "stats <battalion>");
+                Battalion b = battalion(args.get(1));
+                return String.format(Locale.ROOT, "size %d, power %d, avg %d, elite %d, p50 %d, p90 %d",
+                        b.getSize(), b.getTotalCombatPower(), b.getAverageCombatPower(), b.getEliteCount(),
+                        b.getPowerPercentile(50), b.getPowerPercentile(90));
+            }
+            case "top" -> {
+                require(args, 3, "top <battalion> <k>");
+                List<String> top = new ArrayList<>();
+                for (Soldier s : battalion(args.get(1)).getTopSoldiers(Integer.parseInt(args.get(2)))) {
+                    top.add(s.getId() + ":" + s.calculateCombatPower());
+                }
+                return String.join(" ", top);
+            }
+            case "query" -> {
+                require(args, 2, "query <battalion> [attribute=value...]");
+                return battalion(args.get(1)).select(query(options(args, 2))).size() + " soldiers";
+            }
+            case "battle" -> {
+                require(args, 3, "battle <first> <second> [ticks= seed= threads=]");
+                Map<String, String> o = options(args, 3);
+                int ticks = Integer.parseInt(o.getOrDefault("ticks", "100"));
+                long seed = Long.parseLong(o.getOrDefault("seed", "1"));
+                int threads = o.containsKey("threads") ? Integer.parseInt(o.get("threads"))
+                                                       : Runtime.getRuntime().availableProcessors();
+                Battalion first = battalion(args.get(1));
+                Battalion second = battalion(args.get(2));
+                controller.requireFinished(first);
+                controller.requireFinished(second);
+                try (BattleEngine engine = new BattleEngine(seed, threads)) {
+                    return engine.fight(first, second, ticks).toString();
+                }
+            }
+            case "army" -> {
+                return String.format(Locale.ROOT, "%d battalions, %d soldiers, power %d, elite %d, %d prototypes",
+                        controller.getBattalions().size(), controller.getArmySize(),
+                        controller.getArmyCombatPower(), controller.getArmyEliteCount(),
+                        controller.getRegistry().getPrototypeCount());
+            }
+            case "export" -> {
+                require(args, 2, "export <file> [CSV|NDJSON]");
+                ExportFormat format = args.size() > 2 ? ExportFormat.valueOf(args.get(2).toUpperCase(Locale.ROOT))
+                                                      : ExportFormat.CSV;
+                return controller.exportRoster(Path.of(args.get(1)), format) + " rows";
+            }
+            case "snapshot" -> {
+                require(args, 2, "snapshot <file>");
+                controller.saveSnapshot(Path.of(args.get(1)));
+                return "";
+            }
+            case "metrics" -> {
+                require(args, 2, "metrics <file>");
+                Metrics.dump(Path.of(args.get(1)));
+                return "";
+            }
+            default -> throw new IllegalArgumentException("Unknown command: " + args.get(0));
+        }
+    }
+
+    private Battalion battalion(String name) {
+        for (Battalion b : controller.getBattalions()) {
+            if (b.getName().equals(name) || b.getId().equals(name)) return b;
+        }
+        throw new IllegalArgumentException("No battalion named " + name);
+    }
+
+    private static Soldier buildSoldier(String key, Map<String, String> o) {
+        SoldierBuilder builder = new SoldierBuilder().withName(o.getOrDefault("name", key));
+        if (o.containsKey("rank"))      builder.withRank(Rank.valueOf(o.get("rank")));
+        if (o.containsKey("health"))    builder.withHealth(Integer.parseInt(o.get("health")));
+        if (o.containsKey("armor"))     builder.withArmor(Integer.parseInt(o.get("armor")));
+        if (o.containsKey("speed"))     builder.withSpeed(Integer.parseInt(o.get("speed")));
+        if (o.containsKey("primary"))   builder.withPrimaryWeapon(WeaponType.valueOf(o.get("primary")));
+        if (o.containsKey("secondary")) builder.withSecondaryWeapon(WeaponType.valueOf(o.get("secondary")));
+        if (o.containsKey("helmet"))    builder.withHelmet(HelmetType.valueOf(o.get("helmet")));
+        if (o.containsKey("faction"))   builder.withFaction(o.get("faction"));
+        if (o.containsKey("elite"))     builder.asElite(Boolean.parseBoolean(o.get("elite")));
+        if (o.containsKey("skills")) {
+            for (String skill : o.get("skills").split(",")) builder.withSkill(SkillType.valueOf(skill));
+        }
+        return builder.build();
+    }
+
+    private static SoldierQuery query(Map<String, String> o) {
+        SoldierQuery query = SoldierQuery.all();
+        if (o.containsKey("rank"))    query = query.and(SoldierQuery.rank(Rank.valueOf(o.get("rank"))));
+        if (o.containsKey("weapon"))  query = query.and(SoldierQuery.weapon(WeaponType.valueOf(o.get("weapon"))));
+        if (o.containsKey("helmet"))  query = query.and(SoldierQuery.helmet(HelmetType.valueOf(o.get("helmet"))));
+        if (o.containsKey("skill"))   query = query.and(SoldierQuery.skill(SkillType.valueOf(o.get("skill"))));
+        if (o.containsKey("faction")) query = query.and(SoldierQuery.faction(o.get("faction")));
+        if (o.containsKey("elite")) {
+            query = Boolean.parseBoolean(o.get("elite")) ? query.and(SoldierQuery.elite())
+                                                         : query.andNot(SoldierQuery.elite());
+        }
+        return query;
+    }
+
+    // ─── Parsing ──────────────────────────────────────────────────────────────
+
+    private static void require(List<String> args, int count, String usage) {
+        if (args.size() < count) throw new IllegalArgumentException("Usage: " + usage);
+    }
+
+    private static Map<String, String> options(List<String> args, int from) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args.subList(Math.min(from, args.size()), args.size())) {
+            int eq = arg.indexOf('=');
+            if (eq < 1) throw new IllegalArgumentException("Expected name=value, got " + arg);
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Splits on spaces, keeping double-quoted runs (which may sit inside a token, as in
+     * {@code faction="Muro de Hierro"}) together.
+     */
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                any = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (any) tokens.add(token.toString());
+                token.setLength(0);
+                any = false;
+            } else {
+                token.append(c);
+                any = true;
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unclosed quote");
+        if (any) tokens.add(token.toString());
+        return tokens;
+    }
+}
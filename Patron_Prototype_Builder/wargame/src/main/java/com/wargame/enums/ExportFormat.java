@@ -0,0 +1,23 @@
+package com.wargame.enums;
+
+/**
+ * File formats a roster can be exported to.
+ */
+public enum ExportFormat {
+    CSV("CSV", "csv"),
+    NDJSON("NDJSON", "ndjson");
+
+    private final String displayName;
+    private final String extension;
+
+    ExportFormat(String displayName, String extension) {
+        this.displayName = displayName;
+        this.extension = extension;
+    }
+
+    public String getDisplayName() { return displayName; }
+    public String getExtension()   { return extension; }
+
+    @Override
+    public String toString() { return displayName; }
+}
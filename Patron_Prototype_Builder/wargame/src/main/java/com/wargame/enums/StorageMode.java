@@ -0,0 +1,26 @@
+package com.wargame.enums;
+
+/**
+ * Storage layouts a {@link com.wargame.model.Battalion} can use for its soldiers.
+ */
+public enum StorageMode {
+    LIST("Object List", "One heap Soldier object per row"),
+    COLUMNAR("Columnar", "Struct-of-arrays: one primitive column per attribute"),
+    LAZY("Copy-on-write", "Prototype snapshot; soldiers are materialized only when mutated"),
+    PACKED("Packed", "One 64-bit word per soldier with bit-packed attributes"),
+    OFF_HEAP("Off-heap", "Packed words in direct memory outside the garbage-collected heap");
+
+    private final String displayName;
+    private final String description;
+
+    StorageMode(String displayName, String description) {
+        this.displayName = displayName;
+        this.description = description;
+    }
+
+    public String getDisplayName() { return displayName; }
+    public String getDescription() { return description; }
+
+    @Override
+    public String toString() { return displayName; }
+}
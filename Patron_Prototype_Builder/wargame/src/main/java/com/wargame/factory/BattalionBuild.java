@@ -0,0 +1,57 @@
+package com.wargame.factory;
+
+import com.wargame.model.Battalion;
+import com.wargame.model.Soldier;
+import com.wargame.util.ReservedIds;
+
+/**
+ * A battalion that is produced chunk by chunk rather than in one call.
+ *
+ * <p>{@link #nextChunk(int)} clones the next rows and may run on any thread; the caller
+ * decides when to hand them to {@link #getBattalion()}, so the battalion itself is only
+ * touched by one thread. Row {@code i} is a clone of {@code prototypes[i % prototypes.length]},
+ * as in {@link BattalionFactory#createMixedBattalion}, and takes the {@code i}-th id reserved
+ * when the build started, so stopping early leaves a battalion equal to a smaller mixed one
+ * created with those ids.</p>
+ */
+public final class BattalionBuild {
+
+    private final BattalionFactory factory;
+    private final Battalion battalion;
+    private final String[] keys;
+    private final Soldier[] prototypes;
+    private final ReservedIds ids;
+    private final int count;
+    private volatile int produced;
+
+    BattalionBuild(BattalionFactory factory, Battalion battalion, String[] keys, Soldier[] prototypes,
+                   ReservedIds ids, int count) {
+        this.factory = factory;
+        this.battalion = battalion;
+        this.keys = keys;
+        this.prototypes = prototypes;
+        this.ids = ids;
+        this.count = count;
+    }
+
+    /**
+     * Clones up to {@code max} further rows, on the factory's pool if there are enough of
+     * them; returns an empty array once all are produced.
+     */
+    public Soldier[] nextChunk(int max) {
+        int from = produced;
+        Soldier[] chunk = factory.cloneRows(prototypes, ids, from, Math.min(max, count - from));
+        produced = from + chunk.length;
+        return chunk;
+    }
+
+    public boolean isDone()          { return produced == count; }
+    public int getProduced()         { return produced; }
+    public int getCount()            { return count; }
+    public String[] getKeys()        { return keys.clone(); }
+    /** The prototypes as resolved when the build started. */
+    public Soldier[] getPrototypes() { return prototypes.clone(); }
+    /** Ids reserved for all {@link #getCount()} rows; row {@code i} gets {@code getSoldierIds().get(i)}. */
+    public ReservedIds getSoldierIds() { return ids; }
+    public Battalion getBattalion()  { return battalion; }
+}
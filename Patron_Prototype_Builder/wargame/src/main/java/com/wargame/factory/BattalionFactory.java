@@ -1,20 +1,55 @@
 package com.wargame.factory;
 
+import com.wargame.enums.StorageMode;
+import com.wargame.metrics.BattalionCreateEvent;
+import com.wargame.metrics.Counter;
+import com.wargame.metrics.LatencyHistogram;
+import com.wargame.metrics.Metrics;
+import com.wargame.metrics.Tracing;
 import com.wargame.model.Battalion;
+import com.wargame.model.PackedBattalion;
 import com.wargame.model.Soldier;
+import com.wargame.util.ReservedIds;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Smart factory that uses the {@link SoldierRegistry} to mass-produce battalions.
  *
  * <p>Demonstrates the Prototype pattern: once a template soldier exists,
  * the factory clones it N times to fill a battalion instantly.</p>
+ *
+ * <p>Layouts that keep one soldier per row get their clones from a fork-join pool once
+ * there are enough of them to split; the pool is started on first use and stopped by
+ * {@link #close()}.</p>
  */
-public class BattalionFactory {
+public class BattalionFactory implements AutoCloseable {
+
+    /** Clones produced by one fork-join leaf before it stops splitting. */
+    private static final int CHUNK_SIZE = 8_192;
+
+    private static final LatencyHistogram CREATE_TIME = Metrics.timer("factory.createBattalion");
+    private static final LatencyHistogram CREATE_MIXED_TIME = Metrics.timer("factory.createMixedBattalion");
+    private static final Counter SOLDIERS = Metrics.counter("factory.soldiers");
 
     private final SoldierRegistry registry;
+    private final int parallelism;
+    private ForkJoinPool pool;
 
     public BattalionFactory(SoldierRegistry registry) {
+        this(registry, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param registry    prototype source
+     * @param parallelism number of worker threads that clone the rows of large battalions;
+     *                    {@code 1} clones on the calling thread
+     */
+    public BattalionFactory(SoldierRegistry registry, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1.");
         this.registry = registry;
+        this.parallelism = parallelism;
     }
 
     /**
@@ -26,13 +61,32 @@ public class BattalionFactory {
      * @return a fully staffed {@link Battalion}
      */
     public Battalion createBattalion(String battalionName, String prototypeKey, int count) {
+        return createBattalion(battalionName, prototypeKey, count, StorageMode.LIST);
+    }
+
+    /**
+     * Creates a full battalion by cloning the named prototype {@code count} times,
+     * storing its soldiers with the given layout.
+     *
+     * @param battalionName  name of the battalion to create
+     * @param prototypeKey   key of the soldier template in the registry
+     * @param count          number of soldiers to clone
+     * @param mode           storage layout for the battalion's soldiers
+     * @return a fully staffed {@link Battalion}
+     */
+    public Battalion createBattalion(String battalionName, String prototypeKey, int count, StorageMode mode) {
+        return createBattalion(battalionName, prototypeKey, count, mode, reserve(count));
+    }
+
+    /**
+     * Same as {@link #createBattalion(String, String, int, StorageMode)}; soldier {@code i}
+     * gets {@code soldierIds.get(i)}.
+     */
+    public Battalion createBattalion(String battalionName, String prototypeKey, int count, StorageMode mode,
+                                     ReservedIds soldierIds) {
         if (count < 1) throw new IllegalArgumentException("Battalion must have at least 1 soldier.");
-        Battalion battalion = new Battalion(battalionName);
-        for (int i = 0; i < count; i++) {
-            Soldier clone = registry.clonePrototype(prototypeKey);
-            battalion.addSoldier(clone);
-        }
-        return battalion;
+        Soldier[] prototypes = { registry.getPrototype(prototypeKey) };
+        return produce(battalionName, prototypes, count, mode, soldierIds, prototypeKey, false);
     }
 
     /**
@@ -44,12 +98,204 @@ public class BattalionFactory {
      * @return a battalion with mixed soldier types
      */
     public Battalion createMixedBattalion(String battalionName, String[] keys, int totalCount) {
+        return createMixedBattalion(battalionName, keys, totalCount, StorageMode.LIST);
+    }
+
+    /**
+     * Creates a mixed battalion with soldiers from multiple prototypes,
+     * storing its soldiers with the given layout.
+     *
+     * @param battalionName name of the battalion
+     * @param keys          array of prototype keys to cycle through
+     * @param totalCount    total soldiers to add
+     * @param mode          storage layout for the battalion's soldiers
+     * @return a battalion with mixed soldier types
+     */
+    public Battalion createMixedBattalion(String battalionName, String[] keys, int totalCount, StorageMode mode) {
+        return createMixedBattalion(battalionName, keys, totalCount, mode, reserve(totalCount));
+    }
+
+    /**
+     * Same as {@link #createMixedBattalion(String, String[], int, StorageMode)}; soldier {@code i}
+     * gets {@code soldierIds.get(i)}.
+     */
+    public Battalion createMixedBattalion(String battalionName, String[] keys, int totalCount, StorageMode mode,
+                                          ReservedIds soldierIds) {
         if (keys == null || keys.length == 0) throw new IllegalArgumentException("Must provide at least one prototype key.");
-        Battalion battalion = new Battalion(battalionName);
-        for (int i = 0; i < totalCount; i++) {
-            String key = keys[i % keys.length];
-            battalion.addSoldier(registry.clonePrototype(key));
+        return produce(battalionName, resolve(keys), totalCount, mode, soldierIds, String.join(",", keys), true);
+    }
+
+    /**
+     * Creates a mixed battalion from prototypes resolved earlier, e.g. those of a
+     * {@link BattalionBuild}, whatever the registry holds under their keys now.
+     */
+    public Battalion createMixedBattalion(String battalionName, Soldier[] prototypes, int totalCount, StorageMode mode) {
+        return createMixedBattalion(battalionName, prototypes, totalCount, mode, reserve(totalCount));
+    }
+
+    /**
+     * Same as {@link #createMixedBattalion(String, Soldier[], int, StorageMode)}; soldier {@code i}
+     * gets {@code soldierIds.get(i)}.
+     */
+    public Battalion createMixedBattalion(String battalionName, Soldier[] prototypes, int totalCount, StorageMode mode,
+                                          ReservedIds soldierIds) {
+        if (prototypes == null || prototypes.length == 0) throw new IllegalArgumentException("Must provide at least one prototype.");
+        return produce(battalionName, prototypes.clone(), totalCount, mode, soldierIds, null, true);
+    }
+
+    /**
+     * Shared by every create method: a negative count gives an empty battalion.
+     */
+    private Battalion produce(String battalionName, Soldier[] prototypes, int totalCount, StorageMode mode,
+                              ReservedIds soldierIds, String keys, boolean mixed) {
+        long start = System.nanoTime();
+        BattalionCreateEvent event = beginCreate();
+        int count = Math.max(totalCount, 0);
+        Battalion battalion;
+        if (buildsFromPrototypes(mode)) {
+            battalion = fromPrototypes(battalionName, prototypes, count, mode, soldierIds);
+        } else {
+            battalion = new Battalion(battalionName, mode);
+            battalion.addSoldiers(cloneRows(prototypes, soldierIds, 0, count));
         }
+        (mixed ? CREATE_MIXED_TIME : CREATE_TIME).recordSince(start);
+        SOLDIERS.add(count);
+        commit(event, battalion, keys, mixed);
         return battalion;
     }
+
+    // ─── Incremental production ───────────────────────────────────────────────
+
+    /**
+     * Starts an empty {@link StorageMode#LIST} battalion that is filled chunk by chunk
+     * through the returned {@link BattalionBuild}. The prototypes are resolved now, so
+     * later registry changes do not affect the rows still to be produced.
+     *
+     * @param battalionName name of the battalion
+     * @param keys          prototype keys to cycle through; one key gives a plain battalion
+     * @param count         total soldiers to produce
+     */
+    public BattalionBuild startBattalion(String battalionName, String[] keys, int count) {
+        if (keys == null || keys.length == 0) throw new IllegalArgumentException("Must provide at least one prototype key.");
+        if (count < 1) throw new IllegalArgumentException("Battalion must have at least 1 soldier.");
+        return new BattalionBuild(this, new Battalion(battalionName), keys.clone(), resolve(keys), reserve(count), count);
+    }
+
+    // ─── Parallel cloning ─────────────────────────────────────────────────────
+
+    /**
+     * Clones rows {@code [first, first + count)}, where row {@code i} is a clone of
+     * {@code prototypes[i % prototypes.length]} with id {@code ids.get(i)}; large ranges are
+     * split across the pool.
+     */
+    Soldier[] cloneRows(Soldier[] prototypes, ReservedIds ids, int first, int count) {
+        Soldier[] soldiers = new Soldier[count];
+        CloneTask task = new CloneTask(prototypes, ids, first, soldiers, 0, count);
+        if (parallelism > 1 && count > CHUNK_SIZE) pool().invoke(task);
+        else task.compute();
+        return soldiers;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Stops the cloning threads, if they were started; a later large battalion starts them again.
+     */
+    @Override
+    public synchronized void close() {
+        if (pool != null) pool.shutdown();
+        pool = null;
+    }
+
+    /**
+     * Starts timing a battalion for JFR; {@code null} when {@link Tracing#JFR} is off.
+     */
+    private static BattalionCreateEvent beginCreate() {
+        if (!Tracing.JFR) return null;
+        BattalionCreateEvent event = new BattalionCreateEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void commit(BattalionCreateEvent event, Battalion battalion, String prototypeKey, boolean mixed) {
+        if (event == null || !event.shouldCommit()) return;
+        event.battalionId = battalion.getId();
+        event.prototypeKey = prototypeKey;
+        event.mixed = mixed;
+        event.count = battalion.getSize();
+        event.storageMode = battalion.getStorageMode().name();
+        event.commit();
+    }
+
+    /**
+     * Builds a battalion straight from the prototypes, without cloning a soldier per row.
+     */
+    private static Battalion fromPrototypes(String battalionName, Soldier[] prototypes, int count, StorageMode mode,
+                                            ReservedIds soldierIds) {
+        return mode == StorageMode.LAZY
+                ? Battalion.ofPrototypes(battalionName, prototypes, count, soldierIds)
+                : PackedBattalion.of(battalionName, prototypes, count, mode, soldierIds);
+    }
+
+    /**
+     * Layouts that keep prototypes or packed words rather than one cloned soldier per row.
+     */
+    private static boolean buildsFromPrototypes(StorageMode mode) {
+        return mode == StorageMode.LAZY || mode == StorageMode.PACKED || mode == StorageMode.OFF_HEAP;
+    }
+
+    /**
+     * Ids for the rows of a new battalion, one contiguous range so a journal can name them by the first.
+     */
+    private static ReservedIds reserve(int count) {
+        return Soldier.getIdGenerator().reserve(Math.max(count, 0));
+    }
+
+    private Soldier[] resolve(String[] keys) {
+        Soldier[] prototypes = new Soldier[keys.length];
+        for (int i = 0; i < keys.length; i++) prototypes[i] = registry.getPrototype(keys[i]);
+        return prototypes;
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) pool = new ForkJoinPool(parallelism);
+        return pool;
+    }
+
+    /**
+     * Fills {@code out[from, to)} with the clones of rows {@code first + from} onwards,
+     * splitting in halves down to {@link #CHUNK_SIZE}.
+     */
+    private static final class CloneTask extends RecursiveAction {
+
+        private final Soldier[] prototypes;
+        private final ReservedIds ids;
+        private final int first;
+        private final Soldier[] out;
+        private final int from;
+        private final int to;
+
+        CloneTask(Soldier[] prototypes, ReservedIds ids, int first, Soldier[] out, int from, int to) {
+            this.prototypes = prototypes;
+            this.ids = ids;
+            this.first = first;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                int n = prototypes.length;
+                for (int i = from; i < to; i++) out[i] = prototypes[(first + i) % n].cloneAs(ids.get(first + i));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CloneTask(prototypes, ids, first, out, from, mid),
+                      new CloneTask(prototypes, ids, first, out, mid, to));
+        }
+    }
 }
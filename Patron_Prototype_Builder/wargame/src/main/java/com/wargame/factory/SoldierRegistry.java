@@ -1,5 +1,8 @@
 package com.wargame.factory;
 
+import com.wargame.metrics.Counter;
+import com.wargame.metrics.LatencyHistogram;
+import com.wargame.metrics.Metrics;
 import com.wargame.model.Soldier;
 
 import java.util.Collections;
@@ -11,10 +14,19 @@ import java.util.Map;
  * Acts as the "template library" for the Prototype pattern.
  *
  * <p>Any soldier stored here can be cloned on demand without rebuilding from scratch.</p>
+ *
+ * <p>The registry is safe for concurrent use. Its contents live in an immutable,
+ * versioned {@link Snapshot}: readers ({@link #clonePrototype}, {@link #hasPrototype},
+ * {@link #getAllPrototypes}) only read the current snapshot and never lock, while writers
+ * copy it, apply their change and publish the result as the next version.</p>
  */
 public class SoldierRegistry {
 
-    private final Map<String, Soldier> prototypes = new LinkedHashMap<>();
+    /** Times each bulk clone call; a single clone is only counted, timing it would cost more than the clone. */
+    private static final LatencyHistogram BULK_CLONE_TIME = Metrics.timer("registry.clonePrototypes");
+    private static final Counter CLONES = Metrics.counter("registry.clones");
+
+    private volatile Snapshot current = new Snapshot(Collections.emptyMap(), 0);
 
     /**
      * Registers a soldier as a reusable prototype template.
@@ -22,8 +34,10 @@ public class SoldierRegistry {
      * @param key    unique identifier for this template
      * @param soldier the prototype soldier to store
      */
-    public void registerPrototype(String key, Soldier soldier) {
-        prototypes.put(key, soldier);
+    public synchronized void registerPrototype(String key, Soldier soldier) {
+        Map<String, Soldier> next = new LinkedHashMap<>(current.prototypes);
+        next.put(key, soldier);
+        publish(next);
     }
 
     /**
@@ -31,8 +45,11 @@ public class SoldierRegistry {
      *
      * @param key identifier of the template to remove
      */
-    public void removePrototype(String key) {
-        prototypes.remove(key);
+    public synchronized void removePrototype(String key) {
+        if (!current.prototypes.containsKey(key)) return;
+        Map<String, Soldier> next = new LinkedHashMap<>(current.prototypes);
+        next.remove(key);
+        publish(next);
     }
 
     /**
@@ -43,25 +60,112 @@ public class SoldierRegistry {
      * @throws IllegalArgumentException if no prototype is found for the key
      */
     public Soldier clonePrototype(String key) {
-        Soldier prototype = prototypes.get(key);
+        Soldier clone = getPrototype(key).clone();
+        CLONES.increment();
+        return clone;
+    }
+
+    /**
+     * Clones the prototype identified by {@code key} {@code n} times.
+     * The prototype is resolved once, so every copy comes from the same template.
+     *
+     * @param key the prototype key
+     * @param n   number of clones
+     * @return a new array holding the clones
+     * @throws IllegalArgumentException if no prototype is found for the key
+     */
+    public Soldier[] clonePrototypes(String key, int n) {
+        if (n < 0) throw new IllegalArgumentException("Clone count cannot be negative.");
+        Soldier[] clones = new Soldier[n];
+        stamp(getPrototype(key), clones, 0, n);
+        return clones;
+    }
+
+    /**
+     * Writes {@code n} clones of the prototype identified by {@code key}
+     * into {@code dest[offset, offset + n)}.
+     *
+     * @throws IllegalArgumentException  if no prototype is found for the key
+     * @throws IndexOutOfBoundsException if the range does not fit in {@code dest}
+     */
+    public void clonePrototypesInto(String key, Soldier[] dest, int offset, int n) {
+        if (offset < 0 || n < 0 || offset > dest.length - n) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + n
+                    + ") does not fit in array of length " + dest.length);
+        }
+        stamp(getPrototype(key), dest, offset, n);
+    }
+
+    /**
+     * Returns the stored prototype itself (not a copy).
+     *
+     * @throws IllegalArgumentException if no prototype is found for the key
+     */
+    public Soldier getPrototype(String key) {
+        Soldier prototype = current.prototypes.get(key);
         if (prototype == null) {
             throw new IllegalArgumentException("No prototype found for key: " + key);
         }
-        return prototype.clone();
+        return prototype;
     }
 
     /**
      * Checks whether a prototype exists for the given key.
      */
     public boolean hasPrototype(String key) {
-        return prototypes.containsKey(key);
+        return current.prototypes.containsKey(key);
     }
 
+    /**
+     * Returns the prototypes of the current snapshot, in insertion order.
+     * The map never changes after it is returned.
+     */
     public Map<String, Soldier> getAllPrototypes() {
-        return Collections.unmodifiableMap(prototypes);
+        return current.prototypes;
     }
 
     public int getPrototypeCount() {
-        return prototypes.size();
+        return current.prototypes.size();
+    }
+
+    /**
+     * Returns the current snapshot; its map and version always belong together.
+     */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public long getVersion() {
+        return current.version;
+    }
+
+    private static void stamp(Soldier prototype, Soldier[] dest, int offset, int n) {
+        long start = System.nanoTime();
+        for (int i = offset, end = offset + n; i < end; i++) {
+            dest[i] = prototype.clone();
+        }
+        BULK_CLONE_TIME.recordSince(start);
+        CLONES.add(n);
+    }
+
+    private void publish(Map<String, Soldier> next) {
+        current = new Snapshot(Collections.unmodifiableMap(next), current.version + 1);
+    }
+
+    /**
+     * Immutable view of the registry at one version.
+     */
+    public static final class Snapshot {
+
+        private final Map<String, Soldier> prototypes;
+        private final long version;
+
+        private Snapshot(Map<String, Soldier> prototypes, long version) {
+            this.prototypes = prototypes;
+            this.version = version;
+        }
+
+        public Map<String, Soldier> getPrototypes() { return prototypes; }
+        public long getVersion()                     { return version; }
     }
 }
@@ -0,0 +1,30 @@
+package com.wargame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a mutation made through {@code AppController}, journaling included.
+ */
+@Name("com.wargame.ArmyMutation")
+@Label("Army Mutation")
+@Category({"Wargame", "Controller"})
+public final class ArmyMutationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Battalion Id")
+    public String battalionId;
+
+    @Label("Prototype Key")
+    public String prototypeKey;
+
+    @Label("Soldier Id")
+    public String soldierId;
+
+    @Label("Count")
+    public int count;
+}
@@ -0,0 +1,30 @@
+package com.wargame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a battalion produced by {@code BattalionFactory}.
+ */
+@Name("com.wargame.BattalionCreate")
+@Label("Battalion Create")
+@Category({"Wargame", "Factory"})
+public final class BattalionCreateEvent extends Event {
+
+    @Label("Battalion Id")
+    public String battalionId;
+
+    @Label("Prototype Key")
+    public String prototypeKey;
+
+    @Label("Mixed")
+    public boolean mixed;
+
+    @Label("Count")
+    public int count;
+
+    @Label("Storage Mode")
+    public String storageMode;
+}
@@ -0,0 +1,38 @@
+package com.wargame.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic event counter, cheap to bump from many threads at once.
+ */
+public final class Counter {
+
+    private final String name;
+    private final LongAdder value = new LongAdder();
+    private final long createdNanos = System.nanoTime();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long n) {
+        value.add(n);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    /** {@link System#nanoTime()} reading when the counter was created. */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+}
@@ -0,0 +1,132 @@
+package com.wargame.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the spirit of HdrHistogram.
+ *
+ * <p>Values below {@value #SUB_COUNT} ns get a bucket each; above that every power of two
+ * is split into {@value #SUB_COUNT} equal buckets, so a reported value is within about 3%
+ * of the recorded one from nanoseconds up to hours. Recording is a shift-and-count and a
+ * single atomic increment — no locks, no allocation — and may happen from any thread; the
+ * mean is derived from the buckets rather than kept in a shared sum.
+ * Snapshots are read without stopping writers, so a snapshot taken mid-burst can miss the
+ * events still in flight.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT + SUB_COUNT;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final long createdNanos = System.nanoTime();
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** {@link System#nanoTime()} reading when the histogram was created. */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * Records one event that took {@code nanos}.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.getAndIncrement(bucketOf(nanos));
+    }
+
+    /**
+     * Records one event that started at {@code startNanos}, a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        double total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = counts[i] = buckets.get(i);
+            count += n;
+            total += (double) n * midValueOf(i);
+        }
+        return new Snapshot(counts, count, total);
+    }
+
+    // ─── Buckets ──────────────────────────────────────────────────────────────
+
+    static int bucketOf(long nanos) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS);
+        return (shift << SUB_BITS) + (int) (nanos >>> shift);
+    }
+
+    /** Largest value that lands in {@code bucket}. */
+    static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_COUNT) return bucket;
+        int shift = (bucket >>> SUB_BITS) - 1;
+        long mantissa = bucket - ((long) shift << SUB_BITS);
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /** Middle of the values that land in {@code bucket}. */
+    static long midValueOf(int bucket) {
+        if (bucket < 2 * SUB_COUNT) return bucket;
+        int shift = (bucket >>> SUB_BITS) - 1;
+        long mantissa = bucket - ((long) shift << SUB_BITS);
+        return (mantissa << shift) + (1L << shift >>> 1);
+    }
+
+    /**
+     * Point-in-time copy of a histogram's counts.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final double totalNanos;
+
+        private Snapshot(long[] counts, long count, double totalNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : (long) (totalNanos / count);
+        }
+
+        /**
+         * Latency at {@code percentile} (e.g. {@code 99.9}): the smallest value at least that
+         * share of the events did not exceed, to bucket precision.
+         */
+        public long getPercentileNanos(double percentile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return highestValueOf(i);
+            }
+            return getMaxNanos();
+        }
+
+        public long getMaxNanos() {
+            for (int i = counts.length - 1; i >= 0; i--) if (counts[i] != 0) return highestValueOf(i);
+            return 0;
+        }
+    }
+}
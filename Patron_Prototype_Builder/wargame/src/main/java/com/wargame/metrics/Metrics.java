@@ -0,0 +1,109 @@
+package com.wargame.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry of named latency histograms and counters.
+ *
+ * <p>Instrumented classes look their metrics up once, into a static field, and record
+ * into them directly; the registry is only consulted again to list or dump them.</p>
+ */
+public final class Metrics {
+
+    private static final Map<String, LatencyHistogram> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    /** Counts at the previous {@link #dump}, by metric name, and when it was taken. */
+    private static final Map<String, Long> DUMPED_TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, Long> DUMPED_COUNTERS = new ConcurrentHashMap<>();
+    private static long dumpedNanos;
+
+    private Metrics() {}
+
+    /**
+     * Returns the histogram called {@code name}, creating it on first use.
+     */
+    public static LatencyHistogram timer(String name) {
+        return TIMERS.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Returns the counter called {@code name}, creating it on first use.
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    /** Registered histograms, by name. */
+    public static List<LatencyHistogram> timers() {
+        List<LatencyHistogram> timers = new ArrayList<>(TIMERS.values());
+        timers.sort(Comparator.comparing(LatencyHistogram::getName));
+        return timers;
+    }
+
+    /** Registered counters, by name. */
+    public static List<Counter> counters() {
+        List<Counter> counters = new ArrayList<>(COUNTERS.values());
+        counters.sort(Comparator.comparing(Counter::getName));
+        return counters;
+    }
+
+    /**
+     * Writes every metric to {@code file} as a plain-text table, latencies in microseconds.
+     * Counts and latencies cover the whole run; {@code ops/s} is the rate since the previous
+     * dump, or since the metric was created for the first one.
+     */
+    public static synchronized void dump(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        long now = System.nanoTime();
+        long since = dumpedNanos;
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("# Metrics at " + Instant.now()
+                    + (since == 0 ? "" : String.format(Locale.ROOT, ", rates over the last %.1f s", (now - since) / 1e9)));
+            out.newLine();
+            out.write(String.format(Locale.ROOT, "%-36s %12s %12s %10s %10s %10s %10s %10s%n",
+                    "timer", "count", "ops/s", "mean_us", "p50_us", "p99_us", "p999_us", "max_us"));
+            for (LatencyHistogram timer : timers()) {
+                LatencyHistogram.Snapshot s = timer.snapshot();
+                double rate = rate(DUMPED_TIMERS, timer.getName(), s.getCount(), since, timer.getCreatedNanos(), now);
+                out.write(String.format(Locale.ROOT, "%-36s %12d %12.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                        timer.getName(), s.getCount(), rate, micros(s.getMeanNanos()),
+                        micros(s.getPercentileNanos(50)), micros(s.getPercentileNanos(99)),
+                        micros(s.getPercentileNanos(99.9)), micros(s.getMaxNanos())));
+            }
+            out.newLine();
+            out.write(String.format(Locale.ROOT, "%-36s %12s %12s%n", "counter", "count", "ops/s"));
+            for (Counter counter : counters()) {
+                long count = counter.get();
+                double rate = rate(DUMPED_COUNTERS, counter.getName(), count, since, counter.getCreatedNanos(), now);
+                out.write(String.format(Locale.ROOT, "%-36s %12d %12.1f%n", counter.getName(), count, rate));
+            }
+        }
+        dumpedNanos = now;
+    }
+
+    /**
+     * Events per second between the previous dump (or {@code createdNanos}, if later) and
+     * {@code now}; remembers {@code count} for the next dump.
+     */
+    private static double rate(Map<String, Long> dumped, String name, long count, long since, long createdNanos, long now) {
+        Long previous = dumped.put(name, count);
+        long from = previous != null ? since : createdNanos;
+        return now <= from ? 0 : (count - (previous != null ? previous : 0)) * 1e9 / (now - from);
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.wargame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one {@code SoldierBuilder.build()}.
+ */
+@Name("com.wargame.SoldierBuild")
+@Label("Soldier Build")
+@Category({"Wargame", "Model"})
+@StackTrace(false)
+public final class SoldierBuildEvent extends Event {
+
+    @Label("Soldier Id")
+    public String soldierId;
+
+    @Label("Skills")
+    public int skills;
+}
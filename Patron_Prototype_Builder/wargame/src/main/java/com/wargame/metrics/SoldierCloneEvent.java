@@ -0,0 +1,42 @@
+package com.wargame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * JFR event for one sampled {@code Soldier.clone()}. Clones are far too frequent to record
+ * each one, so while recording only about one in {@value #SAMPLE_INTERVAL} is timed.
+ */
+@Name("com.wargame.SoldierClone")
+@Label("Soldier Clone")
+@Category({"Wargame", "Model"})
+@Description("A sampled prototype clone")
+@StackTrace(false)
+public final class SoldierCloneEvent extends Event {
+
+    public static final int SAMPLE_INTERVAL = 1024;
+
+    @Label("Source Id")
+    public String sourceId;
+
+    @Label("Clone Id")
+    public String cloneId;
+
+    @Label("Sample Interval")
+    @Description("Clones represented by this event")
+    public int sampleInterval = SAMPLE_INTERVAL;
+
+    /**
+     * Decides whether the current clone is sampled; independent per thread, so parallel
+     * production does not share a counter.
+     */
+    public static boolean sample() {
+        return ThreadLocalRandom.current().nextInt(SAMPLE_INTERVAL) == 0;
+    }
+}
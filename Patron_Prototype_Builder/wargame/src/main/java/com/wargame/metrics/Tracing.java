@@ -0,0 +1,22 @@
+package com.wargame.metrics;
+
+/**
+ * Decides once, when this class loads, whether the JFR events in this package are emitted.
+ *
+ * <p>Tracing is on unless the {@code wargame.jfr} system property is {@code false}, so the
+ * window's events show up in a recording started at any time, e.g. with
+ * {@code jcmd <pid> JFR.start}. Loading the first {@code jdk.jfr.Event} subclass starts the
+ * JVM's recorder machinery, which costs a few hundred milliseconds even when nothing is
+ * recording; call sites check {@link #JFR} first so no event class is loaded when tracing
+ * is off. Short-lived batch runs avoid that cost: {@code BatchMain} turns tracing off
+ * unless the JVM was started with recording flags or {@code -Dwargame.jfr=true}.</p>
+ */
+public final class Tracing {
+
+    /** System property that turns the events off when {@code false}. */
+    public static final String PROPERTY = "wargame.jfr";
+
+    public static final boolean JFR = !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+
+    private Tracing() {}
+}
@@ -0,0 +1,26 @@
+package com.wargame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the main window updating its panels, fully or from a batch of changes.
+ */
+@Name("com.wargame.UiRefresh")
+@Label("UI Refresh")
+@Category({"Wargame", "UI"})
+@StackTrace(false)
+public final class UiRefreshEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Changes")
+    public int changes;
+
+    @Label("Battalions")
+    public int battalions;
+}
@@ -1,44 +1,453 @@
 package com.wargame.model;
 
+import com.wargame.enums.Rank;
+import com.wargame.enums.StorageMode;
+import com.wargame.enums.WeaponType;
+import com.wargame.util.BlockIdGenerator;
+import com.wargame.util.IdGenerator;
+import com.wargame.util.ReservedIds;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Represents a named battalion containing a collection of soldiers.
+ *
+ * <p>The rows are kept in a {@link SoldierStorage} chosen by {@link StorageMode};
+ * the default {@link StorageMode#LIST} keeps one heap object per soldier.</p>
+ *
+ * <p>Total power, elite count and the per-rank and per-weapon counts are running totals:
+ * adding, removing or mutating a row adjusts them in O(1), so reading them never scans.</p>
  */
 public class Battalion {
 
+    private static volatile IdGenerator idGenerator = new BlockIdGenerator(6);
+
     private final String id;
     private String name;
-    private final List<Soldier> soldiers;
+    private final SoldierStorage storage;
+
+    /** Built on the first {@link #select}; kept in step by adds, removes and row edits from then on. */
+    private BattalionIndex index;
+
+    /**
+     * Built on the first power-ordered query or installed by {@link #installPowerIndex};
+     * kept in step like {@link #index} until {@link #dropPowerIndex}.
+     */
+    private PowerIndex powerIndex;
+
+    /** Bumped after every add, remove and row edit, so an index built elsewhere can tell it is stale. */
+    private volatile int version;
+
+    private long totalPower;
+    private int eliteCount;
+
+    /** Rows per rank code and per primary weapon code; counted on first use, kept in step after. */
+    private int[] rankCounts;
+    private int[] weaponCounts;
+
+    private BattalionListener listener;
 
     public Battalion(String name) {
-        this.id = UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+        this(name, StorageMode.LIST);
+    }
+
+    public Battalion(String name, StorageMode mode) {
+        this(idGenerator.nextId(), name, SoldierStorage.create(mode));
+    }
+
+    Battalion(String id, String name, SoldierStorage storage) {
+        this.id = id;
         this.name = name;
-        this.soldiers = new ArrayList<>();
+        this.storage = storage;
+        recount();
+        storage.observeRows(new RowTracker());
+    }
+
+    /**
+     * Recreates a persisted battalion with its original id on top of an existing storage.
+     */
+    public static Battalion restore(String id, String name, SoldierStorage storage) {
+        return new Battalion(id, name, storage);
+    }
+
+    /**
+     * Gives a rebuilt battalion back the id it had originally; the soldiers are shared, not copied.
+     */
+    public static Battalion restore(String id, Battalion rebuilt) {
+        return new Battalion(id, rebuilt.name, rebuilt.storage);
+    }
+
+    /**
+     * Creates a {@link StorageMode#LAZY} battalion of {@code count} clones, where soldier
+     * {@code i} is a clone of {@code prototypes[i % prototypes.length]}.
+     *
+     * <p>Each prototype is snapshotted with a single {@link Soldier#clone()}; the rows
+     * themselves are only materialized when one of them is mutated.</p>
+     */
+    public static Battalion ofPrototypes(String name, Soldier[] prototypes, int count) {
+        return ofPrototypes(name, prototypes, count, Soldier.reserveIds(count));
+    }
+
+    /**
+     * Same as {@link #ofPrototypes(String, Soldier[], int)}; soldier {@code i} gets {@code soldierIds.get(i)}.
+     */
+    public static Battalion ofPrototypes(String name, Soldier[] prototypes, int count, ReservedIds soldierIds) {
+        Soldier[] templates = new Soldier[prototypes.length];
+        for (int i = 0; i < prototypes.length; i++) templates[i] = prototypes[i].clone();
+        return new Battalion(idGenerator.nextId(), name, new PrototypeStorage(templates, count, soldierIds));
+    }
+
+    /**
+     * Replaces the generator used for the ids of new battalions.
+     */
+    public static void setIdGenerator(IdGenerator generator) {
+        idGenerator = generator;
     }
 
+    public static IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    /**
+     * Appends {@code soldier}. Storages that keep the soldier itself as the row
+     * ({@link StorageMode#LIST}, {@link StorageMode#LAZY}) refuse one that is already a row of
+     * another battalion with an {@link IllegalArgumentException}: a soldier belongs to at most
+     * one battalion, so add a clone instead. The other modes copy the soldier's values.
+     */
     public void addSoldier(Soldier soldier) {
-        soldiers.add(soldier);
+        storage.add(soldier);
+        if (index != null) index.add(new SoldierRow().set(soldier));
+        if (powerIndex != null) powerIndex.add(soldier.calculateCombatPower());
+        long power = totalPower;
+        int elite = eliteCount;
+        count(soldier, 1);
+        version++;
+        notifyListener(1, totalPower - power, eliteCount - elite);
+    }
+
+    /**
+     * Appends a batch of soldiers, keeping their array order. Refuses the whole batch,
+     * before adding any of it, for the same reason as {@link #addSoldier}.
+     */
+    public void addSoldiers(Soldier[] soldiers) {
+        storage.addAll(soldiers);
+        if (index != null) {
+            SoldierRow row = new SoldierRow();
+            for (Soldier soldier : soldiers) index.add(row.set(soldier));
+        }
+        if (powerIndex != null) {
+            for (Soldier soldier : soldiers) powerIndex.add(soldier.calculateCombatPower());
+        }
+        long power = totalPower;
+        int elite = eliteCount;
+        for (Soldier soldier : soldiers) count(soldier, 1);
+        version++;
+        notifyListener(soldiers.length, totalPower - power, eliteCount - elite);
     }
 
     public void removeSoldier(Soldier soldier) {
-        soldiers.remove(soldier);
+        int row = index != null || powerIndex != null ? storage.indexOf(soldier) : 0;
+        if (row < 0 || !storage.remove(soldier)) return;
+        if (index != null) index.remove(row);
+        if (powerIndex != null) powerIndex.remove(row);
+        long power = totalPower;
+        int elite = eliteCount;
+        count(soldier, -1);
+        version++;
+        notifyListener(-1, totalPower - power, eliteCount - elite);
     }
 
-    public int getTotalCombatPower() {
-        return soldiers.stream().mapToInt(Soldier::calculateCombatPower).sum();
+    public long getTotalCombatPower() {
+        return totalPower;
     }
 
     public int getAverageCombatPower() {
-        if (soldiers.isEmpty()) return 0;
-        return getTotalCombatPower() / soldiers.size();
+        if (storage.size() == 0) return 0;
+        return (int) (getTotalCombatPower() / storage.size());
     }
 
     public int getEliteCount() {
-        return (int) soldiers.stream().filter(Soldier::isElite).count();
+        return eliteCount;
+    }
+
+    /**
+     * Number of soldiers holding {@code rank}. The first call over any histogram counts every row.
+     */
+    public int getRankCount(Rank rank) {
+        countHistograms();
+        return rankCounts[rank.ordinal() + 1];
+    }
+
+    /**
+     * Number of soldiers whose primary weapon is {@code weapon}.
+     */
+    public int getWeaponCount(WeaponType weapon) {
+        countHistograms();
+        return weaponCounts[weapon.ordinal() + 1];
+    }
+
+    /**
+     * Receives the change in this battalion's totals after every mutation; {@code null} to stop.
+     */
+    public void setListener(BattalionListener listener) {
+        this.listener = listener;
+    }
+
+    // ─── Running Totals ───────────────────────────────────────────────────────
+
+    /**
+     * Takes the totals from the storage again, e.g. after it was filled behind this battalion's back.
+     */
+    void recount() {
+        totalPower = storage.totalCombatPower();
+        eliteCount = storage.eliteCount();
+        rankCounts = weaponCounts = null;
+        version++;
+    }
+
+    private void countHistograms() {
+        if (rankCounts != null) return;
+        int[] ranks = new int[Rank.values().length + 1];
+        int[] weapons = new int[WeaponType.values().length + 1];
+        SoldierRow row = new SoldierRow();
+        for (int i = 0, n = storage.size(); i < n; i++) {
+            storage.readAttributes(i, row);
+            ranks[row.getRankCode()]++;
+            weapons[row.getPrimaryCode()]++;
+        }
+        rankCounts = ranks;
+        weaponCounts = weapons;
+    }
+
+    /** Adds ({@code sign = 1}) or takes away ({@code -1}) one soldier's share of the totals. */
+    private void count(Soldier soldier, int sign) {
+        totalPower += sign * (long) soldier.calculateCombatPower();
+        if (soldier.isElite()) eliteCount += sign;
+        if (rankCounts != null) {
+            rankCounts[soldier.getRank() != null ? soldier.getRank().ordinal() + 1 : 0] += sign;
+            weaponCounts[soldier.getPrimaryWeapon() != null ? soldier.getPrimaryWeapon().ordinal() + 1 : 0] += sign;
+        }
+    }
+
+    private void notifyListener(int soldiers, long power, int elite) {
+        BattalionListener l = listener;
+        if (l != null) l.totalsChanged(this, soldiers, power, elite);
+    }
+
+    /**
+     * Moves a mutated row's share of the totals from its old values to its new ones, and
+     * re-indexes the row in whichever of the bitmap and power indexes have been built.
+     */
+    private final class RowTracker implements SoldierObserver {
+
+        private final SoldierRow row = new SoldierRow();
+        private long powerBefore;
+        private int eliteBefore;
+
+        @Override
+        public void beforeChange(Soldier soldier) {
+            powerBefore = totalPower;
+            eliteBefore = eliteCount;
+            count(soldier, -1);
+        }
+
+        @Override
+        public void afterChange(Soldier soldier) {
+            count(soldier, 1);
+            if (index != null || powerIndex != null) {
+                int at = storage.indexOf(soldier);
+                if (at >= 0) {
+                    if (index != null) index.update(at, row.set(soldier));
+                    if (powerIndex != null) powerIndex.update(at, soldier.calculateCombatPower());
+                }
+            }
+            version++;
+            notifyListener(0, totalPower - powerBefore, eliteCount - eliteBefore);
+        }
+    }
+
+    // ─── Queries ──────────────────────────────────────────────────────────────
+
+    /**
+     * Returns the rows matching {@code query}. The first call indexes every row; later
+     * calls only combine bitmaps.
+     */
+    public RowSet select(SoldierQuery query) {
+        if (index == null) index = BattalionIndex.build(storage);
+        return new RowSet(query.evaluate(index));
+    }
+
+    /**
+     * Returns the soldiers matching {@code query}, in row order.
+     */
+    public List<Soldier> findSoldiers(SoldierQuery query) {
+        RowSet rows = select(query);
+        List<Soldier> found = new ArrayList<>(rows.size());
+        rows.forEach(row -> found.add(storage.get(row)));
+        return found;
+    }
+
+    // ─── Power Order ──────────────────────────────────────────────────────────
+
+    /**
+     * Read-only view of the soldiers ordered by combat power, ties in row order. Each
+     * {@code get} is O(log n); the first call indexes every row, unless an index was
+     * installed with {@link #installPowerIndex}.
+     */
+    public List<Soldier> getSoldiersByPower(boolean strongestFirst) {
+        powerIndex();
+        return new AbstractList<>() {
+            @Override public Soldier get(int i) {
+                PowerIndex powers = powerIndex();
+                return storage.get(strongestFirst ? powers.rowAtStrongest(i) : powers.rowAt(i));
+            }
+            @Override public int size() { return powerIndex().size(); }
+        };
+    }
+
+    /**
+     * Returns the {@code k} strongest soldiers, strongest first.
+     */
+    public List<Soldier> getTopSoldiers(int k) {
+        List<Soldier> ordered = getSoldiersByPower(true);
+        return new ArrayList<>(ordered.subList(0, Math.min(Math.max(k, 0), ordered.size())));
+    }
+
+    /**
+     * Returns the {@code k} weakest soldiers, weakest first.
+     */
+    public List<Soldier> getBottomSoldiers(int k) {
+        List<Soldier> ordered = getSoldiersByPower(false);
+        return new ArrayList<>(ordered.subList(0, Math.min(Math.max(k, 0), ordered.size())));
+    }
+
+    /**
+     * Combat power at the given percentile (nearest rank), e.g. {@code 50} for the median.
+     */
+    public int getPowerPercentile(double percentile) {
+        PowerIndex powers = powerIndex();
+        if (powers.size() == 0) return 0;
+        int position = (int) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * powers.size()) - 1;
+        return powers.powerAt(Math.max(position, 0));
+    }
+
+    /**
+     * Rank of {@code soldier}'s combat power in this battalion: 1 plus the number of
+     * soldiers that are strictly stronger.
+     */
+    public int getPowerRank(Soldier soldier) {
+        PowerIndex powers = powerIndex();
+        int power = soldier.calculateCombatPower();
+        return power == Integer.MAX_VALUE ? 1 : powers.size() - powers.countBelow(power + 1) + 1;
+    }
+
+    private PowerIndex powerIndex() {
+        if (powerIndex == null) powerIndex = PowerIndex.build(storage);
+        return powerIndex;
+    }
+
+    /**
+     * Whether power-ordered queries are answered without indexing every row first.
+     */
+    public boolean hasPowerIndex() {
+        return powerIndex != null;
+    }
+
+    /**
+     * Indexes every row by power, like the first power-ordered query would, but without
+     * putting the index in place. Unlike the queries this may run on another thread while
+     * the battalion keeps changing, so that indexing a large battalion does not block the
+     * thread that changes it; that thread then calls {@link #installPowerIndex}.
+     */
+    public PreparedPowerIndex preparePowerIndex() {
+        int before = version;
+        try (Pin pin = pin()) {
+            return new PreparedPowerIndex(before, PowerIndex.build(storage), null);
+        } catch (RuntimeException e) {
+            // Rows changing underneath may break the build; installing tells whether they did
+            return new PreparedPowerIndex(before, null, e);
+        }
+    }
+
+    /**
+     * Puts an index from {@link #preparePowerIndex} in place, on the thread that changes
+     * the battalion. Returns {@code false} if the battalion changed after the index was
+     * started, in which case it is dropped and has to be prepared again.
+     */
+    public boolean installPowerIndex(PreparedPowerIndex prepared) {
+        if (prepared.version != version) return false;
+        if (prepared.failure != null) throw prepared.failure;
+        if (powerIndex == null) powerIndex = prepared.index;
+        return true;
+    }
+
+    /**
+     * Forgets the power index: its memory is freed and edits stop paying to keep it in
+     * step. The next power-ordered query indexes every row again.
+     */
+    public void dropPowerIndex() {
+        powerIndex = null;
+    }
+
+    /**
+     * Power index built by {@link #preparePowerIndex}, waiting to be installed.
+     */
+    public static final class PreparedPowerIndex {
+
+        private final int version;
+        private final PowerIndex index;
+        private final RuntimeException failure;
+
+        private PreparedPowerIndex(int version, PowerIndex index, RuntimeException failure) {
+            this.version = version;
+            this.index = index;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Frees the storage's off-heap memory, if any; the battalion must not be used afterwards.
+     * Memory that a {@link #pin()} holds is only freed when the pin is closed.
+     */
+    public void release() {
+        storage.release();
+    }
+
+    /**
+     * Keeps the rows' memory valid until the returned handle is closed, even if the battalion
+     * is released meanwhile; reads after a release throw instead. A thread other than the one
+     * that changes and releases the battalion must hold a pin while it reads rows. Fails if
+     * the battalion has already been released.
+     */
+    public Pin pin() {
+        storage.pin();
+        return storage::unpin;
+    }
+
+    /**
+     * Handle returned by {@link #pin()}; close it exactly once.
+     */
+    public interface Pin extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Copies soldier {@code index} into {@code row}; use this to walk large battalions
+     * without materializing a {@link Soldier} per row.
+     */
+    public void readRow(int index, SoldierRow row) {
+        storage.readRow(index, row);
+    }
+
+    /**
+     * Like {@link #readRow}, but may leave the row's id unset; for scans that only look at
+     * attributes, since some layouts render the id on every read.
+     */
+    public void readAttributes(int index, SoldierRow row) {
+        storage.readAttributes(index, row);
     }
 
     // ─── Getters / Setters ────────────────────────────────────────────────────
@@ -46,12 +455,13 @@ public class Battalion {
     public String getId()                          { return id; }
     public String getName()                        { return name; }
     public void setName(String name)               { this.name = name; }
-    public List<Soldier> getSoldiers()             { return Collections.unmodifiableList(soldiers); }
-    public int getSize()                           { return soldiers.size(); }
+    public StorageMode getStorageMode()            { return storage.getMode(); }
+    public List<Soldier> getSoldiers()             { return storage.asList(); }
+    public int getSize()                           { return storage.size(); }
 
     @Override
     public String toString() {
         return String.format("Battalion [%s] '%s' | Soldiers: %d | Power: %d",
-                id, name, soldiers.size(), getTotalCombatPower());
+                id, name, storage.size(), getTotalCombatPower());
     }
 }
@@ -0,0 +1,173 @@
+package com.wargame.model;
+
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bitmap indexes over the rows of one {@link Battalion}.
+ *
+ * <p>Each indexed value owns a bitmap with bit {@code i} set when row {@code i} has that
+ * value; a bitmap is only allocated once some row sets it. Weapons match either slot.
+ * Rows keep the storage's order, so removing a row shifts every later bit down by one.</p>
+ */
+final class BattalionIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final long[][] ranks   = new long[Rank.values().length][];
+    private final long[][] weapons = new long[WeaponType.values().length][];
+    private final long[][] helmets = new long[HelmetType.values().length][];
+    private final long[][] skills  = new long[SkillType.values().length][];
+    private final Map<String, long[]> factions = new HashMap<>();
+    private long[] elite;
+
+    private int size;
+    private int words;
+
+    /**
+     * Indexes every row currently in {@code storage}.
+     */
+    static BattalionIndex build(SoldierStorage storage) {
+        BattalionIndex index = new BattalionIndex();
+        int rows = storage.size();
+        index.grow(rows);
+        SoldierRow row = new SoldierRow();
+        for (int i = 0; i < rows; i++) {
+            storage.readAttributes(i, row);
+            index.add(row);
+        }
+        return index;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // ─── Maintenance ──────────────────────────────────────────────────────────
+
+    /**
+     * Indexes {@code row} as the new last row.
+     */
+    void add(SoldierRow row) {
+        int bit = size++;
+        if (size > words << 6) grow(size);
+        mark(row, bit);
+    }
+
+    /**
+     * Re-indexes row {@code index}, which now holds {@code row}'s values.
+     */
+    void update(int index, SoldierRow row) {
+        long keep = ~(1L << index);
+        int w = index >>> 6;
+        for (long[][] family : new long[][][]{ ranks, weapons, helmets, skills }) {
+            for (long[] bits : family) if (bits != null) bits[w] &= keep;
+        }
+        for (long[] bits : factions.values()) bits[w] &= keep;
+        if (elite != null) elite[w] &= keep;
+        mark(row, index);
+    }
+
+    /**
+     * Forgets row {@code index}; later rows move down by one.
+     */
+    void remove(int index) {
+        for (long[][] family : new long[][][]{ ranks, weapons, helmets, skills }) {
+            for (long[] bits : family) if (bits != null) deleteBit(bits, index);
+        }
+        for (long[] bits : factions.values()) deleteBit(bits, index);
+        if (elite != null) deleteBit(elite, index);
+        size--;
+    }
+
+    private void mark(SoldierRow row, int bit) {
+        if (row.getRankCode() != 0)      set(ranks, row.getRankCode() - 1, bit);
+        if (row.getPrimaryCode() != 0)   set(weapons, row.getPrimaryCode() - 1, bit);
+        if (row.getSecondaryCode() != 0) set(weapons, row.getSecondaryCode() - 1, bit);
+        if (row.getHelmetCode() != 0)    set(helmets, row.getHelmetCode() - 1, bit);
+        for (int mask = row.getSkillMask(); mask != 0; mask &= mask - 1) {
+            set(skills, Integer.numberOfTrailingZeros(mask), bit);
+        }
+        long[] faction = factions.computeIfAbsent(row.getFaction(), f -> new long[words]);
+        faction[bit >>> 6] |= 1L << bit;
+        if (row.isElite()) {
+            if (elite == null) elite = new long[words];
+            elite[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    // ─── Lookups ──────────────────────────────────────────────────────────────
+
+    long[] rank(Rank rank)         { return orEmpty(ranks[rank.ordinal()]); }
+    long[] weapon(WeaponType w)    { return orEmpty(weapons[w.ordinal()]); }
+    long[] helmet(HelmetType h)    { return orEmpty(helmets[h.ordinal()]); }
+    long[] skill(SkillType skill)  { return orEmpty(skills[skill.ordinal()]); }
+    long[] faction(String faction) { return orEmpty(factions.get(faction)); }
+    long[] elite()                 { return orEmpty(elite); }
+
+    /**
+     * Returns a fresh bitmap of {@link #size()} rows, sized for this index, holding {@code bits}.
+     * Lookups may return shorter arrays; missing words are zero.
+     */
+    long[] copy(long[] bits) {
+        return Arrays.copyOf(bits, wordsFor(size));
+    }
+
+    /**
+     * Clears the bits past the last row, e.g. after a complement.
+     */
+    void trim(long[] bits) {
+        int tail = size & 63;
+        if (tail != 0) bits[bits.length - 1] &= (1L << tail) - 1;
+    }
+
+    static int wordsFor(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    // ─── Bitmaps ──────────────────────────────────────────────────────────────
+
+    private void set(long[][] family, int value, int bit) {
+        long[] bits = family[value];
+        if (bits == null) family[value] = bits = new long[words];
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private void grow(int rows) {
+        int needed = Math.max(wordsFor(rows), words * 2);
+        if (needed <= words) return;
+        for (long[][] family : new long[][][]{ ranks, weapons, helmets, skills }) {
+            for (int v = 0; v < family.length; v++) {
+                if (family[v] != null) family[v] = Arrays.copyOf(family[v], needed);
+            }
+        }
+        factions.replaceAll((f, bits) -> Arrays.copyOf(bits, needed));
+        if (elite != null) elite = Arrays.copyOf(elite, needed);
+        words = needed;
+    }
+
+    private static long[] orEmpty(long[] bits) {
+        return bits != null ? bits : EMPTY;
+    }
+
+    /**
+     * Removes bit {@code index} and shifts the higher bits down by one.
+     */
+    private void deleteBit(long[] bits, int index) {
+        int w = index >>> 6;
+        int last = wordsFor(size) - 1;
+        long low = bits[w] & ((1L << index) - 1);
+        long high = (bits[w] >>> 1) & -(1L << index);
+        bits[w] = low | high;
+        for (; w < last; w++) {
+            bits[w] |= bits[w + 1] << 63;
+            bits[w + 1] >>>= 1;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.wargame.model;
+
+/**
+ * Hears how much a battalion's running totals moved after each change to its rows.
+ */
+@FunctionalInterface
+public interface BattalionListener {
+
+    /**
+     * Called after soldiers were added, removed or mutated.
+     *
+     * @param soldiers change in the number of soldiers
+     * @param power    change in the total combat power
+     * @param elite    change in the number of elite soldiers
+     */
+    void totalsChanged(Battalion battalion, int soldiers, long power, int elite);
+}
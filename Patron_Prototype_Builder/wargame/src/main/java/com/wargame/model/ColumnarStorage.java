@@ -0,0 +1,177 @@
+package com.wargame.model;
+
+import com.wargame.enums.SkillType;
+import com.wargame.enums.StorageMode;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays storage: every soldier attribute lives in its own primitive column.
+ *
+ * <p>Aggregates run as tight loops over the columns without touching any {@link Soldier}
+ * object. {@link #get(int)} materializes a detached view of the row, so changes made to
+ * the returned soldier are not written back.</p>
+ */
+class ColumnarStorage implements SoldierStorage {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    static {
+        if (SkillType.values().length > Byte.SIZE) {
+            throw new IllegalStateException("Skill bitmask column holds at most 8 skills.");
+        }
+    }
+
+    private int size;
+
+    private String[] ids      = new String[INITIAL_CAPACITY];
+    private String[] names    = new String[INITIAL_CAPACITY];
+    private String[] factions = new String[INITIAL_CAPACITY];
+    private int[] health      = new int[INITIAL_CAPACITY];
+    private int[] armor       = new int[INITIAL_CAPACITY];
+    private int[] speed       = new int[INITIAL_CAPACITY];
+    private byte[] rank       = new byte[INITIAL_CAPACITY];
+    private byte[] primary    = new byte[INITIAL_CAPACITY];
+    private byte[] secondary  = new byte[INITIAL_CAPACITY];
+    private byte[] helmet     = new byte[INITIAL_CAPACITY];
+    private byte[] skills     = new byte[INITIAL_CAPACITY];
+    private boolean[] elite   = new boolean[INITIAL_CAPACITY];
+
+    @Override
+    public StorageMode getMode() {
+        return StorageMode.COLUMNAR;
+    }
+
+    @Override
+    public void add(Soldier s) {
+        if (size == ids.length) grow(size * 2);
+        int i = size++;
+        ids[i]       = s.getId();
+        names[i]     = s.getName();
+        factions[i]  = s.getFaction();
+        health[i]    = s.getHealth();
+        armor[i]     = s.getArmor();
+        speed[i]     = s.getSpeed();
+        rank[i]      = CombatPower.code(s.getRank());
+        primary[i]   = CombatPower.code(s.getPrimaryWeapon());
+        secondary[i] = CombatPower.code(s.getSecondaryWeapon());
+        helmet[i]    = CombatPower.code(s.getHelmet());
+        skills[i]    = (byte) CombatPower.skillMask(s.getSkills());
+        elite[i]     = s.isElite();
+    }
+
+    @Override
+    public void addAll(Soldier[] batch) {
+        if (size + batch.length > ids.length) grow(Math.max(size + batch.length, size * 2));
+        for (Soldier s : batch) add(s);
+    }
+
+    @Override
+    public boolean remove(Soldier soldier) {
+        String id = soldier.getId();
+        for (int i = 0; i < size; i++) {
+            if (ids[i].equals(id)) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Soldier get(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Row " + i + ", size " + size);
+        Soldier s = new Soldier(ids[i]);
+        s.setName(names[i]);
+        s.setFaction(factions[i]);
+        s.setHealth(health[i]);
+        s.setArmor(armor[i]);
+        s.setSpeed(speed[i]);
+        s.setRank(CombatPower.rank(rank[i]));
+        s.setPrimaryWeapon(CombatPower.weapon(primary[i]));
+        s.setSecondaryWeapon(CombatPower.weapon(secondary[i]));
+        s.setHelmet(CombatPower.helmet(helmet[i]));
+        CombatPower.addSkills(s, skills[i]);
+        s.setElite(elite[i]);
+        return s;
+    }
+
+    @Override
+    public void readRow(int i, SoldierRow row) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Row " + i + ", size " + size);
+        row.set(ids[i], names[i], factions[i], health[i], armor[i], speed[i],
+                rank[i], primary[i], secondary[i], helmet[i], skills[i] & 0xFF, elite[i]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // ─── Aggregates ───────────────────────────────────────────────────────────
+
+    @Override
+    public long totalCombatPower() {
+        int[] rankBonus = CombatPower.RANK_BONUS;
+        int[] primaryDmg = CombatPower.PRIMARY_DAMAGE;
+        int[] secondaryDmg = CombatPower.SECONDARY_DAMAGE;
+        int[] helmetDef = CombatPower.HELMET_DEFENSE;
+
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += health[i] + armor[i] + speed[i]
+                   + primaryDmg[primary[i]] + secondaryDmg[secondary[i]]
+                   + helmetDef[helmet[i]]
+                   + Integer.bitCount(skills[i] & 0xFF) * CombatPower.SKILL_BONUS
+                   + (elite[i] ? CombatPower.ELITE_BONUS : 0)
+                   + rankBonus[rank[i]];
+        }
+        return total;
+    }
+
+    @Override
+    public int eliteCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (elite[i]) count++;
+        }
+        return count;
+    }
+
+    // ─── Column maintenance ───────────────────────────────────────────────────
+
+    private void removeAt(int i) {
+        int tail = size - i - 1;
+        System.arraycopy(ids, i + 1, ids, i, tail);
+        System.arraycopy(names, i + 1, names, i, tail);
+        System.arraycopy(factions, i + 1, factions, i, tail);
+        System.arraycopy(health, i + 1, health, i, tail);
+        System.arraycopy(armor, i + 1, armor, i, tail);
+        System.arraycopy(speed, i + 1, speed, i, tail);
+        System.arraycopy(rank, i + 1, rank, i, tail);
+        System.arraycopy(primary, i + 1, primary, i, tail);
+        System.arraycopy(secondary, i + 1, secondary, i, tail);
+        System.arraycopy(helmet, i + 1, helmet, i, tail);
+        System.arraycopy(skills, i + 1, skills, i, tail);
+        System.arraycopy(elite, i + 1, elite, i, tail);
+        size--;
+        ids[size] = null;
+        names[size] = null;
+        factions[size] = null;
+    }
+
+    private void grow(int capacity) {
+        ids       = Arrays.copyOf(ids, capacity);
+        names     = Arrays.copyOf(names, capacity);
+        factions  = Arrays.copyOf(factions, capacity);
+        health    = Arrays.copyOf(health, capacity);
+        armor     = Arrays.copyOf(armor, capacity);
+        speed     = Arrays.copyOf(speed, capacity);
+        rank      = Arrays.copyOf(rank, capacity);
+        primary   = Arrays.copyOf(primary, capacity);
+        secondary = Arrays.copyOf(secondary, capacity);
+        helmet    = Arrays.copyOf(helmet, capacity);
+        skills    = Arrays.copyOf(skills, capacity);
+        elite     = Arrays.copyOf(elite, capacity);
+    }
+}
@@ -0,0 +1,72 @@
+package com.wargame.model;
+
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+
+/**
+ * Lookup tables for computing combat power from encoded rows.
+ *
+ * <p>Enum attributes are encoded as {@code ordinal + 1}, with {@code 0} meaning "not set",
+ * so every table is indexed directly by the code. The formula mirrors
+ * {@link Soldier#calculateCombatPower()}.</p>
+ */
+final class CombatPower {
+
+    static final int[] RANK_BONUS       = new int[Rank.values().length + 1];
+    static final int[] PRIMARY_DAMAGE   = new int[WeaponType.values().length + 1];
+    static final int[] SECONDARY_DAMAGE = new int[WeaponType.values().length + 1];
+    static final int[] HELMET_DEFENSE   = new int[HelmetType.values().length + 1];
+
+    static final int SKILL_BONUS = 10;
+    static final int ELITE_BONUS = 50;
+
+    private static final Rank[] RANKS         = Rank.values();
+    private static final WeaponType[] WEAPONS = WeaponType.values();
+    private static final HelmetType[] HELMETS = HelmetType.values();
+    private static final SkillType[] SKILLS   = SkillType.values();
+
+    static {
+        for (Rank r : RANKS)         RANK_BONUS[r.ordinal() + 1] = r.getLevel() * 5;
+        for (WeaponType w : WEAPONS) {
+            PRIMARY_DAMAGE[w.ordinal() + 1]   = w.getDamageValue();
+            SECONDARY_DAMAGE[w.ordinal() + 1] = w.getDamageValue() / 2;
+        }
+        for (HelmetType h : HELMETS) HELMET_DEFENSE[h.ordinal() + 1] = h.getDefenseValue();
+    }
+
+    private CombatPower() {}
+
+    static int of(int rank, int health, int armor, int speed,
+                  int primary, int secondary, int helmet, int skillMask, boolean elite) {
+        return health + armor + speed
+                + PRIMARY_DAMAGE[primary] + SECONDARY_DAMAGE[secondary]
+                + HELMET_DEFENSE[helmet]
+                + Integer.bitCount(skillMask) * SKILL_BONUS
+                + (elite ? ELITE_BONUS : 0)
+                + RANK_BONUS[rank];
+    }
+
+    // ─── Codes ────────────────────────────────────────────────────────────────
+
+    static byte code(Enum<?> value) {
+        return value == null ? 0 : (byte) (value.ordinal() + 1);
+    }
+
+    static int skillMask(Iterable<SkillType> skills) {
+        int mask = 0;
+        for (SkillType skill : skills) mask |= 1 << skill.ordinal();
+        return mask;
+    }
+
+    static Rank rank(int code)         { return code == 0 ? null : RANKS[code - 1]; }
+    static WeaponType weapon(int code) { return code == 0 ? null : WEAPONS[code - 1]; }
+    static HelmetType helmet(int code) { return code == 0 ? null : HELMETS[code - 1]; }
+
+    static void addSkills(Soldier soldier, int mask) {
+        for (SkillType skill : SKILLS) {
+            if ((mask & (1 << skill.ordinal())) != 0) soldier.addSkill(skill);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.wargame.model;
+
+import com.wargame.enums.StorageMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default storage: one heap {@link Soldier} object per row.
+ *
+ * <p>A soldier is a row here by identity and can only be a row of one storage. Finding
+ * a soldier's row is needed once the battalion indexes its rows; the first such lookup
+ * gives every row an ordinal in an identity map, and removed ordinals are counted the way
+ * {@link PrototypeStorage} counts them, so later lookups take O(log n) instead of a scan.</p>
+ */
+class ListStorage implements SoldierStorage {
+
+    private final ArrayList<Soldier> soldiers = new ArrayList<>();
+    private SoldierObserver rowObserver;
+
+    /** Ordinal of every row, in add order; {@code null} until the first {@link #indexOf}. */
+    private Map<Soldier, Integer> ordinals;
+    private int nextOrdinal;
+    private final RemovedOrdinals removed = new RemovedOrdinals();
+
+    @Override public StorageMode getMode()           { return StorageMode.LIST; }
+    @Override public Soldier get(int index)          { return soldiers.get(index); }
+    @Override public int size()                      { return soldiers.size(); }
+
+    @Override
+    public void add(Soldier soldier) {
+        soldier.checkUnowned();
+        soldiers.add(soldier);
+        number(soldier);
+        if (rowObserver != null) attach(soldier, null);
+    }
+
+    @Override
+    public void addAll(Soldier[] batch) {
+        for (Soldier soldier : batch) soldier.checkUnowned();
+        soldiers.addAll(Arrays.asList(batch));
+        for (Soldier soldier : batch) number(soldier);
+        if (rowObserver != null) for (Soldier soldier : batch) attach(soldier, null);
+    }
+
+    @Override
+    public boolean remove(Soldier soldier) {
+        int index;
+        if (ordinals != null) {
+            Integer ordinal = ordinals.remove(soldier);
+            if (ordinal == null) return false;
+            index = ordinal - removed.countBelow(ordinal);
+            removed.add(ordinal);
+        } else {
+            index = soldiers.indexOf(soldier);
+            if (index < 0) return false;
+        }
+        soldiers.remove(index);
+        if (soldier.getObserver() == rowObserver) soldier.setObserver(null);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Soldier soldier) {
+        if (ordinals == null) {
+            ordinals = new IdentityHashMap<>(soldiers.size() * 4 / 3 + 1);
+            nextOrdinal = 0;
+            removed.clear();
+            for (Soldier row : soldiers) ordinals.put(row, nextOrdinal++);
+        }
+        Integer ordinal = ordinals.get(soldier);
+        return ordinal == null ? -1 : ordinal - removed.countBelow(ordinal);
+    }
+
+    /** Gives a new last row the next ordinal, once ordinals are in use; starts over before they run out. */
+    private void number(Soldier soldier) {
+        if (ordinals == null) return;
+        if (nextOrdinal == Integer.MAX_VALUE) {
+            ordinals = null;
+            return;
+        }
+        ordinals.put(soldier, nextOrdinal++);
+    }
+
+    @Override
+    public void observeRows(SoldierObserver observer) {
+        SoldierObserver previous = rowObserver;
+        rowObserver = observer;
+        for (Soldier soldier : soldiers) attach(soldier, previous);
+    }
+
+    /** Hands {@code soldier} to the row observer unless someone other than {@code previous} watches it. */
+    private void attach(Soldier soldier, SoldierObserver previous) {
+        SoldierObserver current = soldier.getObserver();
+        if (current == null || current == previous) soldier.setObserver(rowObserver);
+    }
+
+    @Override
+    public long totalCombatPower() {
+        long total = 0;
+        for (Soldier soldier : soldiers) total += soldier.calculateCombatPower();
+        return total;
+    }
+
+    @Override
+    public int eliteCount() {
+        int count = 0;
+        for (Soldier soldier : soldiers) if (soldier.isElite()) count++;
+        return count;
+    }
+
+    @Override
+    public List<Soldier> asList() {
+        return Collections.unmodifiableList(soldiers);
+    }
+}
@@ -0,0 +1,228 @@
+package com.wargame.model;
+
+import com.wargame.enums.StorageMode;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link WordStorage} keeping the packed words outside the Java heap, in direct buffers.
+ *
+ * <p>Words are laid out in fixed-size chunks so that growing past the first chunk never
+ * copies existing rows and no single buffer hits the 2 GB limit. The first chunk starts
+ * small and doubles, copying, until it reaches the full chunk size, so a small battalion
+ * only takes what it needs. The heap only holds the chunk table, whatever the row count,
+ * so collections do not get slower as the battalion grows. Call {@link #release()} when
+ * the battalion is discarded: it frees the native memory at once, and any later access
+ * fails with an exception.</p>
+ *
+ * <p>Reading freed native memory crashes the JVM rather than throwing, so a thread other
+ * than the owner's must {@link #pin()} the storage while it reads: a release that comes
+ * in the meantime swaps in an empty chunk table right away, but leaves the memory to the
+ * last {@link #unpin()}.</p>
+ */
+class OffHeapStorage extends WordStorage {
+
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_WORDS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_WORDS - 1;
+    private static final int MIN_WORDS = 1 << 10;
+
+    /** {@code Unsafe.invokeCleaner}, or {@code null} if this runtime does not offer it. */
+    private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+    /** Replaced, never modified in place, so a reader always sees a whole table. */
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private volatile boolean released;
+
+    // Guarded by this
+    private int pins;
+    /** Buffers dropped while pinned, freed by the last unpin. */
+    private final List<ByteBuffer> unfreed = new ArrayList<>();
+
+    OffHeapStorage() {
+        this(0);
+    }
+
+    OffHeapStorage(int capacity) {
+        ensureCapacity(capacity);
+    }
+
+    @Override
+    public StorageMode getMode() {
+        return StorageMode.OFF_HEAP;
+    }
+
+    @Override
+    long wordAt(int ordinal) {
+        return chunks[ordinal >>> CHUNK_BITS].getLong((ordinal & CHUNK_MASK) << 3);
+    }
+
+    @Override
+    void setWordAt(int ordinal, long word) {
+        chunks[ordinal >>> CHUNK_BITS].putLong((ordinal & CHUNK_MASK) << 3, word);
+    }
+
+    @Override
+    void fillWords(int from, int to, long word) {
+        for (int i = from; i < to; i++) setWordAt(i, word);
+    }
+
+    @Override
+    void ensureCapacity(int needed) {
+        if (released) throw new IllegalStateException("Off-heap battalion storage has been released.");
+        if (needed <= 0) return;
+        if (needed < CHUNK_WORDS) {
+            growFirstChunk(needed);
+            return;
+        }
+        int count = (needed + CHUNK_MASK) >>> CHUNK_BITS;
+        growFirstChunk(CHUNK_WORDS);
+        ByteBuffer[] table = chunks;
+        if (count <= table.length) return;
+        ByteBuffer[] grown = Arrays.copyOf(table, count);
+        for (int c = table.length; c < count; c++) grown[c] = allocate(CHUNK_WORDS);
+        chunks = grown;
+    }
+
+    /**
+     * Makes the first chunk hold at least {@code needed} words, up to the full chunk size.
+     */
+    private void growFirstChunk(int needed) {
+        ByteBuffer[] table = chunks;
+        ByteBuffer first = table.length == 0 ? null : table[0];
+        int words = first == null ? 0 : first.capacity() / Long.BYTES;
+        if (words >= needed) return;
+        int size = Math.min(CHUNK_WORDS, Math.max(MIN_WORDS, Math.max(needed, words * 2)));
+        ByteBuffer chunk = allocate(size);
+        if (first == null) {
+            chunks = new ByteBuffer[] {chunk};
+            return;
+        }
+        chunk.put(0, first, 0, Math.min(ordinals, words) * Long.BYTES);
+        ByteBuffer[] grown = table.clone();
+        grown[0] = chunk;
+        chunks = grown;
+        drop(List.of(first));
+    }
+
+    /**
+     * Leaves the storage empty and unusable, and frees the direct buffers right away
+     * unless a reader has pinned them.
+     */
+    @Override
+    public void release() {
+        List<ByteBuffer> dropped;
+        synchronized (this) {
+            if (released) return;
+            dropped = List.of(chunks);
+            chunks = new ByteBuffer[0];
+            clear();
+            released = true;
+        }
+        drop(dropped);
+    }
+
+    @Override
+    public synchronized void pin() {
+        if (released) throw new IllegalStateException("Off-heap battalion storage has been released.");
+        pins++;
+    }
+
+    @Override
+    public void unpin() {
+        List<ByteBuffer> dropped;
+        synchronized (this) {
+            if (pins == 0) throw new IllegalStateException("Off-heap battalion storage is not pinned.");
+            if (--pins > 0 || unfreed.isEmpty()) return;
+            dropped = List.copyOf(unfreed);
+            unfreed.clear();
+        }
+        for (ByteBuffer chunk : dropped) free(chunk);
+    }
+
+    /**
+     * Frees buffers that are no longer in the chunk table, or leaves them to the last
+     * unpin while someone may still be reading them.
+     */
+    private void drop(List<ByteBuffer> dropped) {
+        synchronized (this) {
+            if (pins > 0) {
+                unfreed.addAll(dropped);
+                return;
+            }
+        }
+        for (ByteBuffer chunk : dropped) free(chunk);
+    }
+
+    // ─── Native Memory ────────────────────────────────────────────────────────
+
+    private static ByteBuffer allocate(int words) {
+        return ByteBuffer.allocateDirect(words * Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns a buffer's memory to the system now rather than when the buffer is collected.
+     * The caller must hold the only reference: touching a freed buffer crashes the JVM.
+     */
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invokeExact(buffer);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not free off-heap battalion storage.", e);
+        }
+    }
+
+    /**
+     * Java 17 has no supported way to free a direct buffer early: the foreign memory API
+     * that scopes native memory is still incubating there. {@code sun.misc.Unsafe} in the
+     * {@code jdk.unsupported} module has done it since Java 9; without it the memory goes
+     * back when the buffers are collected.
+     */
+    private static MethodHandle findCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // ─── Aggregates ───────────────────────────────────────────────────────────
+
+    @Override
+    public long totalCombatPower() {
+        long total = 0;
+        for (int c = 0, base = 0; base < ordinals; c++, base += CHUNK_WORDS) {
+            ByteBuffer chunk = chunks[c];
+            int end = Math.min(ordinals - base, CHUNK_WORDS) << 3;
+            for (int at = 0; at < end; at += Long.BYTES) total += PackedSoldier.combatPower(chunk.getLong(at));
+        }
+        return total;
+    }
+
+    @Override
+    public int eliteCount() {
+        int count = 0;
+        for (int c = 0, base = 0; base < ordinals; c++, base += CHUNK_WORDS) {
+            ByteBuffer chunk = chunks[c];
+            int end = Math.min(ordinals - base, CHUNK_WORDS) << 3;
+            for (int at = 0; at < end; at += Long.BYTES) {
+                if (PackedSoldier.isElite(chunk.getLong(at))) count++;
+            }
+        }
+        return count;
+    }
+}
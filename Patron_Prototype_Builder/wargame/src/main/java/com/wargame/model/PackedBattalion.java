@@ -0,0 +1,68 @@
+package com.wargame.model;
+
+import com.wargame.enums.StorageMode;
+import com.wargame.util.ReservedIds;
+
+/**
+ * Battalion whose soldiers are stored as {@link PackedSoldier} words, either in a
+ * {@code long[]} or, with {@link StorageMode#OFF_HEAP}, in direct memory.
+ *
+ * <p>Eight bytes per soldier: a hundred million soldiers fit in under 1 GB. Aggregates are
+ * computed straight from the packed bits, and {@link #getSoldiers()} / {@link #readRow}
+ * decode rows on demand, so the returned soldiers are detached copies.</p>
+ */
+public class PackedBattalion extends Battalion {
+
+    private final WordStorage packed;
+
+    public PackedBattalion(String name) {
+        this(name, new PackedStorage());
+    }
+
+    private PackedBattalion(String name, WordStorage packed) {
+        super(getIdGenerator().nextId(), name, packed);
+        this.packed = packed;
+    }
+
+    /**
+     * Creates a battalion of {@code count} soldiers where soldier {@code i} copies
+     * {@code prototypes[i % prototypes.length]}. Each prototype is encoded once.
+     */
+    public static PackedBattalion of(String name, Soldier[] prototypes, int count) {
+        return of(name, prototypes, count, StorageMode.PACKED);
+    }
+
+    /**
+     * Same as {@link #of(String, Soldier[], int)}, keeping the words on the heap for
+     * {@link StorageMode#PACKED} or in direct memory for {@link StorageMode#OFF_HEAP}.
+     */
+    public static PackedBattalion of(String name, Soldier[] prototypes, int count, StorageMode mode) {
+        return of(name, prototypes, count, mode, Soldier.reserveIds(count));
+    }
+
+    /**
+     * Same as {@link #of(String, Soldier[], int, StorageMode)}; soldier {@code i} gets {@code soldierIds.get(i)}.
+     */
+    public static PackedBattalion of(String name, Soldier[] prototypes, int count, StorageMode mode,
+                                     ReservedIds soldierIds) {
+        if (prototypes.length == 0 && count > 0) {
+            throw new IllegalArgumentException("Rows need at least one prototype.");
+        }
+        WordStorage storage = switch (mode) {
+            case PACKED   -> new PackedStorage(count);
+            case OFF_HEAP -> new OffHeapStorage(count);
+            default       -> throw new IllegalArgumentException("Not a packed layout: " + mode);
+        };
+        PackedBattalion battalion = new PackedBattalion(name, storage);
+        battalion.packed.fill(prototypes, count, soldierIds);
+        battalion.recount();
+        return battalion;
+    }
+
+    /**
+     * Returns the packed configuration of soldier {@code index}; decode it with {@link PackedSoldier}.
+     */
+    public long getWord(int index) {
+        return packed.word(index);
+    }
+}
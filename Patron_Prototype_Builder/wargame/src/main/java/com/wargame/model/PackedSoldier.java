@@ -0,0 +1,134 @@
+package com.wargame.model;
+
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+
+/**
+ * Codec that packs a soldier's configuration into a single {@code long}.
+ *
+ * <pre>
+ * bits  0– 8  health      (0–511)
+ * bits  9–16  armor       (0–255)
+ * bits 17–24  speed       (0–255)
+ * bits 25–27  rank        code
+ * bits 28–30  primary     code
+ * bits 31–33  secondary   code
+ * bits 34–36  helmet      code
+ * bits 37–44  skills      bitmask over {@link SkillType} ordinals
+ * bit  45     elite
+ * bits 46–63  label       index of the (name, faction) pair in the owner's dictionary
+ * </pre>
+ *
+ * <p>Codes follow {@link SoldierRow}: {@code 0} for "not set", otherwise {@code ordinal + 1}.
+ * The ranges cover everything {@link com.wargame.builder.SoldierBuilder} accepts. Ids are not
+ * part of the word.</p>
+ */
+public final class PackedSoldier {
+
+    public static final int MAX_HEALTH = (1 << 9) - 1;
+    public static final int MAX_ARMOR  = (1 << 8) - 1;
+    public static final int MAX_SPEED  = (1 << 8) - 1;
+    public static final int MAX_LABEL  = (1 << 18) - 1;
+
+    private static final int ARMOR_SHIFT     = 9;
+    private static final int SPEED_SHIFT     = 17;
+    private static final int RANK_SHIFT      = 25;
+    private static final int PRIMARY_SHIFT   = 28;
+    private static final int SECONDARY_SHIFT = 31;
+    private static final int HELMET_SHIFT    = 34;
+    private static final int SKILLS_SHIFT    = 37;
+    private static final int ELITE_SHIFT     = 45;
+    private static final int LABEL_SHIFT     = 46;
+
+    private static final long LABEL_MASK = (long) MAX_LABEL << LABEL_SHIFT;
+
+    static {
+        if (Rank.values().length > 7 || WeaponType.values().length > 7
+                || HelmetType.values().length > 7 || SkillType.values().length > 8) {
+            throw new IllegalStateException("Enum constants no longer fit the packed soldier layout.");
+        }
+    }
+
+    private PackedSoldier() {}
+
+    // ─── Encoding ─────────────────────────────────────────────────────────────
+
+    /**
+     * Packs {@code soldier} with the given label.
+     *
+     * @throws IllegalArgumentException if a stat is outside the packed range
+     */
+    public static long encode(Soldier soldier, int label) {
+        return encode(soldier.getHealth(), soldier.getArmor(), soldier.getSpeed(),
+                CombatPower.code(soldier.getRank()), CombatPower.code(soldier.getPrimaryWeapon()),
+                CombatPower.code(soldier.getSecondaryWeapon()), CombatPower.code(soldier.getHelmet()),
+                CombatPower.skillMask(soldier.getSkills()), soldier.isElite(), label);
+    }
+
+    public static long encode(int health, int armor, int speed, int rankCode, int primaryCode,
+                              int secondaryCode, int helmetCode, int skillMask, boolean elite, int label) {
+        check("Health", health, MAX_HEALTH);
+        check("Armor", armor, MAX_ARMOR);
+        check("Speed", speed, MAX_SPEED);
+        check("Label", label, MAX_LABEL);
+        return health
+             | (long) armor         << ARMOR_SHIFT
+             | (long) speed         << SPEED_SHIFT
+             | (long) rankCode      << RANK_SHIFT
+             | (long) primaryCode   << PRIMARY_SHIFT
+             | (long) secondaryCode << SECONDARY_SHIFT
+             | (long) helmetCode    << HELMET_SHIFT
+             | (long) skillMask     << SKILLS_SHIFT
+             | (elite ? 1L : 0L)    << ELITE_SHIFT
+             | (long) label         << LABEL_SHIFT;
+    }
+
+    private static void check(String field, int value, int max) {
+        if (value < 0 || value > max) {
+            throw new IllegalArgumentException(field + " " + value + " is outside the packed range 0–" + max);
+        }
+    }
+
+    public static long withLabel(long word, int label) {
+        check("Label", label, MAX_LABEL);
+        return (word & ~LABEL_MASK) | (long) label << LABEL_SHIFT;
+    }
+
+    // ─── Decoding ─────────────────────────────────────────────────────────────
+
+    public static int health(long word)        { return (int) (word & MAX_HEALTH); }
+    public static int armor(long word)         { return (int) (word >>> ARMOR_SHIFT) & MAX_ARMOR; }
+    public static int speed(long word)         { return (int) (word >>> SPEED_SHIFT) & MAX_SPEED; }
+    public static int rankCode(long word)      { return (int) (word >>> RANK_SHIFT) & 7; }
+    public static int primaryCode(long word)   { return (int) (word >>> PRIMARY_SHIFT) & 7; }
+    public static int secondaryCode(long word) { return (int) (word >>> SECONDARY_SHIFT) & 7; }
+    public static int helmetCode(long word)    { return (int) (word >>> HELMET_SHIFT) & 7; }
+    public static int skillMask(long word)     { return (int) (word >>> SKILLS_SHIFT) & 0xFF; }
+    public static boolean isElite(long word)   { return (word & 1L << ELITE_SHIFT) != 0; }
+    public static int label(long word)         { return (int) (word >>> LABEL_SHIFT); }
+
+    /**
+     * Combat power computed straight from the packed bits; matches
+     * {@link Soldier#calculateCombatPower()} for the soldier the word was made from.
+     */
+    public static int combatPower(long word) {
+        return health(word) + armor(word) + speed(word)
+                + CombatPower.PRIMARY_DAMAGE[primaryCode(word)]
+                + CombatPower.SECONDARY_DAMAGE[secondaryCode(word)]
+                + CombatPower.HELMET_DEFENSE[helmetCode(word)]
+                + Integer.bitCount(skillMask(word)) * CombatPower.SKILL_BONUS
+                + (isElite(word) ? CombatPower.ELITE_BONUS : 0)
+                + CombatPower.RANK_BONUS[rankCode(word)];
+    }
+
+    /**
+     * Copies the word into {@code row}, with the given id, name and faction.
+     */
+    public static SoldierRow decode(long word, String id, String name, String faction, SoldierRow row) {
+        return row.set(id, name, faction, health(word), armor(word), speed(word),
+                rankCode(word), primaryCode(word), secondaryCode(word), helmetCode(word),
+                skillMask(word), isElite(word));
+    }
+}
@@ -0,0 +1,55 @@
+package com.wargame.model;
+
+import com.wargame.enums.StorageMode;
+
+import java.util.Arrays;
+
+/**
+ * {@link WordStorage} keeping the packed words in an on-heap {@code long[]}.
+ */
+class PackedStorage extends WordStorage {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] words;
+
+    PackedStorage() {
+        this(INITIAL_CAPACITY);
+    }
+
+    PackedStorage(int capacity) {
+        this.words = new long[Math.max(capacity, 1)];
+    }
+
+    @Override
+    public StorageMode getMode() {
+        return StorageMode.PACKED;
+    }
+
+    @Override long wordAt(int ordinal)                    { return words[ordinal]; }
+    @Override void setWordAt(int ordinal, long word)      { words[ordinal] = word; }
+    @Override void fillWords(int from, int to, long word) { Arrays.fill(words, from, to, word); }
+
+    @Override
+    void ensureCapacity(int needed) {
+        if (needed > words.length) words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+    }
+
+    // ─── Aggregates ───────────────────────────────────────────────────────────
+
+    @Override
+    public long totalCombatPower() {
+        long total = 0;
+        for (int i = 0; i < ordinals; i++) total += PackedSoldier.combatPower(words[i]);
+        return total;
+    }
+
+    @Override
+    public int eliteCount() {
+        int count = 0;
+        for (int i = 0; i < ordinals; i++) {
+            if (PackedSoldier.isElite(words[i])) count++;
+        }
+        return count;
+    }
+}
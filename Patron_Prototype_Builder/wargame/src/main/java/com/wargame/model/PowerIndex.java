@@ -0,0 +1,319 @@
+package com.wargame.model;
+
+import java.util.Arrays;
+
+/**
+ * Order-statistics index over the combat power of a battalion's rows.
+ *
+ * <p>Every row gets a sequence number when it is indexed, which never changes. A treap
+ * keyed by {@code (power, seq)} with subtree sizes answers "k-th weakest" and "how many
+ * are weaker" in O(log n); a Fenwick tree over the live sequence numbers turns a sequence
+ * number back into the row's current index (and the reverse), also in O(log n). Treap
+ * priorities are a hash of the node number, so nodes carry no priority field and a sorted
+ * bulk build produces the same shape as inserting one by one.</p>
+ */
+final class PowerIndex {
+
+    private static final int NIL = 0;
+
+    // Treap nodes, numbered from 1
+    private long[] keys;
+    private int[] left;
+    private int[] right;
+    private int[] count;
+    private int nodes;
+    private int root;
+    private int freeList;
+
+    // Rows by sequence number
+    private int[] powers;
+    private int[] live;
+    private int seqs;
+    private int size;
+
+    /** Results of {@link #split}. */
+    private int splitLeft, splitRight;
+
+    private PowerIndex(int capacity) {
+        int seqCapacity = Integer.highestOneBit(Math.max(capacity, 8) - 1) << 1;
+        keys   = new long[capacity + 1];
+        left   = new int[capacity + 1];
+        right  = new int[capacity + 1];
+        count  = new int[capacity + 1];
+        powers = new int[seqCapacity];
+        live   = new int[seqCapacity + 1];
+    }
+
+    /**
+     * Indexes every row currently in {@code storage}, sorting once instead of inserting row by row.
+     */
+    static PowerIndex build(SoldierStorage storage) {
+        int rows = storage.size();
+        PowerIndex index = new PowerIndex(rows);
+        SoldierRow row = new SoldierRow();
+        long[] sorted = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            storage.readAttributes(i, row);
+            int power = row.getCombatPower();
+            index.powers[i] = power;
+            sorted[i] = key(power, i);
+        }
+        Arrays.sort(sorted);
+        System.arraycopy(sorted, 0, index.keys, 1, rows);
+        index.nodes = rows;
+        index.seqs = rows;
+        index.size = rows;
+        index.root = index.cartesian(rows);
+        index.countSubtree(index.root);
+        for (int i = 1; i < index.live.length; i++) {
+            if (i <= rows) index.live[i]++;
+            int parent = i + (i & -i);
+            if (parent < index.live.length) index.live[parent] += index.live[i];
+        }
+        return index;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // ─── Maintenance ──────────────────────────────────────────────────────────
+
+    /**
+     * Indexes a new last row with the given power.
+     */
+    void add(int power) {
+        if (seqs == powers.length) growSeqs();
+        int seq = seqs++;
+        powers[seq] = power;
+        bump(seq, 1);
+        size++;
+
+        int node = allocate(key(power, seq));
+        split(root, keys[node]);
+        int l = splitLeft, r = splitRight;
+        root = merge(merge(l, node), r);
+    }
+
+    /**
+     * Forgets row {@code index}; later rows move down by one.
+     */
+    void remove(int index) {
+        int seq = seqAt(index);
+        bump(seq, -1);
+        size--;
+        root = erase(root, key(powers[seq], seq));
+    }
+
+    /**
+     * Re-indexes row {@code index} with its new power; the row keeps its sequence number.
+     */
+    void update(int index, int power) {
+        int seq = seqAt(index);
+        if (powers[seq] == power) return;
+        root = erase(root, key(powers[seq], seq));
+        powers[seq] = power;
+        int node = allocate(key(power, seq));
+        split(root, keys[node]);
+        int l = splitLeft, r = splitRight;
+        root = merge(merge(l, node), r);
+    }
+
+    // ─── Queries ──────────────────────────────────────────────────────────────
+
+    /**
+     * Row index of the {@code position}-th weakest row (0 = weakest).
+     */
+    int rowAt(int position) {
+        if (position < 0 || position >= size) throw new IndexOutOfBoundsException("Position " + position + ", size " + size);
+        int t = root;
+        while (true) {
+            int l = count[left[t]];
+            if (position < l) {
+                t = left[t];
+            } else if (position == l) {
+                return rowOf((int) keys[t]);
+            } else {
+                position -= l + 1;
+                t = right[t];
+            }
+        }
+    }
+
+    /**
+     * Row index of the {@code position}-th strongest row (0 = strongest); rows of equal
+     * power stay in row order.
+     */
+    int rowAtStrongest(int position) {
+        if (position < 0 || position >= size) throw new IndexOutOfBoundsException("Position " + position + ", size " + size);
+        int power = powerAt(size - 1 - position);
+        int stronger = power == Integer.MAX_VALUE ? 0 : size - countBelow(power + 1);
+        return rowAt(countBelow(power) + position - stronger);
+    }
+
+    /**
+     * Power of the {@code position}-th weakest row.
+     */
+    int powerAt(int position) {
+        return powers[seqAt(rowAt(position))];
+    }
+
+    /**
+     * Number of rows whose power is below {@code power}.
+     */
+    int countBelow(int power) {
+        long key = key(power, 0);
+        int below = 0;
+        for (int t = root; t != NIL; ) {
+            if (keys[t] < key) {
+                below += count[left[t]] + 1;
+                t = right[t];
+            } else {
+                t = left[t];
+            }
+        }
+        return below;
+    }
+
+    // ─── Treap ────────────────────────────────────────────────────────────────
+
+    private static long key(int power, int seq) {
+        return ((long) power << 32) | seq;
+    }
+
+    private static int priority(int node) {
+        int h = node * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    private void pull(int t) {
+        count[t] = count[left[t]] + count[right[t]] + 1;
+    }
+
+    /**
+     * Splits {@code t} into keys below {@code key} and the rest.
+     */
+    private void split(int t, long key) {
+        if (t == NIL) {
+            splitLeft = splitRight = NIL;
+        } else if (keys[t] < key) {
+            split(right[t], key);
+            right[t] = splitLeft;
+            pull(t);
+            splitLeft = t;
+        } else {
+            split(left[t], key);
+            left[t] = splitRight;
+            pull(t);
+            splitRight = t;
+        }
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (priority(a) > priority(b)) {
+            right[a] = merge(right[a], b);
+            pull(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        pull(b);
+        return b;
+    }
+
+    private int erase(int t, long key) {
+        if (keys[t] == key) {
+            int merged = merge(left[t], right[t]);
+            left[t] = freeList;
+            freeList = t;
+            return merged;
+        }
+        if (key < keys[t]) left[t] = erase(left[t], key);
+        else               right[t] = erase(right[t], key);
+        pull(t);
+        return t;
+    }
+
+    private int allocate(long key) {
+        int node;
+        if (freeList != NIL) {
+            node = freeList;
+            freeList = left[node];
+        } else {
+            node = ++nodes;
+            if (node == keys.length) {
+                int capacity = Math.max(16, keys.length * 2);
+                keys  = Arrays.copyOf(keys, capacity);
+                left  = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                count = Arrays.copyOf(count, capacity);
+            }
+        }
+        keys[node] = key;
+        left[node] = right[node] = NIL;
+        count[node] = 1;
+        return node;
+    }
+
+    /**
+     * Links nodes {@code 1..n}, already in key order, into a heap on {@link #priority}.
+     */
+    private int cartesian(int n) {
+        int[] stack = new int[n + 1];
+        int top = 0;
+        for (int i = 1; i <= n; i++) {
+            int last = NIL;
+            while (top > 0 && priority(stack[top - 1]) < priority(i)) last = stack[--top];
+            left[i] = last;
+            if (top > 0) right[stack[top - 1]] = i;
+            stack[top++] = i;
+        }
+        return top > 0 ? stack[0] : NIL;
+    }
+
+    private int countSubtree(int t) {
+        if (t == NIL) return 0;
+        return count[t] = countSubtree(left[t]) + countSubtree(right[t]) + 1;
+    }
+
+    // ─── Sequence Numbers ─────────────────────────────────────────────────────
+
+    private void bump(int seq, int delta) {
+        for (int i = seq + 1; i < live.length; i += i & -i) live[i] += delta;
+    }
+
+    /** Current row index of {@code seq}, which must be live. */
+    private int rowOf(int seq) {
+        int before = 0;
+        for (int i = seq; i > 0; i -= i & -i) before += live[i];
+        return before;
+    }
+
+    /** Sequence number of the live row at {@code index}. */
+    private int seqAt(int index) {
+        int pos = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(live.length - 1); step > 0; step >>>= 1) {
+            int next = pos + step;
+            if (next < live.length && live[next] < remaining) {
+                pos = next;
+                remaining -= live[next];
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Doubles the sequence capacity. With a power-of-two capacity only the new top
+     * Fenwick node covers existing entries, and it covers all of them.
+     */
+    private void growSeqs() {
+        int capacity = powers.length;
+        powers = Arrays.copyOf(powers, capacity * 2);
+        live = Arrays.copyOf(live, capacity * 2 + 1);
+        live[capacity * 2] = live[capacity];
+    }
+}
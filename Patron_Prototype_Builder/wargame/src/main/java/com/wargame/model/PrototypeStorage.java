@@ -0,0 +1,240 @@
+package com.wargame.model;
+
+import com.wargame.enums.StorageMode;
+import com.wargame.util.ReservedIds;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Copy-on-write storage backed by prototype snapshots.
+ *
+ * <p>Every row has an ordinal. The first {@code templateRows} ordinals are virtual clones
+ * of {@code templates[ordinal % templates.length]}; nothing is stored for them until a
+ * soldier handed out by {@link #get(int)} is mutated, at which point it becomes an entry
+ * in the sparse override map. Soldiers added later always live in the override map.
+ * Aggregates for the virtual rows are a multiplication per template.</p>
+ *
+ * <p>Ids for the virtual rows are reserved up front, so a row keeps the same id no matter
+ * how often it is materialized, and an id maps back to its ordinal without a scan. Once
+ * one view of a row has become its override, {@code get} returns the override; a view
+ * handed out before that still works, but each of its changes is applied to the override
+ * instead of being lost.</p>
+ */
+class PrototypeStorage implements SoldierStorage {
+
+    private final Soldier[] templates;
+    private final int templateRows;
+    private final ReservedIds templateIds;
+
+    /** Virtual (never materialized, never removed) rows left per template. */
+    private final int[] virtualRows;
+
+    private final Map<Integer, Soldier> overrides = new HashMap<>();
+    private final Map<Soldier, Integer> overrideOrdinals = new IdentityHashMap<>();
+
+    /** Next ordinal to hand out; ordinals below this are live unless removed. */
+    private int nextOrdinal;
+
+    private final RemovedOrdinals removed = new RemovedOrdinals();
+
+    private SoldierObserver rowObserver;
+
+    /**
+     * @param templates snapshots that the virtual rows cycle through; may be empty
+     * @param count     number of virtual rows
+     */
+    PrototypeStorage(Soldier[] templates, int count) {
+        this(templates, count, Soldier.reserveIds(count));
+    }
+
+    /**
+     * @param ids ids of the virtual rows, indexed by ordinal
+     */
+    PrototypeStorage(Soldier[] templates, int count, ReservedIds ids) {
+        if (templates.length == 0 && count > 0) {
+            throw new IllegalArgumentException("Virtual rows need at least one template.");
+        }
+        this.templates = templates;
+        this.templateRows = count;
+        this.templateIds = ids;
+        this.virtualRows = new int[templates.length];
+        for (int t = 0; t < templates.length; t++) {
+            virtualRows[t] = count / templates.length + (t < count % templates.length ? 1 : 0);
+        }
+        this.nextOrdinal = count;
+    }
+
+    @Override
+    public StorageMode getMode() {
+        return StorageMode.LAZY;
+    }
+
+    @Override
+    public void add(Soldier soldier) {
+        soldier.checkUnowned();
+        putOverride(nextOrdinal++, soldier);
+        if (rowObserver != null) soldier.setObserver(rowObserver);
+    }
+
+    @Override
+    public void addAll(Soldier[] soldiers) {
+        for (Soldier soldier : soldiers) soldier.checkUnowned();
+        for (Soldier soldier : soldiers) add(soldier);
+    }
+
+    @Override
+    public boolean remove(Soldier soldier) {
+        int ordinal = ordinalOf(soldier);
+        if (ordinal < 0) return false;
+        Soldier row = overrides.remove(ordinal);
+        if (row != null) {
+            overrideOrdinals.remove(row);
+            if (row.getObserver() == rowObserver) row.setObserver(null);
+        } else {
+            virtualRows[ordinal % templates.length]--;
+        }
+        removed.add(ordinal);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Soldier soldier) {
+        int ordinal = ordinalOf(soldier);
+        return ordinal < 0 ? -1 : ordinal - removed.countBelow(ordinal);
+    }
+
+    @Override
+    public Soldier get(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Row " + index + ", size " + size());
+        int ordinal = removed.ordinalOf(index);
+        Soldier soldier = overrides.get(ordinal);
+        if (soldier != null) return soldier;
+
+        Soldier view = templates[ordinal % templates.length].copyAs(templateIds.get(ordinal));
+        view.setObserver(new Materializer(ordinal));
+        return view;
+    }
+
+    @Override
+    public void readRow(int index, SoldierRow row) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Row " + index + ", size " + size());
+        int ordinal = removed.ordinalOf(index);
+        Soldier soldier = overrides.get(ordinal);
+        if (soldier != null) {
+            row.set(soldier);
+        } else {
+            row.set(templateIds.get(ordinal), templates[ordinal % templates.length]);
+        }
+    }
+
+    @Override
+    public int size() {
+        return nextOrdinal - removed.count();
+    }
+
+    @Override
+    public void observeRows(SoldierObserver observer) {
+        SoldierObserver previous = rowObserver;
+        rowObserver = observer;
+        for (Soldier soldier : overrides.values()) {
+            SoldierObserver current = soldier.getObserver();
+            if (current == null || current == previous) soldier.setObserver(observer);
+        }
+    }
+
+    // ─── Aggregates ───────────────────────────────────────────────────────────
+
+    @Override
+    public long totalCombatPower() {
+        long total = 0;
+        for (int t = 0; t < templates.length; t++) {
+            total += (long) virtualRows[t] * templates[t].calculateCombatPower();
+        }
+        for (Soldier soldier : overrides.values()) total += soldier.calculateCombatPower();
+        return total;
+    }
+
+    @Override
+    public int eliteCount() {
+        int count = 0;
+        for (int t = 0; t < templates.length; t++) {
+            if (templates[t].isElite()) count += virtualRows[t];
+        }
+        for (Soldier soldier : overrides.values()) if (soldier.isElite()) count++;
+        return count;
+    }
+
+    // ─── Ordinals ─────────────────────────────────────────────────────────────
+
+    private boolean isVirtual(int ordinal) {
+        return ordinal < templateRows && !overrides.containsKey(ordinal) && !removed.contains(ordinal);
+    }
+
+    /**
+     * Ordinal of the live row holding {@code soldier}, or {@code -1}. A virtual row is
+     * found by its reserved id, so any view of it will do.
+     */
+    private int ordinalOf(Soldier soldier) {
+        Integer ordinal = overrideOrdinals.get(soldier);
+        if (ordinal != null) return ordinal;
+        int reserved = templateIds.indexOf(soldier.getId());
+        return reserved >= 0 && !removed.contains(reserved) ? reserved : -1;
+    }
+
+    private void putOverride(int ordinal, Soldier soldier) {
+        overrides.put(ordinal, soldier);
+        overrideOrdinals.put(soldier, ordinal);
+    }
+
+    /**
+     * Watches a view of a virtual row. The first view to be mutated becomes the row's
+     * override; a view mutated after some other view took over first catches up with the
+     * override, takes the change, and hands the result to the override.
+     */
+    private final class Materializer implements SoldierObserver {
+
+        private final int ordinal;
+
+        /** Override that receives the change in progress on a stale view. */
+        private Soldier target;
+
+        Materializer(int ordinal) {
+            this.ordinal = ordinal;
+        }
+
+        @Override
+        public void beforeChange(Soldier view) {
+            if (isVirtual(ordinal)) {
+                view.setObserver(null);
+                virtualRows[ordinal % templates.length]--;
+                putOverride(ordinal, view);
+                if (rowObserver != null) {
+                    // The view is a row from now on: report this change and the later ones
+                    rowObserver.beforeChange(view);
+                    view.setObserver(rowObserver);
+                }
+                return;
+            }
+            Soldier row = overrides.get(ordinal);
+            if (row == null) {
+                // Removed: the view is a detached copy from now on
+                view.setObserver(null);
+                return;
+            }
+            view.setObserver(null);
+            view.assign(row);
+            view.setObserver(this);
+            target = row;
+        }
+
+        @Override
+        public void afterChange(Soldier view) {
+            Soldier row = target;
+            if (row == null) return;
+            target = null;
+            row.assign(view);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.wargame.model;
+
+import java.util.Arrays;
+
+/**
+ * Removed slots of a storage that never reuses or compacts its ordinals.
+ *
+ * <p>A Fenwick tree counts the removed ordinals, so both marking a removal and mapping a
+ * row index to its ordinal take O(log n) however many rows are gone. The tree is only
+ * allocated by the first removal and only covers ordinals up to the highest one removed;
+ * nothing above it has been removed.</p>
+ */
+final class RemovedOrdinals {
+
+    /** 1-based Fenwick tree over ordinals {@code [0, capacity)}; capacity is a power of two. */
+    private int[] tree;
+    private int count;
+
+    int count() {
+        return count;
+    }
+
+    boolean contains(int ordinal) {
+        if (count == 0 || ordinal >= tree.length - 1) return false;
+        return prefix(ordinal + 1) - prefix(ordinal) != 0;
+    }
+
+    /**
+     * Number of removed ordinals below {@code ordinal}.
+     */
+    int countBelow(int ordinal) {
+        if (count == 0) return 0;
+        return prefix(Math.min(ordinal, tree.length - 1));
+    }
+
+    /**
+     * Marks {@code ordinal}, which must not be marked yet, as removed.
+     */
+    void add(int ordinal) {
+        if (tree == null) tree = new int[Integer.highestOneBit(Math.max(ordinal, 7)) * 2 + 1];
+        while (ordinal >= tree.length - 1) grow();
+        for (int i = ordinal + 1; i < tree.length; i += i & -i) tree[i]++;
+        count++;
+    }
+
+    /**
+     * Ordinal of the {@code index}-th slot that is not removed.
+     */
+    int ordinalOf(int index) {
+        if (count == 0) return index;
+        int pos = 0;
+        int remaining = index + 1;
+        for (int step = tree.length - 1; step > 0; step >>>= 1) {
+            int next = pos + step;
+            if (next < tree.length) {
+                int live = step - tree[next];
+                if (live < remaining) {
+                    pos = next;
+                    remaining -= live;
+                }
+            }
+        }
+        return pos + remaining - 1;
+    }
+
+    void clear() {
+        tree = null;
+        count = 0;
+    }
+
+    private int prefix(int end) {
+        int sum = 0;
+        for (int i = end; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    /**
+     * Doubles the capacity. Only the new top node covers existing entries, and it covers all of them.
+     */
+    private void grow() {
+        int capacity = tree.length - 1;
+        tree = Arrays.copyOf(tree, capacity * 2 + 1);
+        tree[capacity * 2] = tree[capacity];
+    }
+}
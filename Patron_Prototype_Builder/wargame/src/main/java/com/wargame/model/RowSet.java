@@ -0,0 +1,55 @@
+package com.wargame.model;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Row indexes of a battalion matching a {@link SoldierQuery}, as a bitmap.
+ *
+ * <p>The indexes refer to the battalion at the time of the query; adding or removing
+ * soldiers afterwards does not update the set.</p>
+ */
+public final class RowSet {
+
+    private final long[] bits;
+    private int count = -1;
+
+    RowSet(long[] bits) {
+        this.bits = bits;
+    }
+
+    public boolean contains(int row) {
+        int w = row >>> 6;
+        return row >= 0 && w < bits.length && (bits[w] & (1L << row)) != 0;
+    }
+
+    public int size() {
+        if (count < 0) {
+            int c = 0;
+            for (long word : bits) c += Long.bitCount(word);
+            count = c;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Calls {@code action} with every row index, in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                action.accept((w << 6) + Long.numberOfTrailingZeros(word));
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] rows = new int[size()];
+        int[] n = { 0 };
+        forEach(row -> rows[n[0]++] = row);
+        return rows;
+    }
+}
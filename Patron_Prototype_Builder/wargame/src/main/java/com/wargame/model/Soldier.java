@@ -4,12 +4,19 @@ import com.wargame.enums.HelmetType;
 import com.wargame.enums.Rank;
 import com.wargame.enums.SkillType;
 import com.wargame.enums.WeaponType;
+import com.wargame.metrics.SoldierCloneEvent;
+import com.wargame.metrics.Tracing;
 import com.wargame.prototype.Cloneable;
+import com.wargame.util.BlockIdGenerator;
+import com.wargame.util.IdGenerator;
+import com.wargame.util.ReservedIds;
+import com.wargame.util.StringDictionary;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a fully configured soldier in the war game.
@@ -19,8 +26,21 @@ import java.util.UUID;
  */
 public class Soldier implements Cloneable<Soldier> {
 
+    /** Marks {@link #cachedPower} as stale; real scores are never this low. */
+    private static final int POWER_UNKNOWN = Integer.MIN_VALUE;
+
+    private static volatile IdGenerator idGenerator = new BlockIdGenerator(8);
+
+    private static final String CLONE_SUFFIX = " [Clone]";
+    private static final StringDictionary NAMES = new StringDictionary();
+    private static final StringDictionary FACTIONS = new StringDictionary();
+
+    /** Clone names by {@code (name code << 32 | clone depth)}, rendered on first display. */
+    private static final Map<Long, String> CLONE_NAMES = new ConcurrentHashMap<>();
+
     private final String id;
-    private String name;
+    private int nameCode;
+    private int cloneDepth;
     private Rank rank;
     private int health;
     private int armor;
@@ -29,17 +49,44 @@ public class Soldier implements Cloneable<Soldier> {
     private WeaponType secondaryWeapon;
     private HelmetType helmet;
     private List<SkillType> skills;
-    private String faction;
+    private int factionCode;
     private boolean isElite;
+    private int cachedPower = POWER_UNKNOWN;
+    private SoldierObserver observer;
 
     /**
      * Private constructor — use {@link com.wargame.builder.SoldierBuilder} to create instances.
      */
     private Soldier() {
-        this.id = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        this(idGenerator.nextId());
+    }
+
+    /**
+     * Restores a soldier with a known id — used by storages that rebuild rows.
+     */
+    Soldier(String id) {
+        this.id = id;
         this.skills = new ArrayList<>();
     }
 
+    /**
+     * Replaces the generator used for the ids of new soldiers.
+     */
+    public static void setIdGenerator(IdGenerator generator) {
+        idGenerator = generator;
+    }
+
+    public static IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    /**
+     * Reserves {@code count} ids for rows that are materialized later.
+     */
+    static ReservedIds reserveIds(int count) {
+        return idGenerator.reserve(count);
+    }
+
     /**
      * Factory method used by the builder.
      */
@@ -47,31 +94,100 @@ public class Soldier implements Cloneable<Soldier> {
         return new Soldier();
     }
 
+    /**
+     * Factory method used when restoring a persisted soldier with its original id.
+     */
+    public static Soldier createEmpty(String id) {
+        return new Soldier(id);
+    }
+
     // ─── Prototype: Deep Clone ────────────────────────────────────────────────
 
+    /**
+     * Clones share their prototype's name code; the {@code " [Clone]"} name is a clone depth
+     * rendered once per base name, not a new string per clone.
+     *
+     * <p>With {@link Tracing#JFR} on, about one clone in {@value SoldierCloneEvent#SAMPLE_INTERVAL}
+     * is sampled; only a sampled clone allocates a {@link SoldierCloneEvent}, which it emits
+     * if a recording is running. The other clones pay one thread-local random number.</p>
+     */
     @Override
     public Soldier clone() {
-        Soldier copy = new Soldier();
-        copy.name          = this.name + " [Clone]";
-        copy.rank          = this.rank;
-        copy.health        = this.health;
-        copy.armor         = this.armor;
-        copy.speed         = this.speed;
-        copy.primaryWeapon = this.primaryWeapon;
-        copy.secondaryWeapon = this.secondaryWeapon;
-        copy.helmet        = this.helmet;
-        copy.skills        = new ArrayList<>(this.skills);
-        copy.faction       = this.faction;
-        copy.isElite       = this.isElite;
+        return cloneAs(idGenerator.nextId());
+    }
+
+    /**
+     * Clones this soldier under an id obtained beforehand, e.g. one of the
+     * {@link IdGenerator#reserve reserved} ids of a battalion's rows.
+     */
+    public Soldier cloneAs(String cloneId) {
+        if (!Tracing.JFR || !SoldierCloneEvent.sample()) return cloneWithId(cloneId);
+        SoldierCloneEvent event = new SoldierCloneEvent();
+        if (!event.isEnabled()) return cloneWithId(cloneId);
+        event.begin();
+        Soldier copy = cloneWithId(cloneId);
+        event.sourceId = id;
+        event.cloneId = copy.id;
+        event.commit();
+        return copy;
+    }
+
+    private Soldier cloneWithId(String cloneId) {
+        Soldier copy = copyAs(cloneId);
+        copy.cloneDepth = this.cloneDepth + 1;
+        return copy;
+    }
+
+    /**
+     * Copies every attribute, including the name, into a soldier with the given id.
+     */
+    Soldier copyAs(String id) {
+        Soldier copy = new Soldier(id);
+        copy.copyFields(this);
         return copy;
     }
 
+    /**
+     * Overwrites every attribute but the id with {@code source}'s, as a single change.
+     */
+    void assign(Soldier source) {
+        beforeChange();
+        copyFields(source);
+        afterChange();
+    }
+
+    private void copyFields(Soldier source) {
+        this.nameCode        = source.nameCode;
+        this.cloneDepth      = source.cloneDepth;
+        this.rank            = source.rank;
+        this.health          = source.health;
+        this.armor           = source.armor;
+        this.speed           = source.speed;
+        this.primaryWeapon   = source.primaryWeapon;
+        this.secondaryWeapon = source.secondaryWeapon;
+        this.helmet          = source.helmet;
+        this.skills          = new ArrayList<>(source.skills);
+        this.factionCode     = source.factionCode;
+        this.isElite         = source.isElite;
+        this.cachedPower     = source.calculateCombatPower();
+    }
+
     // ─── Computed Stats ───────────────────────────────────────────────────────
 
     /**
      * Calculates the overall combat power score for this soldier.
+     * The score is cached until one of the stats it depends on changes.
      */
     public int calculateCombatPower() {
+        int power = cachedPower;
+        if (power == POWER_UNKNOWN) {
+            power = computeCombatPower();
+            cachedPower = power;
+        }
+        return power;
+    }
+
+    private int computeCombatPower() {
         int weaponDmg = (primaryWeapon != null ? primaryWeapon.getDamageValue() : 0)
                       + (secondaryWeapon != null ? secondaryWeapon.getDamageValue() / 2 : 0);
         int helmetDef = (helmet != null ? helmet.getDefenseValue() : 0);
@@ -83,22 +199,60 @@ public class Soldier implements Cloneable<Soldier> {
 
     // ─── Setters (public for builder access across packages) ─────────────────
 
-    public void setName(String name)                         { this.name = name; }
-    public void setRank(Rank rank)                           { this.rank = rank; }
-    public void setHealth(int health)                        { this.health = health; }
-    public void setArmor(int armor)                          { this.armor = armor; }
-    public void setSpeed(int speed)                          { this.speed = speed; }
-    public void setPrimaryWeapon(WeaponType weapon)          { this.primaryWeapon = weapon; }
-    public void setSecondaryWeapon(WeaponType weapon)        { this.secondaryWeapon = weapon; }
-    public void setHelmet(HelmetType helmet)                 { this.helmet = helmet; }
-    public void addSkill(SkillType skill)                    { this.skills.add(skill); }
-    public void setFaction(String faction)                   { this.faction = faction; }
-    public void setElite(boolean elite)                      { this.isElite = elite; }
+    public void setName(String name)                         { beforeChange(); this.nameCode = NAMES.code(name); this.cloneDepth = 0; afterChange(); }
+    public void setRank(Rank rank)                           { beforeChange(); this.rank = rank; invalidatePower(); afterChange(); }
+    public void setHealth(int health)                        { beforeChange(); this.health = health; invalidatePower(); afterChange(); }
+    public void setArmor(int armor)                          { beforeChange(); this.armor = armor; invalidatePower(); afterChange(); }
+    public void setSpeed(int speed)                          { beforeChange(); this.speed = speed; invalidatePower(); afterChange(); }
+    public void setPrimaryWeapon(WeaponType weapon)          { beforeChange(); this.primaryWeapon = weapon; invalidatePower(); afterChange(); }
+    public void setSecondaryWeapon(WeaponType weapon)        { beforeChange(); this.secondaryWeapon = weapon; invalidatePower(); afterChange(); }
+    public void setHelmet(HelmetType helmet)                 { beforeChange(); this.helmet = helmet; invalidatePower(); afterChange(); }
+    public void addSkill(SkillType skill)                    { beforeChange(); this.skills.add(skill); invalidatePower(); afterChange(); }
+    public void setFaction(String faction)                   { beforeChange(); this.factionCode = FACTIONS.code(faction); afterChange(); }
+    public void setElite(boolean elite)                      { beforeChange(); this.isElite = elite; invalidatePower(); afterChange(); }
+
+    void setObserver(SoldierObserver observer) {
+        this.observer = observer;
+    }
+
+    SoldierObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * Fails if a battalion, or a storage's view of one, already watches this soldier. A
+     * soldier can be a row of only one battalion: it has room for one observer, and a
+     * second owner would never hear about its changes. Add a clone to the other battalion.
+     */
+    void checkUnowned() {
+        if (observer != null) {
+            throw new IllegalArgumentException("Soldier " + id + " already belongs to a battalion; add a clone instead.");
+        }
+    }
+
+    private void beforeChange() {
+        SoldierObserver o = observer;
+        if (o != null) o.beforeChange(this);
+    }
+
+    private void afterChange() {
+        SoldierObserver o = observer;
+        if (o != null) o.afterChange(this);
+    }
+
+    private void invalidatePower() {
+        cachedPower = POWER_UNKNOWN;
+    }
+
+    private static String cloneName(int nameCode, int depth) {
+        return CLONE_NAMES.computeIfAbsent(((long) nameCode << 32) | depth,
+                k -> NAMES.get(nameCode) + CLONE_SUFFIX.repeat(depth));
+    }
 
     // ─── Getters ──────────────────────────────────────────────────────────────
 
     public String getId()                          { return id; }
-    public String getName()                        { return name; }
+    public String getName()                        { return cloneDepth == 0 ? NAMES.get(nameCode) : cloneName(nameCode, cloneDepth); }
     public Rank getRank()                          { return rank; }
     public int getHealth()                         { return health; }
     public int getArmor()                          { return armor; }
@@ -107,13 +261,13 @@ public class Soldier implements Cloneable<Soldier> {
     public WeaponType getSecondaryWeapon()         { return secondaryWeapon; }
     public HelmetType getHelmet()                  { return helmet; }
     public List<SkillType> getSkills()             { return Collections.unmodifiableList(skills); }
-    public String getFaction()                     { return faction; }
+    public String getFaction()                     { return FACTIONS.get(factionCode); }
     public boolean isElite()                       { return isElite; }
 
     @Override
     public String toString() {
         return String.format("[%s] %s %s | HP:%d ARM:%d SPD:%d | PWR:%d",
-                id, rank != null ? rank.getTitle() : "?", name,
+                id, rank != null ? rank.getTitle() : "?", getName(),
                 health, armor, speed, calculateCombatPower());
     }
 }
@@ -0,0 +1,20 @@
+package com.wargame.model;
+
+/**
+ * Callback attached to a soldier to learn about its mutations, either by the storage
+ * that handed it out or by the battalion it is a row of.
+ */
+public interface SoldierObserver {
+
+    /**
+     * Called by every setter of {@code soldier} before the new value is written.
+     */
+    void beforeChange(Soldier soldier);
+
+    /**
+     * Called by every setter of {@code soldier} once the new value is in place, if the
+     * soldier still has this observer.
+     */
+    default void afterChange(Soldier soldier) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.wargame.model;
+
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Predicate over soldier attributes, answered from a battalion's bitmap indexes.
+ *
+ * <p>Queries are immutable and can be reused across battalions:</p>
+ * <pre>
+ *   SoldierQuery q = SoldierQuery.elite()
+ *           .and(SoldierQuery.weapon(WeaponType.SNIPER_RIFLE))
+ *           .and(SoldierQuery.skill(SkillType.MEDIC))
+ *           .and(SoldierQuery.faction("Escuadrón Fantasma"));
+ *   RowSet rows = battalion.select(q);
+ * </pre>
+ */
+public final class SoldierQuery {
+
+    /** Produces a bitmap the caller may modify. */
+    private final Function<BattalionIndex, long[]> plan;
+
+    private SoldierQuery(Function<BattalionIndex, long[]> plan) {
+        this.plan = plan;
+    }
+
+    // ─── Terms ────────────────────────────────────────────────────────────────
+
+    public static SoldierQuery all() {
+        return new SoldierQuery(index -> {
+            long[] bits = new long[BattalionIndex.wordsFor(index.size())];
+            Arrays.fill(bits, -1L);
+            index.trim(bits);
+            return bits;
+        });
+    }
+
+    public static SoldierQuery rank(Rank rank)             { return new SoldierQuery(index -> index.copy(index.rank(rank))); }
+    public static SoldierQuery helmet(HelmetType helmet)   { return new SoldierQuery(index -> index.copy(index.helmet(helmet))); }
+    public static SoldierQuery skill(SkillType skill)      { return new SoldierQuery(index -> index.copy(index.skill(skill))); }
+    public static SoldierQuery faction(String faction)     { return new SoldierQuery(index -> index.copy(index.faction(faction))); }
+    public static SoldierQuery elite()                     { return new SoldierQuery(index -> index.copy(index.elite())); }
+
+    /**
+     * Soldiers carrying {@code weapon} as primary or secondary.
+     */
+    public static SoldierQuery weapon(WeaponType weapon)   { return new SoldierQuery(index -> index.copy(index.weapon(weapon))); }
+
+    // ─── Combinators ──────────────────────────────────────────────────────────
+
+    public SoldierQuery and(SoldierQuery other) {
+        return new SoldierQuery(index -> {
+            long[] a = evaluate(index);
+            long[] b = other.evaluate(index);
+            for (int i = 0; i < a.length; i++) a[i] &= b[i];
+            return a;
+        });
+    }
+
+    public SoldierQuery or(SoldierQuery other) {
+        return new SoldierQuery(index -> {
+            long[] a = evaluate(index);
+            long[] b = other.evaluate(index);
+            for (int i = 0; i < a.length; i++) a[i] |= b[i];
+            return a;
+        });
+    }
+
+    public SoldierQuery not() {
+        return new SoldierQuery(index -> {
+            long[] a = evaluate(index);
+            for (int i = 0; i < a.length; i++) a[i] = ~a[i];
+            index.trim(a);
+            return a;
+        });
+    }
+
+    public SoldierQuery andNot(SoldierQuery other) {
+        return new SoldierQuery(index -> {
+            long[] a = evaluate(index);
+            long[] b = other.evaluate(index);
+            for (int i = 0; i < a.length; i++) a[i] &= ~b[i];
+            return a;
+        });
+    }
+
+    long[] evaluate(BattalionIndex index) {
+        return plan.apply(index);
+    }
+}
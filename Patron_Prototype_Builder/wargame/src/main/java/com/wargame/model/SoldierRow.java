@@ -0,0 +1,109 @@
+package com.wargame.model;
+
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.WeaponType;
+
+/**
+ * Reusable, mutable holder for one soldier row.
+ *
+ * <p>Used to walk large battalions without creating a {@link Soldier} per row: a storage
+ * copies the row into the holder and the caller reads the fields it needs. Enum attributes
+ * are kept as codes — {@code 0} for "not set", otherwise {@code ordinal + 1} — and skills
+ * as a bitmask over {@link com.wargame.enums.SkillType} ordinals.</p>
+ */
+public final class SoldierRow {
+
+    private String id;
+    private String name;
+    private String faction;
+    private int health;
+    private int armor;
+    private int speed;
+    private int rankCode;
+    private int primaryCode;
+    private int secondaryCode;
+    private int helmetCode;
+    private int skillMask;
+    private boolean elite;
+
+    public SoldierRow set(String id, String name, String faction, int health, int armor, int speed,
+                          int rankCode, int primaryCode, int secondaryCode, int helmetCode,
+                          int skillMask, boolean elite) {
+        this.id            = id;
+        this.name          = name;
+        this.faction       = faction;
+        this.health        = health;
+        this.armor         = armor;
+        this.speed         = speed;
+        this.rankCode      = rankCode;
+        this.primaryCode   = primaryCode;
+        this.secondaryCode = secondaryCode;
+        this.helmetCode    = helmetCode;
+        this.skillMask     = skillMask;
+        this.elite         = elite;
+        return this;
+    }
+
+    /**
+     * Copies {@code soldier} into this row, keeping the given id.
+     */
+    public SoldierRow set(String id, Soldier s) {
+        return set(id, s.getName(), s.getFaction(), s.getHealth(), s.getArmor(), s.getSpeed(),
+                code(s.getRank()), code(s.getPrimaryWeapon()), code(s.getSecondaryWeapon()),
+                code(s.getHelmet()), CombatPower.skillMask(s.getSkills()), s.isElite());
+    }
+
+    public SoldierRow set(Soldier s) {
+        return set(s.getId(), s);
+    }
+
+    /**
+     * Builds a new {@link Soldier} holding this row, with the row's id.
+     */
+    public Soldier toSoldier() {
+        Soldier s = new Soldier(id);
+        s.setName(name);
+        s.setFaction(faction);
+        s.setHealth(health);
+        s.setArmor(armor);
+        s.setSpeed(speed);
+        s.setRank(CombatPower.rank(rankCode));
+        s.setPrimaryWeapon(CombatPower.weapon(primaryCode));
+        s.setSecondaryWeapon(CombatPower.weapon(secondaryCode));
+        s.setHelmet(CombatPower.helmet(helmetCode));
+        CombatPower.addSkills(s, skillMask);
+        s.setElite(elite);
+        return s;
+    }
+
+    public int getCombatPower() {
+        return CombatPower.of(rankCode, health, armor, speed, primaryCode, secondaryCode, helmetCode, skillMask, elite);
+    }
+
+    /**
+     * Returns the row code of an enum value: {@code 0} for {@code null}, otherwise {@code ordinal + 1}.
+     */
+    public static int code(Enum<?> value) {
+        return CombatPower.code(value);
+    }
+
+    // ─── Getters ──────────────────────────────────────────────────────────────
+
+    public String getId()                   { return id; }
+    public String getName()                 { return name; }
+    public String getFaction()              { return faction; }
+    public int getHealth()                  { return health; }
+    public int getArmor()                   { return armor; }
+    public int getSpeed()                   { return speed; }
+    public int getRankCode()                { return rankCode; }
+    public int getPrimaryCode()             { return primaryCode; }
+    public int getSecondaryCode()           { return secondaryCode; }
+    public int getHelmetCode()              { return helmetCode; }
+    public int getSkillMask()               { return skillMask; }
+    public boolean isElite()                { return elite; }
+    public Rank getRank()                   { return CombatPower.rank(rankCode); }
+    public WeaponType getPrimaryWeapon()    { return CombatPower.weapon(primaryCode); }
+    public WeaponType getSecondaryWeapon()  { return CombatPower.weapon(secondaryCode); }
+    public HelmetType getHelmet()           { return CombatPower.helmet(helmetCode); }
+}
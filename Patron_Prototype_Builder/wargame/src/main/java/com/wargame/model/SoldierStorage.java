@@ -0,0 +1,125 @@
+package com.wargame.model;
+
+import com.wargame.enums.StorageMode;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Backing store for the soldiers of a {@link Battalion}.
+ *
+ * <p>Implementations decide how rows are laid out in memory; the battalion only
+ * talks to them through this row-oriented contract.</p>
+ */
+public interface SoldierStorage {
+
+    /**
+     * Creates an empty storage with the given layout.
+     */
+    static SoldierStorage create(StorageMode mode) {
+        return switch (mode) {
+            case LIST     -> new ListStorage();
+            case COLUMNAR -> new ColumnarStorage();
+            case LAZY     -> new PrototypeStorage(new Soldier[0], 0);
+            case PACKED   -> new PackedStorage();
+            case OFF_HEAP -> new OffHeapStorage();
+        };
+    }
+
+    StorageMode getMode();
+
+    void add(Soldier soldier);
+
+    /**
+     * Appends all {@code soldiers} in array order.
+     */
+    default void addAll(Soldier[] soldiers) {
+        for (Soldier soldier : soldiers) add(soldier);
+    }
+
+    /**
+     * Removes the row holding {@code soldier}.
+     *
+     * @return {@code true} if a row was removed
+     */
+    boolean remove(Soldier soldier);
+
+    /**
+     * Returns the soldier stored at {@code index}. Storages that do not keep
+     * {@link Soldier} objects return a freshly materialized view of the row.
+     */
+    Soldier get(int index);
+
+    int size();
+
+    long totalCombatPower();
+
+    int eliteCount();
+
+    /**
+     * Copies row {@code index} into {@code row} without keeping a reference to it.
+     */
+    default void readRow(int index, SoldierRow row) {
+        row.set(get(index));
+    }
+
+    /**
+     * Like {@link #readRow}, but the row's id may be left unset. For scans that only
+     * look at attributes, on storages where producing the id costs something.
+     */
+    default void readAttributes(int index, SoldierRow row) {
+        readRow(index, row);
+    }
+
+    /**
+     * Returns the row index {@link #remove} would remove for {@code soldier}, or {@code -1}.
+     */
+    default int indexOf(Soldier soldier) {
+        String id = soldier.getId();
+        SoldierRow row = new SoldierRow();
+        for (int i = 0, n = size(); i < n; i++) {
+            readRow(i, row);
+            if (row.getId().equals(id)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Frees whatever the storage holds outside the heap. Only called once the battalion
+     * is discarded; on-heap storages have nothing to do.
+     */
+    default void release() {
+    }
+
+    /**
+     * Keeps the rows readable by another thread until the matching {@link #unpin()}: a
+     * {@link #release()} in the meantime empties the storage but only frees its memory
+     * once the last pin is gone. Fails if the storage was already released. Storages
+     * that hold nothing outside the heap have nothing to keep.
+     */
+    default void pin() {
+    }
+
+    default void unpin() {
+    }
+
+    /**
+     * Attaches {@code observer} to every soldier that is itself a row here, now and as rows
+     * are added or materialized, so the owner hears about mutations that change a row.
+     * Storages that only hand out detached copies have nothing to observe. Storages that
+     * keep the soldiers themselves refuse, in {@link #add}, a soldier that already reports
+     * to someone else.
+     */
+    default void observeRows(SoldierObserver observer) {
+    }
+
+    /**
+     * Read-only list view over the rows of this storage.
+     */
+    default List<Soldier> asList() {
+        return new AbstractList<>() {
+            @Override public Soldier get(int index) { return SoldierStorage.this.get(index); }
+            @Override public int size()             { return SoldierStorage.this.size(); }
+        };
+    }
+}
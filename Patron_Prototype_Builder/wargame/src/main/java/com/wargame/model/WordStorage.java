@@ -0,0 +1,265 @@
+package com.wargame.model;
+
+import com.wargame.util.ReservedIds;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base for storages that keep one {@link PackedSoldier} word per row.
+ *
+ * <p>Subclasses only decide where the words live. Names and factions live in a per-storage
+ * dictionary referenced by the word's label bits. Every row has an ordinal (its slot).
+ * Rows filled from prototypes take their ids from a range reserved by the fill; rows
+ * added from a {@link Soldier} keep that soldier's id, packed into a {@code long} as up to
+ * eight ASCII bytes, in a side table sorted by ordinal, so no object is kept per row.
+ * Removed slots are zeroed — a zero word adds nothing to the aggregates — and skipped when
+ * mapping row indexes to ordinals.</p>
+ */
+abstract class WordStorage implements SoldierStorage {
+
+    /** Number of slots in use, removed ones included. */
+    int ordinals;
+
+    private String[] labelNames = new String[16];
+    private String[] labelFactions = new String[16];
+    private int labelCount;
+    private final Map<String, Integer> labelIndex = new HashMap<>();
+
+    /** Ids of the filled rows, indexed by ordinal from {@link #filledFrom}; {@code null} before a fill. */
+    private ReservedIds filledIds;
+    private int filledFrom;
+
+    /** Ordinals of rows added from a {@link Soldier}, ascending, and their packed ids. */
+    private int[] explicitOrdinals = new int[0];
+    private long[] explicitIds = new long[0];
+    private int explicitCount;
+    /** Explicit ids that do not pack into a {@code long}; their packed id is 0. */
+    private final Map<Integer, String> wideIds = new HashMap<>();
+
+    private final RemovedOrdinals removed = new RemovedOrdinals();
+
+    // ─── Word Access ──────────────────────────────────────────────────────────
+
+    abstract long wordAt(int ordinal);
+
+    abstract void setWordAt(int ordinal, long word);
+
+    /** Sets the words of ordinals {@code [from, to)} to {@code word}. */
+    abstract void fillWords(int from, int to, long word);
+
+    /** Makes room for at least {@code needed} slots. */
+    abstract void ensureCapacity(int needed);
+
+    // ─── Rows ─────────────────────────────────────────────────────────────────
+
+    @Override
+    public void add(Soldier soldier) {
+        long word = PackedSoldier.encode(soldier, label(soldier.getName(), soldier.getFaction()));
+        ensureCapacity(ordinals + 1);
+        addExplicitId(ordinals, soldier.getId());
+        setWordAt(ordinals++, word);
+    }
+
+    @Override
+    public void addAll(Soldier[] batch) {
+        ensureCapacity(ordinals + batch.length);
+        for (Soldier soldier : batch) add(soldier);
+    }
+
+    /**
+     * Appends {@code count} rows where row {@code i} copies {@code prototypes[i % prototypes.length]}.
+     * Each prototype is encoded once; no {@link Soldier} is created.
+     */
+    void fill(Soldier[] prototypes, int count) {
+        fill(prototypes, count, Soldier.reserveIds(count));
+    }
+
+    /**
+     * Same as {@link #fill(Soldier[], int)}; row {@code i} of the fill gets {@code ids.get(i)}.
+     * A storage is filled at most once.
+     */
+    void fill(Soldier[] prototypes, int count, ReservedIds ids) {
+        if (filledIds != null) throw new IllegalStateException("Storage has already been filled.");
+        long[] encoded = new long[prototypes.length];
+        for (int p = 0; p < prototypes.length; p++) {
+            encoded[p] = PackedSoldier.encode(prototypes[p], label(prototypes[p].getName(), prototypes[p].getFaction()));
+        }
+        ensureCapacity(ordinals + count);
+        if (encoded.length == 1) {
+            fillWords(ordinals, ordinals + count, encoded[0]);
+        } else {
+            for (int i = 0; i < count; i++) setWordAt(ordinals + i, encoded[i % encoded.length]);
+        }
+        filledIds = ids;
+        filledFrom = ordinals;
+        ordinals += count;
+    }
+
+    @Override
+    public boolean remove(Soldier soldier) {
+        String id = soldier.getId();
+        long packed = packId(id);
+        for (int i = 0; i < explicitCount; i++) {
+            int ordinal = explicitOrdinals[i];
+            boolean match = packed != 0 ? explicitIds[i] == packed
+                                        : explicitIds[i] == 0 && id.equals(wideIds.get(ordinal));
+            if (match && !removed.contains(ordinal)) {
+                wideIds.remove(ordinal);
+                removeOrdinal(ordinal);
+                return true;
+            }
+        }
+        Integer label = labelIndex.get(labelKey(soldier.getName(), soldier.getFaction()));
+        if (label == null) return false;
+        long target = PackedSoldier.encode(soldier, label);
+        for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+            if (wordAt(ordinal) == target && explicitIndex(ordinal) < 0 && !removed.contains(ordinal)
+                    && idOf(ordinal).equals(id)) {
+                removeOrdinal(ordinal);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Soldier get(int index) {
+        SoldierRow row = new SoldierRow();
+        readRow(index, row);
+        return row.toSoldier();
+    }
+
+    @Override
+    public void readRow(int index, SoldierRow row) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Row " + index + ", size " + size());
+        int ordinal = ordinalOf(index);
+        long word = wordAt(ordinal);
+        int label = PackedSoldier.label(word);
+        PackedSoldier.decode(word, idOf(ordinal), labelNames[label], labelFactions[label], row);
+    }
+
+    @Override
+    public void readAttributes(int index, SoldierRow row) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Row " + index + ", size " + size());
+        long word = wordAt(ordinalOf(index));
+        int label = PackedSoldier.label(word);
+        PackedSoldier.decode(word, null, labelNames[label], labelFactions[label], row);
+    }
+
+    /**
+     * Packed word of row {@code index}; its label indexes this storage's dictionary.
+     */
+    long word(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Row " + index + ", size " + size());
+        return wordAt(ordinalOf(index));
+    }
+
+    @Override
+    public int size() {
+        return ordinals - removed.count();
+    }
+
+    /**
+     * Forgets every row; the words themselves are left for the subclass to drop.
+     */
+    void clear() {
+        ordinals = 0;
+        removed.clear();
+        explicitOrdinals = new int[0];
+        explicitIds = new long[0];
+        explicitCount = 0;
+        wideIds.clear();
+        filledIds = null;
+    }
+
+    // ─── Labels and Ids ───────────────────────────────────────────────────────
+
+    private int label(String name, String faction) {
+        String key = labelKey(name, faction);
+        Integer index = labelIndex.get(key);
+        if (index != null) return index;
+        if (labelCount > PackedSoldier.MAX_LABEL) {
+            throw new IllegalStateException("Packed battalion holds at most " + (PackedSoldier.MAX_LABEL + 1)
+                    + " distinct name/faction pairs.");
+        }
+        if (labelCount == labelNames.length) {
+            labelNames = Arrays.copyOf(labelNames, labelCount * 2);
+            labelFactions = Arrays.copyOf(labelFactions, labelCount * 2);
+        }
+        labelNames[labelCount] = name;
+        labelFactions[labelCount] = faction;
+        labelIndex.put(key, labelCount);
+        return labelCount++;
+    }
+
+    private static String labelKey(String name, String faction) {
+        return (name == null ? "\u0001" : name) + '\u0000' + (faction == null ? "\u0001" : faction);
+    }
+
+    private String idOf(int ordinal) {
+        if (explicitCount > 0) {
+            int at = explicitIndex(ordinal);
+            if (at >= 0) return explicitIds[at] != 0 ? unpackId(explicitIds[at]) : wideIds.get(ordinal);
+        }
+        return filledIds.get(ordinal - filledFrom);
+    }
+
+    /**
+     * Records the id of a row added from a soldier; {@code ordinal} is above every recorded one.
+     */
+    private void addExplicitId(int ordinal, String id) {
+        if (explicitCount == explicitOrdinals.length) {
+            int capacity = Math.max(8, explicitCount * 2);
+            explicitOrdinals = Arrays.copyOf(explicitOrdinals, capacity);
+            explicitIds = Arrays.copyOf(explicitIds, capacity);
+        }
+        long packed = packId(id);
+        if (packed == 0) wideIds.put(ordinal, id);
+        explicitOrdinals[explicitCount] = ordinal;
+        explicitIds[explicitCount++] = packed;
+    }
+
+    private int explicitIndex(int ordinal) {
+        return Arrays.binarySearch(explicitOrdinals, 0, explicitCount, ordinal);
+    }
+
+    /**
+     * Packs an id of one to eight non-NUL ASCII characters into a {@code long}, first
+     * character in the low byte; returns 0 for any other id.
+     */
+    private static long packId(String id) {
+        int length = id.length();
+        if (length == 0 || length > Long.BYTES) return 0;
+        long packed = 0;
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c == 0 || c > 0x7F) return 0;
+            packed |= (long) c << (i * 8);
+        }
+        return packed;
+    }
+
+    private static String unpackId(long packed) {
+        int length = Long.BYTES - Long.numberOfLeadingZeros(packed) / 8;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) bytes[i] = (byte) (packed >>> (i * 8));
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    // ─── Ordinals ─────────────────────────────────────────────────────────────
+
+    private void removeOrdinal(int ordinal) {
+        setWordAt(ordinal, 0);
+        removed.add(ordinal);
+    }
+
+    /**
+     * Maps a row index to its ordinal by skipping the removed ordinals.
+     */
+    private int ordinalOf(int index) {
+        return removed.ordinalOf(index);
+    }
+}
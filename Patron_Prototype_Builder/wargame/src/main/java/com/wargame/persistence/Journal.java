@@ -0,0 +1,484 @@
+package com.wargame.persistence;
+
+import com.wargame.enums.StorageMode;
+import com.wargame.model.Soldier;
+import com.wargame.model.SoldierRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of {@link com.wargame.util.AppController} mutations.
+ *
+ * <pre>
+ * header  magic "WARJRNL1", long baseLsn         (sequence number of the first entry)
+ * entry   int length, int crc32, long lsn, byte type, payload
+ * </pre>
+ *
+ * <p>Appending threads only encode their entry into an in-memory buffer and return its
+ * sequence number right away; a single flusher thread writes whatever has accumulated and
+ * forces it to disk with one {@code fsync} (group commit). Callers therefore never wait for
+ * the disk — the UI thread can journal every action — and a burst of mutations costs one sync,
+ * not one each. An entry is durable at most one sync after it was logged; callers that must
+ * not go on before that, such as a snapshot, wait with {@link #sync()} or
+ * {@link #awaitDurable(long)}. A failed write makes every later {@code log*} call throw.</p>
+ *
+ * <p>{@link #open} replays the entries newer than a snapshot while it scans the file and cuts
+ * off a torn tail left by a crash, so recovery is a single sequential pass.</p>
+ *
+ * <p>A battalion entry records the id of its first soldier; the rows take consecutive ids
+ * from there, so replay gives them back the ids they had. Only the operations below are
+ * journaled: edits to single battalion rows, such as a soldier changed through
+ * {@link com.wargame.model.Battalion#getSoldiers()}, are not, and outlive a crash only once a
+ * snapshot has been saved after them.</p>
+ */
+public final class Journal implements Closeable {
+
+    private static final long MAGIC = 0x314C4E524A524157L;   // "WARJRNL1" read as little-endian
+    private static final int HEADER_SIZE = 16;
+    private static final int FRAME_SIZE = 8;                 // length + crc
+    private static final int MAX_ENTRY = 1 << 20;
+    private static final int READ_BUFFER = 4 << 20;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final byte SAVE_SOLDIER           = 1;
+    private static final byte REMOVE_SOLDIER         = 2;
+    private static final byte REGISTER_PROTOTYPE     = 3;
+    private static final byte REMOVE_PROTOTYPE       = 4;
+    private static final byte REMOVE_BATTALION       = 7;
+    private static final byte CREATE_BATTALION       = 9;
+    private static final byte CREATE_MIXED_BATTALION = 10;
+    private static final byte CREATE_BUILT_BATTALION = 11;
+
+    // Written before battalion entries carried their first soldier id; replayed with fresh ids
+    private static final byte CREATE_BATTALION_V1       = 5;
+    private static final byte CREATE_MIXED_BATTALION_V1 = 6;
+    private static final byte CREATE_BUILT_BATTALION_V1 = 8;
+
+    private final FileChannel channel;
+    private final Object ioLock = new Object();
+    private final CRC32 crc = new CRC32();
+    private final Thread flusher;
+
+    // Guarded by this
+    private ByteBuffer pending = newBuffer(64 << 10);
+    private ByteBuffer spare = newBuffer(64 << 10);
+    private long nextLsn;
+    private long durableLsn;
+    private IOException failure;
+    private boolean closed;
+
+    // Guarded by ioLock
+    private long writePosition;
+
+    private Journal(FileChannel channel, long writePosition, long nextLsn) {
+        this.channel = channel;
+        this.writePosition = writePosition;
+        this.nextLsn = nextLsn;
+        this.durableLsn = nextLsn - 1;
+        this.flusher = new Thread(this::flushLoop, "wargame-journal");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // ─── Opening and Replay ───────────────────────────────────────────────────
+
+    /**
+     * Opens (or creates) the journal at {@code file}, hands every entry with a sequence
+     * number above {@code afterLsn} to {@code handler}, and positions the journal for appending.
+     *
+     * @param afterLsn last sequence number already contained in a snapshot, {@code 0} if none
+     */
+    public static Journal open(Path file, long afterLsn, JournalHandler handler) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long baseLsn;
+            if (channel.size() < HEADER_SIZE) {
+                baseLsn = afterLsn + 1;
+                writeHeader(channel, baseLsn);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+                while (header.hasRemaining() && channel.read(header, header.position()) >= 0) { }
+                header.flip();
+                if (header.getLong() != MAGIC) throw new IOException("Not a journal file: " + file);
+                baseLsn = header.getLong();
+            }
+            Replay replay = new Replay(channel, baseLsn, afterLsn, handler);
+            replay.run();
+            if (replay.end < channel.size()) channel.truncate(replay.end);
+            return new Journal(channel, replay.end, Math.max(replay.lastLsn, afterLsn) + 1);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void writeHeader(FileChannel channel, long baseLsn) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+        header.putLong(MAGIC).putLong(baseLsn).flip();
+        while (header.hasRemaining()) channel.write(header, header.position());
+        channel.force(false);
+    }
+
+    /**
+     * Sequential scan over the entries; stops at the first frame that is incomplete or fails its checksum.
+     */
+    private static final class Replay {
+
+        private final FileChannel channel;
+        private final long afterLsn;
+        private final JournalHandler handler;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(READ_BUFFER).order(ORDER);
+        private final CRC32 crc = new CRC32();
+        private final SoldierRow row = new SoldierRow();
+        private byte[] scratch = new byte[256];
+        private long readPosition = HEADER_SIZE;
+        private long end = HEADER_SIZE;
+        private long lastLsn;
+
+        Replay(FileChannel channel, long baseLsn, long afterLsn, JournalHandler handler) {
+            this.channel = channel;
+            this.afterLsn = afterLsn;
+            this.handler = handler;
+            this.lastLsn = baseLsn - 1;
+            buf.limit(0);
+        }
+
+        void run() throws IOException {
+            while (available(FRAME_SIZE)) {
+                int length = buf.getInt(buf.position());
+                int checksum = buf.getInt(buf.position() + 4);
+                if (length < 9 || length > MAX_ENTRY || !available(FRAME_SIZE + length)) return;
+
+                ByteBuffer body = buf.slice(buf.position() + FRAME_SIZE, length).order(ORDER);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) return;
+
+                long lsn = body.getLong();
+                byte type = body.get();
+                if (lsn <= lastLsn) return;
+                if (lsn > afterLsn && handler != null) apply(type, body);
+
+                lastLsn = lsn;
+                buf.position(buf.position() + FRAME_SIZE + length);
+                end += FRAME_SIZE + length;
+            }
+        }
+
+        private boolean available(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) return true;
+            buf.compact();
+            int n;
+            while (buf.hasRemaining() && (n = channel.read(buf, readPosition)) > 0) readPosition += n;
+            buf.flip();
+            return buf.remaining() >= bytes;
+        }
+
+        private void apply(byte type, ByteBuffer in) {
+            switch (type) {
+                case SAVE_SOLDIER       -> handler.saveSoldier(readSoldier(in));
+                case REMOVE_SOLDIER     -> handler.removeSoldier(readString(in));
+                case REGISTER_PROTOTYPE -> handler.registerPrototype(readString(in), readSoldier(in));
+                case REMOVE_PROTOTYPE   -> handler.removePrototype(readString(in));
+                case CREATE_BATTALION, CREATE_BATTALION_V1 -> {
+                    String id = readString(in);
+                    String firstSoldierId = type == CREATE_BATTALION ? readString(in) : null;
+                    handler.createBattalion(id, firstSoldierId, readString(in), readString(in),
+                            in.getInt(), StorageMode.values()[in.get()]);
+                }
+                case CREATE_MIXED_BATTALION, CREATE_MIXED_BATTALION_V1 -> {
+                    String id = readString(in);
+                    String firstSoldierId = type == CREATE_MIXED_BATTALION ? readString(in) : null;
+                    String name = readString(in);
+                    String[] keys = new String[in.getInt()];
+                    for (int i = 0; i < keys.length; i++) keys[i] = readString(in);
+                    handler.createMixedBattalion(id, firstSoldierId, name, keys, in.getInt(), StorageMode.values()[in.get()]);
+                }
+                case REMOVE_BATTALION   -> handler.removeBattalion(readString(in));
+                case CREATE_BUILT_BATTALION, CREATE_BUILT_BATTALION_V1 -> {
+                    String id = readString(in);
+                    String firstSoldierId = type == CREATE_BUILT_BATTALION ? readString(in) : null;
+                    String name = readString(in);
+                    Soldier[] prototypes = new Soldier[in.getInt()];
+                    for (int i = 0; i < prototypes.length; i++) prototypes[i] = readSoldier(in);
+                    handler.createMixedBattalion(id, firstSoldierId, name, prototypes, in.getInt(),
+                            StorageMode.values()[in.get()]);
+                }
+                default -> throw new IllegalStateException("Unknown journal entry type " + type);
+            }
+        }
+
+        private Soldier readSoldier(ByteBuffer in) {
+            return row.set(readString(in), readString(in), readString(in),
+                    in.getInt(), in.getInt(), in.getInt(),
+                    in.get(), in.get(), in.get(), in.get(), in.getInt(), in.get() != 0).toSoldier();
+        }
+
+        private String readString(ByteBuffer in) {
+            int length = in.getInt();
+            if (length < 0) return null;
+            if (length > scratch.length) scratch = new byte[length];
+            in.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    // ─── Logging ──────────────────────────────────────────────────────────────
+
+    public long logSaveSoldier(Soldier soldier) {
+        return commit(begin(SAVE_SOLDIER).soldier(soldier).end());
+    }
+
+    public long logRemoveSoldier(String soldierId) {
+        return commit(begin(REMOVE_SOLDIER).string(soldierId).end());
+    }
+
+    public long logRegisterPrototype(String key, Soldier soldier) {
+        return commit(begin(REGISTER_PROTOTYPE).string(key).soldier(soldier).end());
+    }
+
+    public long logRemovePrototype(String key) {
+        return commit(begin(REMOVE_PROTOTYPE).string(key).end());
+    }
+
+    /**
+     * @param firstSoldierId id of the first row; row {@code i} has the {@code i}-th id of the
+     *                       range reserved from it, {@code null} for an empty battalion
+     */
+    public long logCreateBattalion(String battalionId, String firstSoldierId, String name, String prototypeKey,
+                                   int count, StorageMode mode) {
+        return commit(begin(CREATE_BATTALION).string(battalionId).string(firstSoldierId).string(name)
+                .string(prototypeKey).integer(count).mode(mode).end());
+    }
+
+    public long logCreateMixedBattalion(String battalionId, String firstSoldierId, String name, String[] keys,
+                                        int count, StorageMode mode) {
+        Encoder e = begin(CREATE_MIXED_BATTALION).string(battalionId).string(firstSoldierId).string(name)
+                .integer(keys.length);
+        for (String key : keys) e.string(key);
+        return commit(e.integer(count).mode(mode).end());
+    }
+
+    /**
+     * Logs a battalion together with the prototypes it was cloned from, so replay does not
+     * depend on what the registry holds under their keys by then.
+     */
+    public long logCreateMixedBattalion(String battalionId, String firstSoldierId, String name, Soldier[] prototypes,
+                                        int count, StorageMode mode) {
+        Encoder e = begin(CREATE_BUILT_BATTALION).string(battalionId).string(firstSoldierId).string(name)
+                .integer(prototypes.length);
+        for (Soldier prototype : prototypes) e.soldier(prototype);
+        return commit(e.integer(count).mode(mode).end());
+    }
+
+    public long logRemoveBattalion(String battalionId) {
+        return commit(begin(REMOVE_BATTALION).string(battalionId).end());
+    }
+
+    /**
+     * Sequence number of the last entry appended so far.
+     */
+    public synchronized long getLastLsn() {
+        return nextLsn - 1;
+    }
+
+    /**
+     * Waits until every entry appended so far is on disk and returns the last sequence number.
+     */
+    public long sync() {
+        long lsn = getLastLsn();
+        awaitDurable(lsn);
+        return lsn;
+    }
+
+    /**
+     * Drops every entry once a snapshot covering {@code lsn} has been written. Does nothing if
+     * newer entries have been appended in the meantime; replay skips the covered ones anyway.
+     */
+    public void truncate(long lsn) throws IOException {
+        awaitDurable(lsn);
+        synchronized (ioLock) {
+            synchronized (this) {
+                if (nextLsn - 1 != lsn || pending.position() > 0) return;
+            }
+            channel.truncate(HEADER_SIZE);
+            writeHeader(channel, lsn + 1);
+            writePosition = HEADER_SIZE;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    // ─── Group Commit ─────────────────────────────────────────────────────────
+
+    private Encoder begin(byte type) {
+        return new Encoder(type);
+    }
+
+    /**
+     * Appends an encoded entry to the pending batch for the flusher and returns its sequence number.
+     */
+    private long commit(Encoder entry) {
+        long lsn;
+        synchronized (this) {
+            if (failure != null) throw new UncheckedIOException("Journal is unavailable", failure);
+            if (closed) throw new IllegalStateException("Journal is closed.");
+            lsn = nextLsn++;
+            ByteBuffer body = entry.out;
+            body.flip();
+            body.putLong(0, lsn);
+            crc.reset();
+            crc.update(body.array(), 0, body.limit());
+            if (pending.remaining() < FRAME_SIZE + body.limit()) {
+                pending = grow(pending, FRAME_SIZE + body.limit());
+            }
+            pending.putInt(body.limit()).putInt((int) crc.getValue()).put(body);
+            notifyAll();
+        }
+        return lsn;
+    }
+
+    /**
+     * Waits until the entry numbered {@code lsn}, and every one before it, is on disk.
+     */
+    public synchronized void awaitDurable(long lsn) {
+        boolean interrupted = false;
+        while (durableLsn < lsn && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (durableLsn < lsn) throw new UncheckedIOException("Journal write failed", failure);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long upTo;
+            synchronized (this) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ignored) {}
+                }
+                if (pending.position() == 0) return;
+                batch = pending;
+                pending = spare;
+                spare = null;
+                upTo = nextLsn - 1;
+            }
+            IOException error = null;
+            synchronized (ioLock) {
+                try {
+                    batch.flip();
+                    while (batch.hasRemaining()) writePosition += channel.write(batch, writePosition);
+                    channel.force(false);
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            batch.clear();
+            synchronized (this) {
+                spare = batch;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableLsn = upTo;
+                }
+                notifyAll();
+                if (error != null) return;
+            }
+        }
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ORDER);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buf, int needed) {
+        ByteBuffer bigger = newBuffer(Math.max(buf.capacity() * 2, buf.position() + needed));
+        buf.flip();
+        return bigger.put(buf);
+    }
+
+    /**
+     * Builds the body of one entry: lsn (patched in on commit), type, payload.
+     */
+    private static final class Encoder {
+
+        private ByteBuffer out = newBuffer(128);
+
+        Encoder(byte type) {
+            out.putLong(0).put(type);
+        }
+
+        Encoder string(String s) {
+            if (s == null) return integer(-1);
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            out.putInt(bytes.length).put(bytes);
+            return this;
+        }
+
+        Encoder integer(int value) {
+            ensure(4);
+            out.putInt(value);
+            return this;
+        }
+
+        Encoder mode(StorageMode mode) {
+            ensure(1);
+            out.put((byte) mode.ordinal());
+            return this;
+        }
+
+        Encoder soldier(Soldier soldier) {
+            SoldierRow r = new SoldierRow().set(soldier);
+            string(r.getId()).string(r.getName()).string(r.getFaction());
+            ensure(21);
+            out.putInt(r.getHealth()).putInt(r.getArmor()).putInt(r.getSpeed())
+               .put((byte) r.getRankCode()).put((byte) r.getPrimaryCode())
+               .put((byte) r.getSecondaryCode()).put((byte) r.getHelmetCode())
+               .putInt(r.getSkillMask()).put((byte) (r.isElite() ? 1 : 0));
+            return this;
+        }
+
+        Encoder end() {
+            if (out.position() > MAX_ENTRY) throw new IllegalArgumentException("Journal entry too large.");
+            return this;
+        }
+
+        private void ensure(int bytes) {
+            if (out.remaining() < bytes) out = grow(out, bytes);
+        }
+    }
+}
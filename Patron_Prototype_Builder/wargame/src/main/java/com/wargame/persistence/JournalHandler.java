@@ -0,0 +1,37 @@
+package com.wargame.persistence;
+
+import com.wargame.enums.StorageMode;
+import com.wargame.model.Soldier;
+
+/**
+ * Receives the operations read back from a {@link Journal}, in the order they were logged.
+ */
+public interface JournalHandler {
+
+    void saveSoldier(Soldier soldier);
+
+    void removeSoldier(String soldierId);
+
+    void registerPrototype(String key, Soldier soldier);
+
+    void removePrototype(String key);
+
+    /**
+     * @param firstSoldierId id of the battalion's first soldier, the start of the range its rows
+     *                       were given; {@code null} if the entry predates recorded ids or the
+     *                       battalion is empty
+     */
+    void createBattalion(String battalionId, String firstSoldierId, String name, String prototypeKey,
+                         int count, StorageMode mode);
+
+    void createMixedBattalion(String battalionId, String firstSoldierId, String name, String[] keys,
+                              int count, StorageMode mode);
+
+    /**
+     * Creates a battalion from prototypes recorded in the entry rather than looked up by key.
+     */
+    void createMixedBattalion(String battalionId, String firstSoldierId, String name, Soldier[] prototypes,
+                              int count, StorageMode mode);
+
+    void removeBattalion(String battalionId);
+}
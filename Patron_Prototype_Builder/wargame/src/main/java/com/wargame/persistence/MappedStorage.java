@@ -0,0 +1,151 @@
+package com.wargame.persistence;
+
+import com.wargame.enums.StorageMode;
+import com.wargame.model.Soldier;
+import com.wargame.model.SoldierObserver;
+import com.wargame.model.SoldierRow;
+import com.wargame.model.SoldierStorage;
+
+import java.nio.MappedByteBuffer;
+
+/**
+ * Read-only view of one battalion's rows inside a snapshot file.
+ *
+ * <p>The region is mapped when the snapshot is read, but its pages are only loaded on first
+ * row access, so restoring a snapshot does not touch any battalion data until it is
+ * displayed; totals come from the snapshot directory. The mapping refers to the file's data
+ * rather than its path, so saving a new snapshot over the same file later leaves these rows
+ * as they were. The first {@link #add} or {@link #remove} copies the rows into an in-memory
+ * storage of the battalion's mode, which takes over from then on. Soldiers returned by
+ * {@link #get} are detached copies, as in a columnar storage.</p>
+ */
+class MappedStorage implements SoldierStorage {
+
+    private final int rows;
+    private final String[] strings;
+    private final StorageMode mode;
+    private final long totalPower;
+    private final int eliteCount;
+
+    /** {@code null} once released. */
+    private volatile MappedByteBuffer buffer;
+    private volatile SoldierStorage delegate;
+    private SoldierObserver rowObserver;
+    private int pins;
+
+    /**
+     * @param buffer the battalion's {@code rows} records, already mapped
+     * @param mode   layout of the in-memory copy; one that hands out detached rows
+     */
+    MappedStorage(MappedByteBuffer buffer, int rows, String[] strings,
+                  StorageMode mode, long totalPower, int eliteCount) {
+        this.buffer = buffer;
+        this.rows = rows;
+        this.strings = strings;
+        this.mode = mode;
+        this.totalPower = totalPower;
+        this.eliteCount = eliteCount;
+    }
+
+    @Override
+    public StorageMode getMode() {
+        return delegate != null ? delegate.getMode() : mode;
+    }
+
+    @Override
+    public void add(Soldier soldier) {
+        materialize().add(soldier);
+    }
+
+    @Override
+    public boolean remove(Soldier soldier) {
+        // Rows handed out by get() are detached copies, so match by id rather than identity.
+        SoldierStorage storage = materialize();
+        SoldierRow row = new SoldierRow();
+        for (int i = 0; i < storage.size(); i++) {
+            storage.readRow(i, row);
+            if (row.getId().equals(soldier.getId())) return storage.remove(storage.get(i));
+        }
+        return false;
+    }
+
+    @Override
+    public Soldier get(int index) {
+        if (delegate != null) return delegate.get(index);
+        SoldierRow row = new SoldierRow();
+        readRow(index, row);
+        return row.toSoldier();
+    }
+
+    @Override
+    public void readRow(int index, SoldierRow row) {
+        if (delegate != null) {
+            delegate.readRow(index, row);
+            return;
+        }
+        MappedByteBuffer mapped = buffer;
+        if (index < 0 || index >= rows || mapped == null) {
+            throw new IndexOutOfBoundsException("Row " + index + ", size " + size());
+        }
+        SnapshotFormat.readRecord(mapped, index * SnapshotFormat.RECORD_SIZE, strings, row);
+    }
+
+    @Override
+    public int size() {
+        SoldierStorage copy = delegate;
+        if (copy != null) return copy.size();
+        return buffer != null ? rows : 0;
+    }
+
+    @Override
+    public long totalCombatPower() {
+        return delegate != null ? delegate.totalCombatPower() : totalPower;
+    }
+
+    @Override
+    public int eliteCount() {
+        return delegate != null ? delegate.eliteCount() : eliteCount;
+    }
+
+    @Override
+    public void release() {
+        if (delegate != null) delegate.release();
+        buffer = null;
+    }
+
+    @Override
+    public synchronized void pin() {
+        if (delegate != null) delegate.pin();
+        pins++;
+    }
+
+    @Override
+    public synchronized void unpin() {
+        if (delegate != null) delegate.unpin();
+        pins--;
+    }
+
+    @Override
+    public void observeRows(SoldierObserver observer) {
+        rowObserver = observer;
+        if (delegate != null) delegate.observeRows(observer);
+    }
+
+    private SoldierStorage materialize() {
+        if (delegate == null) {
+            SoldierStorage copy = SoldierStorage.create(mode);
+            SoldierRow row = new SoldierRow();
+            for (int i = 0, n = size(); i < n; i++) {
+                readRow(i, row);
+                copy.add(row.toSoldier());
+            }
+            if (rowObserver != null) copy.observeRows(rowObserver);
+            synchronized (this) {
+                for (int i = 0; i < pins; i++) copy.pin();
+                delegate = copy;
+            }
+            buffer = null;
+        }
+        return delegate;
+    }
+}
@@ -0,0 +1,289 @@
+package com.wargame.persistence;
+
+import com.wargame.enums.ExportFormat;
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+import com.wargame.model.Battalion;
+import com.wargame.model.Soldier;
+import com.wargame.model.SoldierRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams prototypes, saved soldiers and battalions to a CSV or NDJSON file.
+ *
+ * <p>Rows are read through one reusable {@link SoldierRow} and encoded straight into a
+ * direct buffer that is drained to a {@link FileChannel}: numbers are formatted by hand,
+ * enum and skill-set values come from pre-encoded tables, plain ASCII strings are copied
+ * char by char and the encoded form of other (repeated) names and factions is cached, so
+ * the encoding itself does not allocate. Reading a row may: storages that render soldier
+ * ids on demand (lazy, packed, off-heap and mapped snapshot rows) create the id string
+ * for every row, and rows backed by {@link Soldier} objects go through their getters.</p>
+ *
+ * <p>Columns: {@code group} ({@code prototype}, {@code saved} or {@code battalion}),
+ * {@code key} (prototype key or battalion id), then the soldier's attributes. Enums are
+ * written by constant name and skills as a {@code |}-separated list (CSV) or an array (NDJSON).</p>
+ */
+public final class RosterExporter implements Closeable {
+
+    private static final String[] COLUMNS = {
+            "group", "key", "id", "name", "faction", "rank", "health", "armor", "speed",
+            "primary", "secondary", "helmet", "skills", "elite", "power"
+    };
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int CACHE_SLOTS = 1024;
+    private static final int MAX_CACHED_LENGTH = 128;
+
+    private final ExportFormat format;
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final SoldierRow row = new SoldierRow();
+    private final byte[] digits = new byte[20];
+    private long rowsWritten;
+
+    /** Separator or {@code ,"name":} written before each column. */
+    private final byte[][] prefixes = new byte[COLUMNS.length][];
+    private final byte[] rowEnd;
+    private final byte[] nullValue;
+    private final byte[] trueValue = ascii("true");
+    private final byte[] falseValue = ascii("false");
+
+    /** Encoded enum values indexed by row code; index 0 is "not set". */
+    private final byte[][] ranks;
+    private final byte[][] weapons;
+    private final byte[][] helmets;
+    private final byte[][] skillSets = new byte[1 << SkillType.values().length][];
+
+    private final String[] cachedStrings = new String[CACHE_SLOTS];
+    private final byte[][] cachedBytes = new byte[CACHE_SLOTS][];
+
+    private RosterExporter(Path file, ExportFormat format) throws IOException {
+        this.format = format;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        boolean json = format == ExportFormat.NDJSON;
+        for (int c = 0; c < COLUMNS.length; c++) {
+            prefixes[c] = ascii(json ? (c == 0 ? "{" : ",") + "\"" + COLUMNS[c] + "\":" : (c == 0 ? "" : ","));
+        }
+        rowEnd = ascii(json ? "}\n" : "\n");
+        nullValue = ascii(json ? "null" : "");
+        ranks = enumTable(Rank.values());
+        weapons = enumTable(WeaponType.values());
+        helmets = enumTable(HelmetType.values());
+    }
+
+    /**
+     * Writes the whole roster to {@code file} and returns the number of soldier rows written.
+     */
+    public static long export(Path file, ExportFormat format, Map<String, Soldier> prototypes,
+                              List<Soldier> savedSoldiers, List<Battalion> battalions) throws IOException {
+        try (RosterExporter exporter = new RosterExporter(file, format)) {
+            exporter.writeHeader();
+            for (Map.Entry<String, Soldier> e : prototypes.entrySet()) {
+                exporter.writeRow("prototype", e.getKey(), exporter.row.set(e.getValue()));
+            }
+            for (Soldier soldier : savedSoldiers) {
+                exporter.writeRow("saved", null, exporter.row.set(soldier));
+            }
+            for (Battalion battalion : battalions) {
+                exporter.writeBattalion(battalion);
+            }
+            exporter.flush();
+            return exporter.rowsWritten;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ─── Rows ─────────────────────────────────────────────────────────────────
+
+    private void writeHeader() throws IOException {
+        if (format != ExportFormat.CSV) return;
+        for (int c = 0; c < COLUMNS.length; c++) {
+            put(prefixes[c]);
+            put(ascii(COLUMNS[c]));
+        }
+        put(rowEnd);
+    }
+
+    private void writeBattalion(Battalion battalion) throws IOException {
+        String id = battalion.getId();
+        try (Battalion.Pin pin = battalion.pin()) {
+            int size = battalion.getSize();
+            for (int i = 0; i < size; i++) {
+                battalion.readRow(i, row);
+                writeRow("battalion", id, row);
+            }
+        }
+    }
+
+    private void writeRow(String group, String key, SoldierRow r) throws IOException {
+        put(prefixes[0]);  string(group);
+        put(prefixes[1]);  string(key);
+        put(prefixes[2]);  string(r.getId());
+        put(prefixes[3]);  string(r.getName());
+        put(prefixes[4]);  string(r.getFaction());
+        put(prefixes[5]);  put(ranks[r.getRankCode()]);
+        put(prefixes[6]);  number(r.getHealth());
+        put(prefixes[7]);  number(r.getArmor());
+        put(prefixes[8]);  number(r.getSpeed());
+        put(prefixes[9]);  put(weapons[r.getPrimaryCode()]);
+        put(prefixes[10]); put(weapons[r.getSecondaryCode()]);
+        put(prefixes[11]); put(helmets[r.getHelmetCode()]);
+        put(prefixes[12]); put(skillSet(r.getSkillMask()));
+        put(prefixes[13]); put(r.isElite() ? trueValue : falseValue);
+        put(prefixes[14]); number(r.getCombatPower());
+        put(rowEnd);
+        rowsWritten++;
+    }
+
+    // ─── Encoding ─────────────────────────────────────────────────────────────
+
+    private void number(long value) throws IOException {
+        if (buf.remaining() < digits.length + 1) flush();
+        if (value < 0) {
+            buf.put((byte) '-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (n > 0) buf.put(digits[--n]);
+    }
+
+    private void string(String s) throws IOException {
+        if (s == null) {
+            put(nullValue);
+            return;
+        }
+        if (isPlain(s)) {
+            writePlain(s);
+            return;
+        }
+        if (s.length() > MAX_CACHED_LENGTH) {
+            put(encode(s));
+            return;
+        }
+        int slot = (s.hashCode() * 0x9E3779B9 >>> 22) & (CACHE_SLOTS - 1);
+        String cached = cachedStrings[slot];
+        if (cached != s && !s.equals(cached)) {
+            cachedStrings[slot] = s;
+            cachedBytes[slot] = encode(s);
+        }
+        put(cachedBytes[slot]);
+    }
+
+    /**
+     * True if {@code s} is printable ASCII that neither format needs to escape.
+     */
+    private static boolean isPlain(String s) {
+        if (s.length() > MAX_CACHED_LENGTH) return false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x20 || c > 0x7E || c == '"' || c == '\\' || c == ',') return false;
+        }
+        return true;
+    }
+
+    private void writePlain(String s) throws IOException {
+        if (buf.remaining() < s.length() + 2) flush();
+        boolean json = format == ExportFormat.NDJSON;
+        if (json) buf.put((byte) '"');
+        for (int i = 0; i < s.length(); i++) buf.put((byte) s.charAt(i));
+        if (json) buf.put((byte) '"');
+    }
+
+    /**
+     * Quotes and escapes a string for the current format and encodes it as UTF-8.
+     */
+    private byte[] encode(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        if (format == ExportFormat.NDJSON) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"'  -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                        else sb.append(c);
+                    }
+                }
+            }
+            sb.append('"');
+        } else if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+            sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+        } else {
+            sb.append(s);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[][] enumTable(Enum<?>[] values) {
+        byte[][] table = new byte[values.length + 1][];
+        table[0] = nullValue;
+        for (Enum<?> value : values) table[value.ordinal() + 1] = encode(value.name());
+        return table;
+    }
+
+    private byte[] skillSet(int mask) {
+        byte[] encoded = skillSets[mask];
+        if (encoded == null) {
+            boolean json = format == ExportFormat.NDJSON;
+            StringBuilder sb = new StringBuilder(json ? "[" : "");
+            boolean first = true;
+            for (SkillType skill : SkillType.values()) {
+                if ((mask & (1 << skill.ordinal())) == 0) continue;
+                if (!first) sb.append(json ? "," : "|");
+                sb.append(json ? "\"" + skill.name() + "\"" : skill.name());
+                first = false;
+            }
+            if (json) sb.append(']');
+            encoded = skillSets[mask] = ascii(sb.toString());
+        }
+        return encoded;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // ─── Output ───────────────────────────────────────────────────────────────
+
+    private void put(byte[] bytes) throws IOException {
+        if (buf.remaining() < bytes.length) {
+            flush();
+            if (bytes.length > buf.capacity()) {
+                ByteBuffer direct = ByteBuffer.wrap(bytes);
+                while (direct.hasRemaining()) channel.write(direct);
+                return;
+            }
+        }
+        buf.put(bytes);
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+}
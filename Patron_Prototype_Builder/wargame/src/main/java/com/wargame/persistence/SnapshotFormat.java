@@ -0,0 +1,92 @@
+package com.wargame.persistence;
+
+import com.wargame.model.SoldierRow;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary layout of a state snapshot.
+ *
+ * <pre>
+ * header     magic "WARGAME1", int version, int reserved,
+ *            long directoryOffset, long stringsOffset, long journalLsn,
+ *            int maxSoldierId, int maxBattalionId         (string indexes, -1 if none)
+ * data       battalion rows, one fixed-size record each, battalion after battalion
+ * directory  int savedCount,     savedCount records
+ *            int prototypeCount, per prototype: int key, int savedRef, [record if savedRef &lt; 0]
+ *            int battalionCount, per battalion: int id, int name, byte mode, int rows,
+ *                                               long dataOffset, long totalPower, int elite
+ * strings    int count, per string: int byteLength, UTF-8 bytes
+ * </pre>
+ *
+ * <p>Strings (ids of battalions, names, factions, prototype keys) are stored once in the
+ * string table and referenced by index; {@code -1} stands for {@code null}. All numbers are
+ * little-endian. {@code journalLsn} is the last {@link Journal} entry the snapshot already
+ * contains.</p>
+ */
+final class SnapshotFormat {
+
+    static final long MAGIC = 0x31454D4147524157L;   // "WARGAME1" read as little-endian
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 48;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /** Soldier ids are stored inline as this many ASCII bytes. */
+    static final int ID_BYTES = 8;
+
+    /**
+     * id[8] name:int faction:int health:short armor:short speed:short
+     * rank:byte primary:byte secondary:byte helmet:byte skills:byte elite:byte
+     */
+    static final int RECORD_SIZE = 28;
+
+    private SnapshotFormat() {}
+
+    static void writeRecord(ByteBuffer buf, SoldierRow row, int name, int faction) {
+        String id = row.getId();
+        if (id.length() > ID_BYTES) {
+            throw new IllegalStateException("Soldier id longer than " + ID_BYTES + " characters: " + id);
+        }
+        for (int i = 0; i < ID_BYTES; i++) buf.put(i < id.length() ? (byte) id.charAt(i) : 0);
+        buf.putInt(name);
+        buf.putInt(faction);
+        buf.putShort(toShort(row.getHealth()));
+        buf.putShort(toShort(row.getArmor()));
+        buf.putShort(toShort(row.getSpeed()));
+        buf.put((byte) row.getRankCode());
+        buf.put((byte) row.getPrimaryCode());
+        buf.put((byte) row.getSecondaryCode());
+        buf.put((byte) row.getHelmetCode());
+        buf.put((byte) row.getSkillMask());
+        buf.put((byte) (row.isElite() ? 1 : 0));
+    }
+
+    /**
+     * Decodes the record starting at absolute position {@code pos} into {@code row}.
+     */
+    static void readRecord(ByteBuffer buf, int pos, String[] strings, SoldierRow row) {
+        int idLength = 0;
+        while (idLength < ID_BYTES && buf.get(pos + idLength) != 0) idLength++;
+        byte[] id = new byte[idLength];
+        buf.get(pos, id);
+        row.set(new String(id, StandardCharsets.US_ASCII),
+                string(strings, buf.getInt(pos + 8)),
+                string(strings, buf.getInt(pos + 12)),
+                buf.getShort(pos + 16), buf.getShort(pos + 18), buf.getShort(pos + 20),
+                buf.get(pos + 22), buf.get(pos + 23), buf.get(pos + 24), buf.get(pos + 25),
+                buf.get(pos + 26) & 0xFF, buf.get(pos + 27) != 0);
+    }
+
+    static String string(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    private static short toShort(int value) {
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new IllegalStateException("Stat value out of snapshot range: " + value);
+        }
+        return (short) value;
+    }
+}
@@ -0,0 +1,330 @@
+package com.wargame.persistence;
+
+import com.wargame.enums.StorageMode;
+import com.wargame.model.Battalion;
+import com.wargame.model.Soldier;
+import com.wargame.model.SoldierRow;
+import com.wargame.model.SoldierStorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of the application state: prototypes, saved soldiers and battalions.
+ *
+ * <p>{@link #write} streams every row once through a large direct buffer and replaces the
+ * target file atomically. {@link #read} memory-maps the directory and string table and
+ * restores prototypes, saved soldiers and {@link StorageMode#LIST} battalions eagerly, while
+ * every other battalion is backed by a {@link MappedStorage} whose rows are only paged in
+ * when they are first read. Writing over a file that battalions are still mapped from is
+ * safe: they keep the replaced file's data. The file layout is described in
+ * {@link SnapshotFormat}.</p>
+ */
+public final class StateSnapshot {
+
+    private static final System.Logger LOG = System.getLogger("com.wargame.persistence");
+    private static final int BUFFER_SIZE = 4 << 20;
+
+    private final Map<String, Soldier> prototypes;
+    private final List<Soldier> savedSoldiers;
+    private final List<Battalion> battalions;
+    private final long journalLsn;
+
+    public StateSnapshot(Map<String, Soldier> prototypes, List<Soldier> savedSoldiers, List<Battalion> battalions) {
+        this(prototypes, savedSoldiers, battalions, 0);
+    }
+
+    /**
+     * @param journalLsn sequence number of the last {@link Journal} entry reflected in this state
+     */
+    public StateSnapshot(Map<String, Soldier> prototypes, List<Soldier> savedSoldiers,
+                         List<Battalion> battalions, long journalLsn) {
+        this.prototypes = prototypes;
+        this.savedSoldiers = savedSoldiers;
+        this.battalions = battalions;
+        this.journalLsn = journalLsn;
+    }
+
+    public Map<String, Soldier> getPrototypes()  { return prototypes; }
+    public List<Soldier> getSavedSoldiers()      { return savedSoldiers; }
+    public List<Battalion> getBattalions()       { return battalions; }
+    public long getJournalLsn()                  { return journalLsn; }
+
+    // ─── Writing ──────────────────────────────────────────────────────────────
+
+    /**
+     * Writes this snapshot to {@code file}, replacing any previous one.
+     */
+    public void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            new Writer(channel).writeAll();
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private final class Writer {
+
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE).order(SnapshotFormat.ORDER);
+        private final Map<String, Integer> stringIndex = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final SoldierRow row = new SoldierRow();
+        private long flushed;
+        private String maxSoldierId;
+        private String maxBattalionId;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeAll() throws IOException {
+            buf.position(SnapshotFormat.HEADER_SIZE);
+
+            long[] dataOffsets = new long[battalions.size()];
+            long[] totals = new long[battalions.size()];
+            int[] elites = new int[battalions.size()];
+            for (int b = 0; b < battalions.size(); b++) {
+                Battalion battalion = battalions.get(b);
+                if ((long) battalion.getSize() * SnapshotFormat.RECORD_SIZE > Integer.MAX_VALUE) {
+                    throw new IOException("Battalion '" + battalion.getName() + "' is too large for a snapshot region.");
+                }
+                dataOffsets[b] = position();
+                for (int i = 0; i < battalion.getSize(); i++) {
+                    battalion.readRow(i, row);
+                    writeRecord();
+                    totals[b] += row.getCombatPower();
+                    if (row.isElite()) elites[b]++;
+                }
+            }
+
+            long directoryOffset = position();
+            Map<Soldier, Integer> savedRefs = new IdentityHashMap<>();
+            putInt(savedSoldiers.size());
+            for (Soldier soldier : savedSoldiers) {
+                savedRefs.putIfAbsent(soldier, savedRefs.size());
+                row.set(soldier);
+                writeRecord();
+            }
+            putInt(prototypes.size());
+            for (Map.Entry<String, Soldier> e : prototypes.entrySet()) {
+                Integer ref = savedRefs.get(e.getValue());
+                putInt(intern(e.getKey()));
+                putInt(ref != null ? ref : -1);
+                if (ref == null) {
+                    row.set(e.getValue());
+                    writeRecord();
+                }
+            }
+            putInt(battalions.size());
+            for (int b = 0; b < battalions.size(); b++) {
+                Battalion battalion = battalions.get(b);
+                if (follows(battalion.getId(), maxBattalionId)) maxBattalionId = battalion.getId();
+                ensure(41);
+                buf.putInt(intern(battalion.getId()));
+                buf.putInt(intern(battalion.getName()));
+                buf.put((byte) battalion.getStorageMode().ordinal());
+                buf.putInt(battalion.getSize());
+                buf.putLong(dataOffsets[b]);
+                buf.putLong(totals[b]);
+                buf.putInt(elites[b]);
+            }
+
+            long stringsOffset = position();
+            int maxSoldier = maxSoldierId != null ? intern(maxSoldierId) : -1;
+            int maxBattalion = maxBattalionId != null ? intern(maxBattalionId) : -1;
+            putInt(strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                putInt(bytes.length);
+                for (int off = 0; off < bytes.length; ) {
+                    ensure(1);
+                    int n = Math.min(buf.remaining(), bytes.length - off);
+                    buf.put(bytes, off, n);
+                    off += n;
+                }
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.HEADER_SIZE).order(SnapshotFormat.ORDER);
+            header.putLong(SnapshotFormat.MAGIC).putInt(SnapshotFormat.VERSION).putInt(0)
+                  .putLong(directoryOffset).putLong(stringsOffset).putLong(journalLsn)
+                  .putInt(maxSoldier).putInt(maxBattalion).flip();
+            channel.write(header, 0);
+        }
+
+        private void writeRecord() throws IOException {
+            if (follows(row.getId(), maxSoldierId)) maxSoldierId = row.getId();
+            int name = intern(row.getName());
+            int faction = intern(row.getFaction());
+            ensure(SnapshotFormat.RECORD_SIZE);
+            SnapshotFormat.writeRecord(buf, row, name, faction);
+        }
+
+        /** Orders ids as the generators issue them: shorter first, then lexicographically. */
+        private boolean follows(String id, String max) {
+            if (max == null) return true;
+            return id.length() != max.length() ? id.length() > max.length() : id.compareTo(max) > 0;
+        }
+
+        private int intern(String s) {
+            if (s == null) return -1;
+            Integer index = stringIndex.get(s);
+            if (index == null) {
+                index = strings.size();
+                strings.add(s);
+                stringIndex.put(s, index);
+            }
+            return index;
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buf.putInt(value);
+        }
+
+        private long position() {
+            return flushed + buf.position();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buf.remaining() < bytes) flush();
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            if (flushed == 0) buf.position(0);
+            while (buf.hasRemaining()) flushed += channel.write(buf, flushed);
+            buf.clear();
+        }
+    }
+
+    // ─── Reading ──────────────────────────────────────────────────────────────
+
+    /**
+     * Reads a snapshot written by {@link #write}. Battalion rows other than those of
+     * {@link StorageMode#LIST} battalions stay in the file and are paged in lazily; the id
+     * generators are advanced past every restored id.
+     */
+    public static StateSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.HEADER_SIZE).order(SnapshotFormat.ORDER);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) { }
+            header.flip();
+            if (header.remaining() < SnapshotFormat.HEADER_SIZE || header.getLong() != SnapshotFormat.MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int version = header.getInt();
+            if (version != SnapshotFormat.VERSION) throw new IOException("Unsupported snapshot version " + version);
+            header.getInt();
+            long directoryOffset = header.getLong();
+            long stringsOffset = header.getLong();
+            long journalLsn = header.getLong();
+            int maxSoldier = header.getInt();
+            int maxBattalion = header.getInt();
+
+            MappedByteBuffer meta = channel.map(FileChannel.MapMode.READ_ONLY,
+                    directoryOffset, channel.size() - directoryOffset);
+            meta.order(SnapshotFormat.ORDER);
+
+            String[] strings = readStrings(meta, (int) (stringsOffset - directoryOffset));
+            if (maxSoldier >= 0)   Soldier.getIdGenerator().advancePast(strings[maxSoldier]);
+            if (maxBattalion >= 0) Battalion.getIdGenerator().advancePast(strings[maxBattalion]);
+
+            SoldierRow row = new SoldierRow();
+            List<Soldier> saved = new ArrayList<>();
+            int savedCount = meta.getInt();
+            for (int i = 0; i < savedCount; i++) saved.add(readSoldier(meta, strings, row));
+
+            Map<String, Soldier> prototypes = new LinkedHashMap<>();
+            int prototypeCount = meta.getInt();
+            for (int i = 0; i < prototypeCount; i++) {
+                String key = strings[meta.getInt()];
+                int ref = meta.getInt();
+                prototypes.put(key, ref >= 0 ? saved.get(ref) : readSoldier(meta, strings, row));
+            }
+
+            List<Battalion> battalions = new ArrayList<>();
+            StorageMode[] modes = StorageMode.values();
+            int battalionCount = meta.getInt();
+            for (int i = 0; i < battalionCount; i++) {
+                String id = strings[meta.getInt()];
+                String name = SnapshotFormat.string(strings, meta.getInt());
+                StorageMode mode = modes[meta.get()];
+                int rows = meta.getInt();
+                long dataOffset = meta.getLong();
+                long totalPower = meta.getLong();
+                int elite = meta.getInt();
+                MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY,
+                        dataOffset, (long) rows * SnapshotFormat.RECORD_SIZE);
+                data.order(SnapshotFormat.ORDER);
+                battalions.add(Battalion.restore(id, name, restoreRows(name, data, rows, strings, mode, totalPower, elite)));
+            }
+            return new StateSnapshot(prototypes, saved, battalions, journalLsn);
+        }
+    }
+
+    /**
+     * A {@link StorageMode#LIST} battalion hands out its soldiers as live rows, so its rows
+     * are copied into a list right away; every other mode hands out detached rows and stays
+     * in the file until it is first changed. {@link StorageMode#LAZY} rows have no prototypes
+     * left to share in a snapshot and become {@link StorageMode#COLUMNAR}.
+     */
+    private static SoldierStorage restoreRows(String name, MappedByteBuffer data, int rows, String[] strings,
+                                              StorageMode mode, long totalPower, int elite) {
+        if (mode == StorageMode.LIST) {
+            SoldierStorage list = SoldierStorage.create(StorageMode.LIST);
+            SoldierRow row = new SoldierRow();
+            Soldier[] soldiers = new Soldier[rows];
+            for (int i = 0; i < rows; i++) {
+                SnapshotFormat.readRecord(data, i * SnapshotFormat.RECORD_SIZE, strings, row);
+                soldiers[i] = row.toSoldier();
+            }
+            list.addAll(soldiers);
+            return list;
+        }
+        if (mode == StorageMode.LAZY) {
+            LOG.log(System.Logger.Level.INFO, "Battalion ''{0}'' was saved as {1}; restored as {2}",
+                    name, StorageMode.LAZY, StorageMode.COLUMNAR);
+            mode = StorageMode.COLUMNAR;
+        }
+        return new MappedStorage(data, rows, strings, mode, totalPower, elite);
+    }
+
+    private static Soldier readSoldier(ByteBuffer meta, String[] strings, SoldierRow row) {
+        SnapshotFormat.readRecord(meta, meta.position(), strings, row);
+        meta.position(meta.position() + SnapshotFormat.RECORD_SIZE);
+        return row.toSoldier();
+    }
+
+    private static String[] readStrings(ByteBuffer meta, int at) {
+        int pos = at;
+        String[] strings = new String[meta.getInt(pos)];
+        pos += 4;
+        byte[] scratch = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = meta.getInt(pos);
+            pos += 4;
+            if (length > scratch.length) scratch = new byte[length];
+            meta.get(pos, scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            pos += length;
+        }
+        return strings;
+    }
+}
@@ -1,26 +1,47 @@
 package com.wargame.ui;
 
+import com.wargame.enums.ExportFormat;
 import com.wargame.model.Battalion;
 import com.wargame.model.Soldier;
 import com.wargame.util.AppController;
+import com.wargame.util.ArmyChange;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Panel that displays all created battalions and lets the user inspect their soldiers.
  */
 public class BattalionOverviewPanel extends JPanel {
 
+    private static final String[] ORDERS = {"Orden de alta", "Poder ↓", "Poder ↑"};
+
     private final AppController controller;
 
     private JTable battalionTable;
-    private DefaultTableModel battalionModel;
+    private ListTableModel<Battalion> battalionModel;
     private JTable soldierTable;
-    private DefaultTableModel soldierModel;
+    private ListTableModel<Soldier> soldierModel;
     private JLabel battalionDetailLabel;
+    private JComboBox<String> orderCombo;
     private JLabel statsLabel;
+    private StyledButton exportBtn;
+
+    /** Battalion being written by the running export, if any. */
+    private Battalion exporting;
+
+    /** Battalion in the soldier table, and how many rows the table has been told about. */
+    private Battalion shown;
+    private int shownSize;
+
+    /** Battalion whose power index is being built in the background, if any. */
+    private Battalion indexing;
 
     public BattalionOverviewPanel(AppController controller) {
         this.controller = controller;
@@ -56,10 +77,13 @@ public class BattalionOverviewPanel extends JPanel {
         topLabel.setForeground(Theme.ACCENT_AMBER);
         topPanel.add(topLabel, BorderLayout.NORTH);
 
-        String[] bCols = {"ID", "Nombre", "Soldados", "Unidades Élite", "Poder Promedio", "Poder Total"};
-        battalionModel = new DefaultTableModel(bCols, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        battalionModel = new ListTableModel<Battalion>()
+                .column("ID", Battalion::getId)
+                .column("Nombre", Battalion::getName)
+                .column("Soldados", Battalion::getSize)
+                .column("Unidades Élite", Battalion::getEliteCount)
+                .column("Poder Promedio", Battalion::getAverageCombatPower)
+                .column("Poder Total", Battalion::getTotalCombatPower);
         battalionTable = new JTable(battalionModel);
         styleTable(battalionTable);
 
@@ -75,6 +99,9 @@ public class BattalionOverviewPanel extends JPanel {
         // Actions
         JPanel topActions = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
         topActions.setBackground(Theme.BG_PANEL);
+        exportBtn = new StyledButton("⬇ EXPORTAR BATALLÓN", StyledButton.Style.SECONDARY);
+        exportBtn.addActionListener(e -> exportBattalion());
+        topActions.add(exportBtn);
         StyledButton deleteBtn = new StyledButton("🗑 ELIMINAR BATALLÓN", StyledButton.Style.DANGER);
         deleteBtn.addActionListener(e -> deleteBattalion());
         topActions.add(deleteBtn);
@@ -90,12 +117,32 @@ public class BattalionOverviewPanel extends JPanel {
         battalionDetailLabel = new JLabel("SELECCIONA UN BATALLÓN PARA VER SUS SOLDADOS");
         battalionDetailLabel.setFont(Theme.FONT_HEAD);
         battalionDetailLabel.setForeground(Theme.ACCENT_AMBER);
-        bottomPanel.add(battalionDetailLabel, BorderLayout.NORTH);
-
-        String[] sCols = {"ID", "Nombre", "Rango", "Facción", "VP", "ARM", "VEL", "Arma Principal", "Casco", "Habilidades", "Élite", "Poder"};
-        soldierModel = new DefaultTableModel(sCols, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        orderCombo = new JComboBox<>(ORDERS);
+        orderCombo.setBackground(Theme.BG_CARD);
+        orderCombo.setForeground(Theme.TEXT_PRIMARY);
+        orderCombo.setFont(Theme.FONT_SMALL);
+        orderCombo.setBorder(BorderFactory.createLineBorder(Theme.BORDER));
+        orderCombo.addActionListener(e -> showBattalionDetail());
+
+        JPanel detailHeader = new JPanel(new BorderLayout(8, 0));
+        detailHeader.setBackground(Theme.BG_PANEL);
+        detailHeader.add(battalionDetailLabel, BorderLayout.CENTER);
+        detailHeader.add(orderCombo, BorderLayout.EAST);
+        bottomPanel.add(detailHeader, BorderLayout.NORTH);
+
+        soldierModel = new ListTableModel<Soldier>()
+                .column("ID", Soldier::getId)
+                .column("Nombre", Soldier::getName)
+                .column("Rango", s -> s.getRank() != null ? s.getRank().getTitle() : "-")
+                .column("Facción", Soldier::getFaction)
+                .column("VP", Soldier::getHealth)
+                .column("ARM", Soldier::getArmor)
+                .column("VEL", Soldier::getSpeed)
+                .column("Arma Principal", s -> s.getPrimaryWeapon() != null ? s.getPrimaryWeapon().getDisplayName() : "-")
+                .column("Casco", s -> s.getHelmet() != null ? s.getHelmet().getDisplayName() : "-")
+                .column("Habilidades", s -> s.getSkills().size())
+                .column("Élite", s -> s.isElite() ? "★" : "—")
+                .column("Poder", Soldier::calculateCombatPower);
         soldierTable = new JTable(soldierModel);
         styleTable(soldierTable);
 
@@ -117,64 +164,205 @@ public class BattalionOverviewPanel extends JPanel {
     // ─── Data Ops ─────────────────────────────────────────────────────────────
 
     public void refresh() {
-        battalionModel.setRowCount(0);
-        soldierModel.setRowCount(0);
-        battalionDetailLabel.setText("SELECCIONA UN BATALLÓN PARA VER SUS SOLDADOS");
-        statsLabel.setText("—");
+        clearDetail();
+        battalionModel.setRows(controller.getBattalions());
+    }
 
-        for (Battalion b : controller.getBattalions()) {
-            battalionModel.addRow(new Object[]{
-                    b.getId(),
-                    b.getName(),
-                    b.getSize(),
-                    b.getEliteCount(),
-                    b.getAverageCombatPower(),
-                    b.getTotalCombatPower()
-            });
+    /**
+     * Updates the battalion row named by {@code c}, and the soldier table if the battalion
+     * it shows has grown or gone, as soon as the change happens.
+     */
+    public void applyStructure(ArmyChange c) {
+        if (!c.isBattalionChange()) return;
+        int i = c.getIndex();
+        switch (c.getType()) {
+            case BATTALION_CREATED -> battalionModel.fireTableRowsInserted(i, i);
+            case BATTALION_REMOVED -> battalionModel.fireTableRowsDeleted(i, i);
+            default                -> battalionModel.fireTableRowsUpdated(i, i);
+        }
+        if (c.getBattalion() != shown) return;
+        if (c.getType() == ArmyChange.Type.BATTALION_REMOVED) {
+            clearDetail();
+            return;
+        }
+        int size = shown.getSize();
+        if (orderCombo.getSelectedIndex() == 0 && size > shownSize) soldierModel.fireTableRowsInserted(shownSize, size - 1);
+        else soldierModel.fireTableDataChanged();
+        shownSize = size;
+    }
+
+    /**
+     * Recomputes the stats line once per batch if the battalion shown has changed.
+     */
+    public void applyChanges(List<ArmyChange> changes) {
+        if (shown == null) return;
+        for (ArmyChange c : changes) {
+            if (c.getBattalion() == shown) {
+                showStats(shown);
+                return;
+            }
         }
     }
 
+    private void clearDetail() {
+        if (shown != null) shown.dropPowerIndex();
+        shown = null;
+        shownSize = 0;
+        soldierModel.setRows(List.of());
+        battalionDetailLabel.setText("SELECCIONA UN BATALLÓN PARA VER SUS SOLDADOS");
+        statsLabel.setText("—");
+    }
+
     private void showBattalionDetail() {
         int row = battalionTable.getSelectedRow();
         if (row < 0 || row >= controller.getBattalions().size()) return;
 
-        Battalion b = controller.getBattalions().get(row);
+        Battalion b = battalionModel.getRow(row);
         battalionDetailLabel.setText("SOLDADOS — " + b.getName().toUpperCase() + "  [" + b.getId() + "]");
 
-        soldierModel.setRowCount(0);
-        for (Soldier s : b.getSoldiers()) {
-            soldierModel.addRow(new Object[]{
-                    s.getId(),
-                    s.getName(),
-                    s.getRank() != null ? s.getRank().getTitle() : "-",
-                    s.getFaction(),
-                    s.getHealth(),
-                    s.getArmor(),
-                    s.getSpeed(),
-                    s.getPrimaryWeapon() != null ? s.getPrimaryWeapon().getDisplayName() : "-",
-                    s.getHelmet() != null ? s.getHelmet().getDisplayName() : "-",
-                    s.getSkills().size(),
-                    s.isElite() ? "★" : "—",                    s.calculateCombatPower()
-            });
+        // Power orders come from the battalion's order-statistics index, not a sort. The
+        // index is only kept while a power order is shown.
+        if (shown != null && shown != b) shown.dropPowerIndex();
+        int order = orderCombo.getSelectedIndex();
+        if (order == 0) b.dropPowerIndex();
+
+        shown = b;
+        shownSize = b.getSize();
+        if (order == 0) {
+            soldierModel.setRows(b.getSoldiers());
+        } else if (b.hasPowerIndex()) {
+            soldierModel.setRows(b.getSoldiersByPower(order == 1));
+        } else {
+            soldierModel.setRows(List.of());
+            indexByPower(b);
         }
+        showStats(b);
+    }
 
+    /**
+     * Builds {@code b}'s power index off the EDT and shows the power order once it is in
+     * place; starts over if the battalion changed during the build.
+     */
+    private void indexByPower(Battalion b) {
+        if (indexing == b) return;
+        indexing = b;
+        new SwingWorker<Battalion.PreparedPowerIndex, Void>() {
+            @Override
+            protected Battalion.PreparedPowerIndex doInBackground() {
+                return b.preparePowerIndex();
+            }
+
+            @Override
+            protected void done() {
+                if (indexing == b) indexing = null;
+                if (b != shown || orderCombo.getSelectedIndex() == 0) return;
+                try {
+                    if (b.installPowerIndex(get())) showBattalionDetail();
+                    else indexByPower(b);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    statsLabel.setText("No se pudo ordenar por poder: " + ex.getCause().getMessage());
+                } catch (RuntimeException ex) {
+                    statsLabel.setText("No se pudo ordenar por poder: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Median and P90 are only shown while the power index is there anyway; they are
+     * never worth indexing every row for.
+     */
+    private void showStats(Battalion b) {
+        String percentiles = !b.hasPowerIndex() ? (indexing == b ? "  |  Ordenando por poder…" : "")
+                : String.format("  |  Mediana: %d  |  P90: %d", b.getPowerPercentile(50), b.getPowerPercentile(90));
         statsLabel.setText(String.format(
-                "Total soldados: %d  |  Élite: %d  |  Poder promedio: %d  |  Poder total: %,d",
-                b.getSize(), b.getEliteCount(), b.getAverageCombatPower(), b.getTotalCombatPower()));
+                "Total soldados: %d  |  Élite: %d  |  Poder promedio: %d%s  |  Poder total: %,d",
+                b.getSize(), b.getEliteCount(), b.getAverageCombatPower(), percentiles, b.getTotalCombatPower()));
     }
 
     private void deleteBattalion() {
         int row = battalionTable.getSelectedRow();
         if (row < 0) return;
         Battalion b = controller.getBattalions().get(row);
+        if (b == exporting) {
+            JOptionPane.showMessageDialog(this, "El batallón '" + b.getName() + "' se está exportando.",
+                    "Eliminar", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
         int confirm = JOptionPane.showConfirmDialog(this,
                 "¿Eliminar el batallón '" + b.getName() + "'?", "Confirmar", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
             controller.removeBattalion(b);
-            refresh();
         }
     }
 
+    /**
+     * Writes the selected battalion to a file chosen by the user. The rows are streamed on a
+     * background thread; the battalion cannot be deleted until the export finishes, and one
+     * still being produced cannot be exported.
+     */
+    private void exportBattalion() {
+        int selected = battalionTable.getSelectedRow();
+        if (selected < 0 || exporting != null) return;
+        Battalion battalion = controller.getBattalions().get(selected);
+        if (controller.isBuilding(battalion)) {
+            // The rows are still being added on this thread while the export would read them
+            JOptionPane.showMessageDialog(this, "El batallón '" + battalion.getName() + "' todavía se está produciendo.",
+                    "Exportar", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        ExportFormat[] formats = ExportFormat.values();
+        FileNameExtensionFilter[] filters = new FileNameExtensionFilter[formats.length];
+        JFileChooser chooser = new JFileChooser();
+        chooser.setAcceptAllFileFilterUsed(false);
+        for (int i = 0; i < formats.length; i++) {
+            filters[i] = new FileNameExtensionFilter(formats[i].getDisplayName(), formats[i].getExtension());
+            chooser.addChoosableFileFilter(filters[i]);
+        }
+        chooser.setFileFilter(filters[0]);
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        ExportFormat chosen = formats[0];
+        for (int i = 0; i < formats.length; i++) {
+            if (chooser.getFileFilter() == filters[i]) chosen = formats[i];
+        }
+        Path chosenFile = chooser.getSelectedFile().toPath();
+        if (!chosenFile.getFileName().toString().contains(".")) {
+            chosenFile = chosenFile.resolveSibling(chosenFile.getFileName() + "." + chosen.getExtension());
+        }
+        Path file = chosenFile;
+        ExportFormat format = chosen;
+
+        exporting = battalion;
+        exportBtn.setEnabled(false);
+        new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws IOException {
+                return controller.exportBattalion(file, format, battalion);
+            }
+
+            @Override
+            protected void done() {
+                exporting = null;
+                exportBtn.setEnabled(true);
+                try {
+                    JOptionPane.showMessageDialog(BattalionOverviewPanel.this,
+                            String.format("Se exportaron %,d soldados de '%s' a %s", get(), battalion.getName(), file),
+                            "Exportar", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(BattalionOverviewPanel.this,
+                            "No se pudo exportar:\n" + ex.getCause().getMessage(),
+                            "Exportar", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     // ─── Styling ──────────────────────────────────────────────────────────────
 
     private void styleTable(JTable table) {
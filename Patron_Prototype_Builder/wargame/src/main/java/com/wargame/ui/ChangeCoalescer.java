@@ -0,0 +1,56 @@
+package com.wargame.ui;
+
+import com.wargame.util.ArmyChange;
+import com.wargame.util.ArmyListener;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hands controller changes to the UI: each one at once to keep the table models in step,
+ * and all of them as one batch per frame for the rest.
+ *
+ * <p>Table models read the controller's live lists, so they must hear about a row being
+ * inserted or deleted before anything repaints; {@code structure} gets every change as it
+ * happens. Everything else — totals, stats lines, the dashboard — is recomputed by
+ * {@code batch}: the first change after a flush arms a one-shot timer, and everything that
+ * arrives before it fires goes out in the same batch. A burst of thousands of changes
+ * therefore costs one recompute. Both run on the EDT; changes made on another thread are
+ * passed over to it.</p>
+ */
+final class ChangeCoalescer implements ArmyListener {
+
+    /** About one frame at 60 fps. */
+    private static final int FRAME_MILLIS = 16;
+
+    private final Consumer<ArmyChange> structure;
+    private final Consumer<List<ArmyChange>> batch;
+    private final Timer timer;
+    private List<ArmyChange> pending = new ArrayList<>();
+
+    ChangeCoalescer(Consumer<ArmyChange> structure, Consumer<List<ArmyChange>> batch) {
+        this.structure = structure;
+        this.batch = batch;
+        this.timer = new Timer(FRAME_MILLIS, e -> flush());
+        this.timer.setRepeats(false);
+    }
+
+    @Override
+    public void armyChanged(ArmyChange change) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> armyChanged(change));
+            return;
+        }
+        structure.accept(change);
+        pending.add(change);
+        if (pending.size() == 1) timer.start();
+    }
+
+    private void flush() {
+        List<ArmyChange> changes = pending;
+        pending = new ArrayList<>();
+        if (!changes.isEmpty()) batch.accept(changes);
+    }
+}
@@ -1,16 +1,27 @@
 package com.wargame.ui;
 
-import com.wargame.model.Battalion;
+import com.wargame.metrics.Counter;
+import com.wargame.metrics.LatencyHistogram;
+import com.wargame.metrics.Metrics;
 import com.wargame.util.AppController;
+import com.wargame.util.ArmyChange;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Dashboard panel showing high-level war room statistics.
  */
 public class DashboardPanel extends JPanel {
 
+    /** How often the metric cards are re-read while the dashboard is showing. */
+    private static final int METRICS_PERIOD_MILLIS = 1_000;
+
     private final AppController controller;
 
     private JLabel prototypesValue;
@@ -19,9 +30,17 @@ public class DashboardPanel extends JPanel {
     private JLabel totalPowerValue;
     private JTextArea logArea;
 
+    private JPanel metricsGrid;
+    /** Value labels of each metric card, by metric name. */
+    private final Map<String, JLabel[]> metricCards = new HashMap<>();
+    /** Event counts at the previous metrics tick, for the ops/s of the last interval. */
+    private final Map<String, Long> lastCounts = new HashMap<>();
+    private long lastTick = System.nanoTime();
+
     public DashboardPanel(AppController controller) {
         this.controller = controller;
         buildUi();
+        new Timer(METRICS_PERIOD_MILLIS, e -> { if (isShowing()) refreshMetrics(); }).start();
     }
 
     private void buildUi() {
@@ -52,7 +71,11 @@ public class DashboardPanel extends JPanel {
         cardsPanel.add(statCard("Total Soldados",    soldiersValue,   Theme.ACCENT_AMBER));
         cardsPanel.add(statCard("Poder Total",       totalPowerValue, Theme.ACCENT_RED));
 
-        add(cardsPanel, BorderLayout.CENTER);
+        JPanel center = new JPanel(new BorderLayout(0, 0));
+        center.setBackground(Theme.BG_PANEL);
+        center.add(cardsPanel, BorderLayout.NORTH);
+        center.add(buildMetricsArea(), BorderLayout.CENTER);
+        add(center, BorderLayout.CENTER);
 
         // Log / info area
         JPanel logPanel = new JPanel(new BorderLayout(0, 6));
@@ -83,6 +106,59 @@ public class DashboardPanel extends JPanel {
         add(logPanel, BorderLayout.SOUTH);
     }
 
+    private JPanel buildMetricsArea() {
+        JPanel area = new JPanel(new BorderLayout(0, 6));
+        area.setBackground(Theme.BG_PANEL);
+        area.setBorder(BorderFactory.createEmptyBorder(0, 24, 16, 24));
+
+        JPanel top = new JPanel(new BorderLayout());
+        top.setBackground(Theme.BG_PANEL);
+        JLabel label = new JLabel("MÉTRICAS DE RENDIMIENTO  (p50 / p99 / p999 · ops/s)");
+        label.setFont(Theme.FONT_HEAD);
+        label.setForeground(Theme.ACCENT_BLUE);
+        top.add(label, BorderLayout.WEST);
+        StyledButton dumpBtn = new StyledButton("⬇  Volcar Métricas", StyledButton.Style.SECONDARY);
+        dumpBtn.addActionListener(e -> dumpMetrics());
+        top.add(dumpBtn, BorderLayout.EAST);
+        area.add(top, BorderLayout.NORTH);
+
+        metricsGrid = new JPanel(new GridLayout(0, 4, 10, 10));
+        metricsGrid.setBackground(Theme.BG_PANEL);
+        JPanel holder = new JPanel(new BorderLayout());
+        holder.setBackground(Theme.BG_PANEL);
+        holder.add(metricsGrid, BorderLayout.NORTH);
+        JScrollPane scroll = new JScrollPane(holder);
+        scroll.setBorder(BorderFactory.createEmptyBorder());
+        scroll.getViewport().setBackground(Theme.BG_PANEL);
+        area.add(scroll, BorderLayout.CENTER);
+        return area;
+    }
+
+    private JLabel[] metricCard(String name) {
+        JPanel card = new JPanel(new GridLayout(3, 1, 0, 2));
+        card.setBackground(Theme.BG_CARD);
+        card.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Theme.BORDER),
+                BorderFactory.createEmptyBorder(8, 12, 8, 12)));
+
+        JLabel title = new JLabel(name);
+        title.setFont(Theme.FONT_SMALL);
+        title.setForeground(Theme.TEXT_SECONDARY);
+        JLabel latency = new JLabel("—");
+        latency.setFont(Theme.FONT_LABEL);
+        latency.setForeground(Theme.ACCENT_BLUE);
+        JLabel rate = new JLabel("—");
+        rate.setFont(Theme.FONT_SMALL);
+        rate.setForeground(Theme.TEXT_PRIMARY);
+
+        card.add(title);
+        card.add(latency);
+        card.add(rate);
+        metricsGrid.add(card);
+        metricsGrid.revalidate();
+        return new JLabel[]{ latency, rate };
+    }
+
     private JPanel statCard(String title, JLabel valueLabel, Color accent) {
         JPanel card = new JPanel(new BorderLayout()) {
             @Override protected void paintComponent(Graphics g) {
@@ -109,12 +185,14 @@ public class DashboardPanel extends JPanel {
         return card;
     }
 
+    /**
+     * Reads the controller's running totals; costs the same whatever the size of the army.
+     */
     public void refresh() {
         int prototypes = controller.getRegistry().getPrototypeCount();
         int battalions = controller.getBattalions().size();
-        int soldiers   = controller.getSavedSoldiers().size()
-                       + controller.getBattalions().stream().mapToInt(Battalion::getSize).sum();
-        int power      = controller.getBattalions().stream().mapToInt(Battalion::getTotalCombatPower).sum();
+        long soldiers  = controller.getSavedSoldiers().size() + controller.getArmySize();
+        long power     = controller.getArmyCombatPower();
 
         prototypesValue.setText(String.valueOf(prototypes));
         battalionsValue.setText(String.valueOf(battalions));
@@ -122,6 +200,66 @@ public class DashboardPanel extends JPanel {
         totalPowerValue.setText(String.format("%,d", power));
     }
 
+    /**
+     * Recomputes the cards once for a whole batch of changes.
+     */
+    public void applyChanges(List<ArmyChange> changes) {
+        refresh();
+    }
+
+    // ─── Metrics ──────────────────────────────────────────────────────────────
+
+    /**
+     * Re-reads every registered metric; a card is added the first time a metric shows up.
+     */
+    private void refreshMetrics() {
+        long now = System.nanoTime();
+        double seconds = Math.max(now - lastTick, 1) / 1e9;
+        lastTick = now;
+
+        for (LatencyHistogram timer : Metrics.timers()) {
+            LatencyHistogram.Snapshot s = timer.snapshot();
+            JLabel[] labels = metricCards.computeIfAbsent(timer.getName(), this::metricCard);
+            labels[0].setText(s.getCount() == 0 ? "—" : formatNanos(s.getPercentileNanos(50)) + " / "
+                    + formatNanos(s.getPercentileNanos(99)) + " / " + formatNanos(s.getPercentileNanos(99.9)));
+            labels[1].setText(String.format("%,d ops · %,.1f ops/s", s.getCount(),
+                    intervalRate(timer.getName(), s.getCount(), seconds)));
+        }
+        for (Counter counter : Metrics.counters()) {
+            long count = counter.get();
+            JLabel[] labels = metricCards.computeIfAbsent(counter.getName(), this::metricCard);
+            labels[0].setText(String.format("%,d", count));
+            labels[1].setText(String.format("%,.1f /s", intervalRate(counter.getName(), count, seconds)));
+        }
+    }
+
+    private double intervalRate(String name, long count, double seconds) {
+        Long previous = lastCounts.put(name, count);
+        return previous == null ? 0 : (count - previous) / seconds;
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000)         return nanos + " ns";
+        if (nanos < 1_000_000)     return String.format("%.1f µs", nanos / 1e3);
+        if (nanos < 1_000_000_000) return String.format("%.1f ms", nanos / 1e6);
+        return String.format("%.2f s", nanos / 1e9);
+    }
+
+    private void dumpMetrics() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("metrics.txt"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        try {
+            Metrics.dump(file.toPath());
+            JOptionPane.showMessageDialog(this, "Métricas guardadas en " + file, "Métricas",
+                    JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "No se pudieron guardar las métricas:\n" + ex.getMessage(),
+                    "Métricas", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     private String getPatternInfo() {
         return """
                 ═══════════════════════════════════════════════════════════════════════════
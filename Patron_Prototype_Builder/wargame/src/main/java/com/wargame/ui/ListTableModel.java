@@ -0,0 +1,64 @@
+package com.wargame.ui;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Read-only table model that reads its cells straight from a list of domain objects.
+ *
+ * <p>Nothing is copied: the table asks for the rows it paints, so a million-row battalion
+ * costs no more to show than ten. The list may be a lazy view — the item of the row being
+ * painted is fetched once and reused for its remaining cells. Fire the matching table
+ * event as soon as the list changes, before the table can ask for a row again: until then
+ * the row count and the cached item describe the old list.</p>
+ */
+class ListTableModel<T> extends AbstractTableModel {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Function<? super T, ?>> values = new ArrayList<>();
+    private List<? extends T> rows = List.of();
+
+    private int cachedRow = -1;
+    private T cachedItem;
+
+    /**
+     * Appends a column whose cells are computed from the row's item.
+     */
+    ListTableModel<T> column(String name, Function<? super T, ?> value) {
+        names.add(name);
+        values.add(value);
+        return this;
+    }
+
+    void setRows(List<? extends T> rows) {
+        this.rows = rows;
+        fireTableDataChanged();
+    }
+
+    T getRow(int row) {
+        if (row != cachedRow) {
+            cachedItem = rows.get(row);
+            cachedRow = row;
+        }
+        return cachedItem;
+    }
+
+    @Override public int getRowCount()                 { return rows.size(); }
+    @Override public int getColumnCount()              { return names.size(); }
+    @Override public String getColumnName(int column)  { return names.get(column); }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return values.get(column).apply(getRow(row));
+    }
+
+    @Override
+    public void fireTableChanged(TableModelEvent e) {
+        cachedRow = -1;
+        cachedItem = null;
+        super.fireTableChanged(e);
+    }
+}
@@ -1,33 +1,99 @@
 package com.wargame.ui;
 
+import com.wargame.metrics.LatencyHistogram;
+import com.wargame.metrics.Metrics;
+import com.wargame.metrics.Tracing;
+import com.wargame.metrics.UiRefreshEvent;
 import com.wargame.util.AppController;
+import com.wargame.util.ArmyChange;
 
 import javax.swing.*;
 import javax.swing.plaf.basic.BasicTabbedPaneUI;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Main application window — a tabbed JFrame that hosts all panels.
+ *
+ * <p>The window is shown before the saved state is loaded: loading (and seeding the
+ * default prototypes) runs off the EDT, and each tab's panel is only built the first time
+ * the tab is selected once the state is there.</p>
  */
 public class MainWindow extends JFrame {
 
-    private final AppController controller;
+    private static final LatencyHistogram BUILD_TAB_TIME   = Metrics.timer("ui.buildTab");
+    private static final LatencyHistogram DASHBOARD_TIME   = Metrics.timer("ui.dashboard.applyChanges");
+    private static final LatencyHistogram STRUCTURE_TIME   = Metrics.timer("ui.applyStructure");
+    private static final LatencyHistogram REGISTRY_TIME    = Metrics.timer("ui.registry.applyChanges");
+    private static final LatencyHistogram BATTALIONS_TIME  = Metrics.timer("ui.battalions.applyChanges");
 
+    private static final String[] TAB_TITLES = {
+            "  ☠  Panel de Control  ",
+            "  ⚙  Constructor de Soldado  ",
+            "  🧬  Registro de Prototipos  ",
+            "  🛡  Batallones  "
+    };
+
+    private final StartupLog startup;
+    private AppController controller;
+    /** Set when the saved state could not be read nor moved aside; saving would overwrite it. */
+    private boolean keepSavedState;
+    private JTabbedPane tabs;
+    private boolean painted;
+
+    // Built on first selection
     private DashboardPanel dashboardPanel;
     private SoldierBuilderPanel builderPanel;
     private PrototypeRegistryPanel registryPanel;
     private BattalionOverviewPanel battalionPanel;
 
-    public MainWindow() {
-        this.controller = new AppController();
+    private MainWindow(StartupLog startup) {
+        this.startup = startup;
         initWindow();
         buildUi();
-        refreshAll();
+        startup.mark("window built");
+    }
+
+    /**
+     * Starts loading the saved state in the background and opens the window meanwhile.
+     */
+    public static void launch() {
+        StartupLog startup = new StartupLog();
+        StateLoader loader = new StateLoader(startup);
+        // Queued before the loader can finish, so the window exists when done() runs on the EDT
+        SwingUtilities.invokeLater(() -> {
+            MainWindow window = new MainWindow(startup);
+            loader.window = window;
+            window.setVisible(true);
+        });
+        loader.execute();
+    }
+
+    private void saveController() {
+        if (controller == null || keepSavedState) return;
+        try {
+            controller.saveSnapshot(AppController.DEFAULT_SNAPSHOT);
+            controller.close();
+        } catch (IOException | RuntimeException e) {
+            JOptionPane.showMessageDialog(this,
+                    "No se pudo guardar el estado:\n" + e.getMessage(),
+                    "Estado guardado", JOptionPane.ERROR_MESSAGE);
+        }
     }
 
     private void initWindow() {
         setTitle("⚔  GUERRA — Sistema de Mando de Soldados  |  Builder + Prototype");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override public void windowClosing(WindowEvent e) {
+                saveController();
+            }
+        });
         setSize(1200, 780);
         setMinimumSize(new Dimension(900, 600));
         setLocationRelativeTo(null);
@@ -39,7 +105,7 @@ public class MainWindow extends JFrame {
     }
 
     private void buildUi() {
-        JTabbedPane tabs = new JTabbedPane(JTabbedPane.TOP);
+        tabs = new JTabbedPane(JTabbedPane.TOP);
         tabs.setBackground(Theme.BG_DARK);
         tabs.setForeground(Theme.TEXT_PRIMARY);
         tabs.setFont(Theme.FONT_LABEL);
@@ -62,22 +128,211 @@ public class MainWindow extends JFrame {
             @Override protected void paintContentBorder(Graphics g, int tabPlacement, int selectedIndex) {}
         });
 
-        dashboardPanel  = new DashboardPanel(controller);
-        builderPanel    = new SoldierBuilderPanel(controller, this::refreshAll);
-        registryPanel   = new PrototypeRegistryPanel(controller, this::refreshAll);
-        battalionPanel  = new BattalionOverviewPanel(controller);
-
-        tabs.addTab("  ☠  Panel de Control  ",   dashboardPanel);
-        tabs.addTab("  ⚙  Constructor de Soldado  ", builderPanel);
-        tabs.addTab("  🧬  Registro de Prototipos  ", registryPanel);
-        tabs.addTab("  🛡  Batallones  ",   battalionPanel);
+        for (String title : TAB_TITLES) tabs.addTab(title, placeholder());
+        tabs.addChangeListener(e -> showTab(tabs.getSelectedIndex()));
 
         setContentPane(tabs);
     }
 
-    private void refreshAll() {
-        dashboardPanel.refresh();
-        registryPanel.refresh();
-        battalionPanel.refresh();
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            startup.mark("first paint");
+            logStartup();
+        }
+    }
+
+    /**
+     * Logs the startup breakdown once the window has painted and the first tab is built.
+     */
+    private void logStartup() {
+        if (painted && controller != null) startup.log();
+    }
+
+    // ─── Lazy Tabs ────────────────────────────────────────────────────────────
+
+    private static JComponent placeholder() {
+        JLabel loading = new JLabel("Cargando…", JLabel.CENTER);
+        loading.setFont(Theme.FONT_HEAD);
+        loading.setForeground(Theme.TEXT_MUTED);
+        loading.setBackground(Theme.BG_PANEL);
+        loading.setOpaque(true);
+        return loading;
+    }
+
+    /**
+     * Takes over the loaded state and builds the tab on show.
+     */
+    private void stateLoaded(StateLoader loader, AppController loaded) {
+        controller = loaded;
+        keepSavedState = loader.keepSavedState;
+        controller.addListener(new ChangeCoalescer(this::applyStructure, this::applyChanges));
+        showTab(tabs.getSelectedIndex());
+        startup.mark("first tab ready");
+        logStartup();
+        if (loader.error != null) {
+            JOptionPane.showMessageDialog(this,
+                    "No se pudo cargar el estado guardado:\n" + loader.error.getMessage() + "\n\n" + loader.fallback,
+                    "Estado guardado", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    /**
+     * Builds the panel of tab {@code index} if it does not exist yet. A new panel reads the
+     * whole state once; from then on it only receives changes.
+     */
+    private void showTab(int index) {
+        if (controller == null || index < 0 || !(tabs.getComponentAt(index) instanceof JLabel)) return;
+        long start = System.nanoTime();
+        UiRefreshEvent event = beginRefresh();
+        JComponent panel = switch (index) {
+            case 0 -> {
+                dashboardPanel = new DashboardPanel(controller);
+                dashboardPanel.refresh();
+                yield dashboardPanel;
+            }
+            case 1 -> {
+                builderPanel = new SoldierBuilderPanel(controller);
+                builderPanel.refreshTable();
+                yield builderPanel;
+            }
+            case 2 -> {
+                registryPanel = new PrototypeRegistryPanel(controller);
+                registryPanel.refresh();
+                yield registryPanel;
+            }
+            default -> {
+                battalionPanel = new BattalionOverviewPanel(controller);
+                battalionPanel.refresh();
+                yield battalionPanel;
+            }
+        };
+        tabs.setComponentAt(index, panel);
+        BUILD_TAB_TIME.recordSince(start);
+        commit(event, "buildTab", 0);
+    }
+
+    /**
+     * Tells the table models of the panels built so far about a row that was just inserted
+     * into, deleted from or changed in the list they read.
+     */
+    private void applyStructure(ArmyChange change) {
+        long start = System.nanoTime();
+        if (builderPanel != null) builderPanel.applyStructure(change);
+        if (battalionPanel != null) battalionPanel.applyStructure(change);
+        STRUCTURE_TIME.recordSince(start);
+    }
+
+    /**
+     * Hands one frame's worth of controller changes to the panels built so far, which
+     * recompute what the changes touch.
+     */
+    private void applyChanges(List<ArmyChange> changes) {
+        UiRefreshEvent event = beginRefresh();
+        long start = System.nanoTime();
+        if (dashboardPanel != null) {
+            dashboardPanel.applyChanges(changes);
+            start = lap(DASHBOARD_TIME, start);
+        }
+        if (registryPanel != null) {
+            registryPanel.applyChanges(changes);
+            start = lap(REGISTRY_TIME, start);
+        }
+        if (battalionPanel != null) {
+            battalionPanel.applyChanges(changes);
+            lap(BATTALIONS_TIME, start);
+        }
+        commit(event, "applyChanges", changes.size());
+    }
+
+    /**
+     * Records the time since {@code start} and returns the end of the lap.
+     */
+    private static long lap(LatencyHistogram timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start);
+        return now;
+    }
+
+    /**
+     * Starts timing a refresh for JFR; {@code null} when {@link Tracing#JFR} is off.
+     */
+    private static UiRefreshEvent beginRefresh() {
+        if (!Tracing.JFR) return null;
+        UiRefreshEvent event = new UiRefreshEvent();
+        event.begin();
+        return event;
+    }
+
+    private void commit(UiRefreshEvent event, String operation, int changes) {
+        if (event == null || !event.shouldCommit()) return;
+        event.operation = operation;
+        event.changes = changes;
+        event.battalions = controller.getBattalions().size();
+        event.commit();
+    }
+
+    // ─── Background Loading ───────────────────────────────────────────────────
+
+    /**
+     * Restores the last saved state and its journal off the EDT. When they cannot be read
+     * they are moved aside and a fresh state (with the default prototypes) starts in their
+     * place; if even that fails, the window works without a journal and never saves over
+     * the old files.
+     */
+    private static final class StateLoader extends SwingWorker<AppController, Void> {
+
+        private final StartupLog startup;
+        private MainWindow window;
+        private Exception error;
+        private String fallback;
+        private boolean keepSavedState;
+
+        StateLoader(StartupLog startup) {
+            this.startup = startup;
+        }
+
+        @Override
+        protected AppController doInBackground() {
+            long start = System.nanoTime();
+            AppController controller;
+            try {
+                controller = AppController.recover(AppController.DEFAULT_SNAPSHOT, AppController.DEFAULT_JOURNAL);
+            } catch (IOException | RuntimeException e) {
+                error = e;
+                controller = startFresh();
+            }
+            startup.span("state loaded off EDT", start);
+            return controller;
+        }
+
+        private AppController startFresh() {
+            try {
+                List<Path> moved = AppController.setAside(AppController.DEFAULT_SNAPSHOT, AppController.DEFAULT_JOURNAL);
+                fallback = moved.isEmpty() ? "Se empieza con un estado nuevo."
+                        : "Se apartó como:\n" + moved.stream().map(Path::toString).collect(Collectors.joining("\n"));
+                return AppController.recover(AppController.DEFAULT_SNAPSHOT, AppController.DEFAULT_JOURNAL);
+            } catch (IOException | RuntimeException e) {
+                keepSavedState = true;
+                fallback = "No se pudo apartar (" + e.getMessage() + "); los cambios de esta sesión no se guardarán.";
+                return new AppController();
+            }
+        }
+
+        @Override
+        protected void done() {
+            AppController controller;
+            try {
+                controller = get();
+            } catch (Exception ex) {
+                error = ex;
+                keepSavedState = true;
+                fallback = "Los cambios de esta sesión no se guardarán.";
+                controller = new AppController();
+            }
+            window.stateLoaded(this, controller);
+        }
     }
 }
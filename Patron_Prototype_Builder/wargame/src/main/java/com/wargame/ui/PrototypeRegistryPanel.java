@@ -1,11 +1,17 @@
 package com.wargame.ui;
 
+import com.wargame.factory.BattalionBuild;
+import com.wargame.factory.SoldierRegistry;
+import com.wargame.model.Battalion;
 import com.wargame.model.Soldier;
 import com.wargame.util.AppController;
+import com.wargame.util.ArmyChange;
 
 import javax.swing.*;
 import javax.swing.table.*;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -14,18 +20,23 @@ import java.util.Map;
  */
 public class PrototypeRegistryPanel extends JPanel {
 
+    /** Clones produced per background step; small enough to add on the EDT within a frame. */
+    private static final int BUILD_CHUNK = 16_384;
+
     private final AppController controller;
-    private final Runnable onChanged;
 
     private JTable protoTable;
-    private DefaultTableModel tableModel;
+    private ListTableModel<Map.Entry<String, Soldier>> tableModel;
     private JSpinner cloneCountSpinner;
     private JTextField battalionNameField;
     private JLabel statusLabel;
+    private JProgressBar buildProgress;
+    private StyledButton cancelBuildBtn;
+    private long shownVersion = -1;
+    private BattalionJob job;
 
-    public PrototypeRegistryPanel(AppController controller, Runnable onChanged) {
+    public PrototypeRegistryPanel(AppController controller) {
         this.controller = controller;
-        this.onChanged  = onChanged;
         buildUi();
     }
 
@@ -43,10 +54,15 @@ public class PrototypeRegistryPanel extends JPanel {
         add(header, BorderLayout.NORTH);
 
         // Table
-        String[] columns = {"Clave Prototipo", "Nombre", "Rango", "Arma Principal", "Casco", "Habilidades", "Élite", "Poder"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        tableModel = new ListTableModel<Map.Entry<String, Soldier>>()
+                .column("Clave Prototipo", Map.Entry::getKey)
+                .column("Nombre", e -> e.getValue().getName())
+                .column("Rango", e -> e.getValue().getRank() != null ? e.getValue().getRank().getTitle() : "-")
+                .column("Arma Principal", e -> e.getValue().getPrimaryWeapon() != null ? e.getValue().getPrimaryWeapon().getDisplayName() : "-")
+                .column("Casco", e -> e.getValue().getHelmet() != null ? e.getValue().getHelmet().getDisplayName() : "-")
+                .column("Habilidades", e -> e.getValue().getSkills().size() + " habilidades")
+                .column("Élite", e -> e.getValue().isElite() ? "★ ELITE" : "—")
+                .column("Poder", e -> e.getValue().calculateCombatPower());
 
         protoTable = new JTable(tableModel);
         styleTable(protoTable);
@@ -75,7 +91,7 @@ public class PrototypeRegistryPanel extends JPanel {
         gc.gridx = 2;
         actionsPanel.add(labelOf("Cantidad de Clones:"), gc);
         gc.gridx = 3;
-        cloneCountSpinner = darkSpinner(5, 1, 200);
+        cloneCountSpinner = darkSpinner(5, 1, 10_000_000);
         actionsPanel.add(cloneCountSpinner, gc);
 
         gc.gridx = 4;
@@ -100,6 +116,24 @@ public class PrototypeRegistryPanel extends JPanel {
         statusLabel.setForeground(Theme.TEXT_SECONDARY);
         actionsPanel.add(statusLabel, gc);
 
+        // Row 3 — Background production progress
+        gc.gridy = 2; gc.gridx = 0; gc.gridwidth = 4;
+        gc.fill = GridBagConstraints.HORIZONTAL;
+        buildProgress = new JProgressBar(0, 100);
+        buildProgress.setStringPainted(true);
+        buildProgress.setString("");
+        buildProgress.setFont(Theme.FONT_SMALL);
+        buildProgress.setForeground(Theme.ACCENT_GREEN);
+        buildProgress.setBackground(Theme.BG_CARD);
+        actionsPanel.add(buildProgress, gc);
+
+        gc.gridx = 4; gc.gridwidth = 1;
+        gc.fill = GridBagConstraints.NONE;
+        cancelBuildBtn = new StyledButton("✖ CANCELAR", StyledButton.Style.DANGER);
+        cancelBuildBtn.setEnabled(false);
+        cancelBuildBtn.addActionListener(e -> { if (job != null) job.cancel(false); });
+        actionsPanel.add(cancelBuildBtn, gc);
+
         add(actionsPanel, BorderLayout.SOUTH);
 
         refresh();
@@ -108,36 +142,43 @@ public class PrototypeRegistryPanel extends JPanel {
     // ─── Data refresh ─────────────────────────────────────────────────────────
 
     public void refresh() {
-        tableModel.setRowCount(0);
-        for (Map.Entry<String, Soldier> entry : controller.getRegistry().getAllPrototypes().entrySet()) {
-            Soldier s = entry.getValue();
-            tableModel.addRow(new Object[]{
-                    entry.getKey(),
-                    s.getName(),
-                    s.getRank() != null ? s.getRank().getTitle() : "-",
-                    s.getPrimaryWeapon() != null ? s.getPrimaryWeapon().getDisplayName() : "-",
-                    s.getHelmet() != null ? s.getHelmet().getDisplayName() : "-",
-                    s.getSkills().size() + " habilidades",
-                    s.isElite() ? "★ ELITE" : "—",
-                    s.calculateCombatPower()
-            });
-        }
+        SoldierRegistry.Snapshot snapshot = controller.getRegistry().snapshot();
+        if (snapshot.getVersion() == shownVersion) return;
+        shownVersion = snapshot.getVersion();
+        // Registry snapshots never change, so the entry list stays valid until the next version
+        tableModel.setRows(new ArrayList<>(snapshot.getPrototypes().entrySet()));
+    }
+
+    /**
+     * Reloads the table only if {@code changes} touch the registry.
+     */
+    public void applyChanges(List<ArmyChange> changes) {
+        if (changes.stream().anyMatch(ArmyChange::isPrototypeChange)) refresh();
     }
 
     // ─── Actions ──────────────────────────────────────────────────────────────
 
+    /**
+     * Produces the battalion in the background; several selected prototypes give a mixed one.
+     */
     private void createBattalion() {
-        String key = getSelectedKey();
-        if (key == null) return;
+        if (job != null) { showError("Ya hay un batallón en producción."); return; }
+        int[] rows = protoTable.getSelectedRows();
+        if (rows.length == 0) { showError("Por favor selecciona un prototipo de la tabla."); return; }
+        String[] keys = new String[rows.length];
+        for (int i = 0; i < rows.length; i++) keys[i] = tableModel.getRow(rows[i]).getKey();
 
         String name  = battalionNameField.getText().trim();
         int    count = (int) cloneCountSpinner.getValue();
 
         if (name.isEmpty()) { showError("Ingresa un nombre para el batallón."); return; }
 
-        controller.createBattalion(name, key, count);
-        setStatus("✓ Batallón '" + name + "' creado con " + count + " clones de [" + key + "]", Theme.ACCENT_GREEN);
-        onChanged.run();
+        job = new BattalionJob(controller.startBattalion(name, keys, count));
+        buildProgress.setValue(0);
+        buildProgress.setString("0 / " + count);
+        cancelBuildBtn.setEnabled(true);
+        setStatus("⏳ Produciendo batallón '" + name + "'...", Theme.ACCENT_AMBER);
+        job.execute();
     }
 
     private void cloneSelected() {
@@ -148,9 +189,7 @@ public class PrototypeRegistryPanel extends JPanel {
         // Register the clone as a new prototype with a modified key
         String newKey = key + " #clone-" + clone.getId();
         controller.registerAsPrototype(newKey, clone);
-        refresh();
         setStatus("✓ Clonado → guardado como prototipo: " + newKey, Theme.ACCENT_GREEN);
-        onChanged.run();
     }
 
     private void removeSelected() {
@@ -160,16 +199,68 @@ public class PrototypeRegistryPanel extends JPanel {
                 "¿Eliminar el prototipo '" + key + "'?", "Confirmar", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
             controller.removePrototype(key);
-            refresh();
             setStatus("✓ Prototipo eliminado: " + key, Theme.ACCENT_AMBER);
-            onChanged.run();
         }
     }
 
     private String getSelectedKey() {
         int row = protoTable.getSelectedRow();
         if (row < 0) { showError("Por favor selecciona un prototipo de la tabla."); return null; }
-        return (String) tableModel.getValueAt(row, 0);
+        return tableModel.getRow(row).getKey();
+    }
+
+    // ─── Background production ────────────────────────────────────────────────
+
+    /**
+     * Clones chunks off the EDT and adds them to the battalion on the EDT, so the
+     * battalion is only ever touched by one thread.
+     */
+    private final class BattalionJob extends SwingWorker<Void, Soldier[]> {
+
+        private final BattalionBuild build;
+
+        BattalionJob(BattalionBuild build) {
+            this.build = build;
+        }
+
+        @Override
+        protected Void doInBackground() {
+            while (!isCancelled() && !build.isDone()) publish(build.nextChunk(BUILD_CHUNK));
+            return null;
+        }
+
+        @Override
+        protected void process(List<Soldier[]> chunks) {
+            if (isCancelled()) return;
+            Battalion battalion = build.getBattalion();
+            if (!controller.getBattalions().contains(battalion)) {
+                cancel(false);
+                return;
+            }
+            for (Soldier[] chunk : chunks) controller.addSoldiers(battalion, chunk);
+            buildProgress.setValue((int) (100L * battalion.getSize() / build.getCount()));
+            buildProgress.setString(String.format("%,d / %,d", battalion.getSize(), build.getCount()));
+        }
+
+        @Override
+        protected void done() {
+            job = null;
+            cancelBuildBtn.setEnabled(false);
+            Battalion battalion = build.getBattalion();
+            try {
+                if (!isCancelled()) get();
+            } catch (Exception ex) {
+                showError("No se pudo producir el batallón: " + ex.getMessage());
+            }
+            controller.finishBattalion(build);
+            if (isCancelled()) {
+                setStatus(String.format("✖ Producción cancelada: '%s' con %,d de %,d clones",
+                        battalion.getName(), battalion.getSize(), build.getCount()), Theme.ACCENT_AMBER);
+            } else {
+                setStatus(String.format("✓ Batallón '%s' creado con %,d clones de %s",
+                        battalion.getName(), battalion.getSize(), String.join(", ", build.getKeys())), Theme.ACCENT_GREEN);
+            }
+        }
     }
 
     // ─── Helpers ──────────────────────────────────────────────────────────────
@@ -213,7 +304,7 @@ public class PrototypeRegistryPanel extends JPanel {
 
     private JSpinner darkSpinner(int value, int min, int max) {
         JSpinner s = new JSpinner(new SpinnerNumberModel(value, min, max, 1));
-        s.setPreferredSize(new Dimension(70, 28));
+        s.setPreferredSize(new Dimension(100, 28));
         JComponent editor = s.getEditor();
         if (editor instanceof JSpinner.DefaultEditor de) {
             de.getTextField().setBackground(Theme.BG_CARD);
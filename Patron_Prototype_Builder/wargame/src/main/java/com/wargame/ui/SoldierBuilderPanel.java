@@ -3,9 +3,9 @@ package com.wargame.ui;
 import com.wargame.enums.*;
 import com.wargame.model.Soldier;
 import com.wargame.util.AppController;
+import com.wargame.util.ArmyChange;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.util.ArrayList;
@@ -18,7 +18,6 @@ import java.util.List;
 public class SoldierBuilderPanel extends JPanel {
 
     private final AppController controller;
-    private final Runnable onSoldierCreated;
 
     // ─── Form fields ──────────────────────────────────────────────────────────
     private JTextField nameField;
@@ -37,11 +36,10 @@ public class SoldierBuilderPanel extends JPanel {
 
     // ─── Saved soldiers table ─────────────────────────────────────────────────
     private JTable savedTable;
-    private DefaultTableModel savedModel;
+    private ListTableModel<Soldier> savedModel;
 
-    public SoldierBuilderPanel(AppController controller, Runnable onSoldierCreated) {
+    public SoldierBuilderPanel(AppController controller) {
         this.controller = controller;
-        this.onSoldierCreated = onSoldierCreated;
         buildUi();
     }
 
@@ -207,10 +205,18 @@ public class SoldierBuilderPanel extends JPanel {
         sectionLabel.setBorder(BorderFactory.createEmptyBorder(8, 12, 8, 12));
         panel.add(sectionLabel, BorderLayout.NORTH);
 
-        String[] cols = {"ID", "Nombre", "Rango", "Facción", "VP", "ARM", "VEL", "Arma", "Habilidades", "Élite", "Poder"};
-        savedModel = new DefaultTableModel(cols, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        savedModel = new ListTableModel<Soldier>()
+                .column("ID", Soldier::getId)
+                .column("Nombre", Soldier::getName)
+                .column("Rango", s -> s.getRank() != null ? s.getRank().getTitle() : "-")
+                .column("Facción", Soldier::getFaction)
+                .column("VP", Soldier::getHealth)
+                .column("ARM", Soldier::getArmor)
+                .column("VEL", Soldier::getSpeed)
+                .column("Arma", s -> s.getPrimaryWeapon() != null ? s.getPrimaryWeapon().getDisplayName() : "-")
+                .column("Habilidades", s -> s.getSkills().size() + " hab.")
+                .column("Élite", s -> s.isElite() ? "★" : "—")
+                .column("Poder", Soldier::calculateCombatPower);
 
         savedTable = new JTable(savedModel);
         styleTable(savedTable);
@@ -271,9 +277,6 @@ public class SoldierBuilderPanel extends JPanel {
                 showSuccess("✓ Soldado [" + soldier.getId() + "] guardado — PODER: " + soldier.calculateCombatPower());
             }
 
-            refreshTable();
-            onSoldierCreated.run();
-
         } catch (Exception ex) {
             showError(ex.getMessage());
         }
@@ -290,7 +293,6 @@ public class SoldierBuilderPanel extends JPanel {
 
         controller.registerAsPrototype(key.trim(), soldier);
         showSuccess("✓ Prototipo \"" + key.trim() + "\" guardado en el registro.");
-        onSoldierCreated.run();
     }
 
     private void deleteSelected() {
@@ -303,31 +305,23 @@ public class SoldierBuilderPanel extends JPanel {
                 "Confirmar eliminación", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
             controller.removeSoldier(soldier);
-            refreshTable();
             showSuccess("✓ Soldado eliminado correctamente.");
-            onSoldierCreated.run();
         }
     }
 
     // ─── Table refresh ────────────────────────────────────────────────────────
 
     public void refreshTable() {
-        savedModel.setRowCount(0);
-        for (Soldier s : controller.getSavedSoldiers()) {
-            savedModel.addRow(new Object[]{
-                    s.getId(),
-                    s.getName(),
-                    s.getRank() != null ? s.getRank().getTitle() : "-",
-                    s.getFaction(),
-                    s.getHealth(),
-                    s.getArmor(),
-                    s.getSpeed(),
-                    s.getPrimaryWeapon() != null ? s.getPrimaryWeapon().getDisplayName() : "-",
-                    s.getSkills().size() + " hab.",
-                    s.isElite() ? "★" : "—",
-                    s.calculateCombatPower()
-            });
-        }
+        savedModel.setRows(controller.getSavedSoldiers());
+    }
+
+    /**
+     * Inserts or deletes the saved-soldier row named by {@code c}, as soon as the list changes.
+     */
+    public void applyStructure(ArmyChange c) {
+        if (!c.isSoldierChange()) return;
+        if (c.getType() == ArmyChange.Type.SOLDIER_SAVED) savedModel.fireTableRowsInserted(c.getIndex(), c.getIndex());
+        else                                                savedModel.fireTableRowsDeleted(c.getIndex(), c.getIndex());
     }
 
     // ─── UI Helpers ───────────────────────────────────────────────────────────
@@ -0,0 +1,42 @@
+package com.wargame.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the milestones of one window startup and logs them as a single line.
+ *
+ * <p>Times are measured from the creation of the log, i.e. from the launch of the window,
+ * and milestones may be recorded from any thread.</p>
+ */
+final class StartupLog {
+
+    private static final System.Logger LOG = System.getLogger("com.wargame.startup");
+
+    private final long start = System.nanoTime();
+    private final List<String> phases = new ArrayList<>();
+    private boolean logged;
+
+    /**
+     * Records that {@code phase} was reached now.
+     */
+    synchronized void mark(String phase) {
+        phases.add(String.format("%s %.1f ms", phase, (System.nanoTime() - start) / 1e6));
+    }
+
+    /**
+     * Records how long a phase that started at {@code startNanos} took, e.g. one run off the EDT.
+     */
+    synchronized void span(String phase, long startNanos) {
+        phases.add(String.format("%s %.1f ms", phase, (System.nanoTime() - startNanos) / 1e6));
+    }
+
+    /**
+     * Logs the milestones recorded so far; later calls do nothing.
+     */
+    synchronized void log() {
+        if (logged) return;
+        logged = true;
+        LOG.log(System.Logger.Level.INFO, "Startup: " + String.join(", ", phases));
+    }
+}
@@ -2,13 +2,30 @@ package com.wargame.util;
 
 import com.wargame.builder.SoldierBuilder;
 import com.wargame.enums.*;
+import com.wargame.factory.BattalionBuild;
 import com.wargame.factory.BattalionFactory;
 import com.wargame.factory.SoldierRegistry;
+import com.wargame.metrics.ArmyMutationEvent;
+import com.wargame.metrics.Tracing;
 import com.wargame.model.Battalion;
+import com.wargame.model.BattalionListener;
 import com.wargame.model.Soldier;
+import com.wargame.persistence.Journal;
+import com.wargame.persistence.JournalHandler;
+import com.wargame.persistence.RosterExporter;
+import com.wargame.persistence.StateSnapshot;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Application controller that wires together the Builder, Prototype, and Factory
@@ -16,17 +33,51 @@ import java.util.List;
  */
 public class AppController {
 
+    /** Where the window saves its state on exit and restores it on startup. */
+    public static final Path DEFAULT_SNAPSHOT =
+            Paths.get(System.getProperty("user.home"), ".wargame", "state.snapshot");
+
+    /** Journal of the mutations made since {@link #DEFAULT_SNAPSHOT} was written. */
+    public static final Path DEFAULT_JOURNAL =
+            Paths.get(System.getProperty("user.home"), ".wargame", "state.journal");
+
     private final SoldierRegistry registry;
     private final BattalionFactory factory;
     private final List<Battalion> battalions;
     private final List<Soldier> savedSoldiers;
+    private Journal journal;
+
+    /** Battalions from {@link #startBattalion} that have not been finished yet. */
+    private final Set<Battalion> building = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<ArmyListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Army-wide totals over the listed battalions, fed by each battalion's running totals
+    private long armySize;
+    private long armyPower;
+    private long armyElite;
+    private final BattalionListener totals = (battalion, soldiers, power, elite) -> {
+        armySize  += soldiers;
+        armyPower += power;
+        armyElite += elite;
+    };
 
     public AppController() {
+        this(true);
+    }
+
+    /**
+     * Creates a controller with no prototypes, saved soldiers or battalions.
+     */
+    public static AppController empty() {
+        return new AppController(false);
+    }
+
+    private AppController(boolean seed) {
         this.registry       = new SoldierRegistry();
         this.factory        = new BattalionFactory(registry);
         this.battalions     = new ArrayList<>();
         this.savedSoldiers  = new ArrayList<>();
-        seedDefaultPrototypes();
+        if (seed) seedDefaultPrototypes();
     }
 
     // ─── Seeding ──────────────────────────────────────────────────────────────
@@ -111,21 +162,36 @@ public class AppController {
     // ─── Soldier Storage ──────────────────────────────────────────────────────
 
     public void saveSoldier(Soldier soldier) {
+        ArmyMutationEvent event = beginMutation();
         savedSoldiers.add(soldier);
+        if (journal != null) journal.logSaveSoldier(soldier);
+        fire(ArmyChange.soldier(ArmyChange.Type.SOLDIER_SAVED, soldier, savedSoldiers.size() - 1), event);
     }
 
     public void removeSoldier(Soldier soldier) {
-        savedSoldiers.remove(soldier);
+        ArmyMutationEvent event = beginMutation();
+        int index = savedSoldiers.indexOf(soldier);
+        if (index < 0) return;
+        savedSoldiers.remove(index);
+        if (journal != null) journal.logRemoveSoldier(soldier.getId());
+        fire(ArmyChange.soldier(ArmyChange.Type.SOLDIER_REMOVED, soldier, index), event);
     }
 
     // ─── Registry Operations ──────────────────────────────────────────────────
 
     public void registerAsPrototype(String key, Soldier soldier) {
+        ArmyMutationEvent event = beginMutation();
         registry.registerPrototype(key, soldier);
+        if (journal != null) journal.logRegisterPrototype(key, soldier);
+        fire(ArmyChange.prototypeAdded(key, soldier), event);
     }
 
     public void removePrototype(String key) {
+        ArmyMutationEvent event = beginMutation();
+        if (!registry.hasPrototype(key)) return;
         registry.removePrototype(key);
+        if (journal != null) journal.logRemovePrototype(key);
+        fire(ArmyChange.prototypeRemoved(key), event);
     }
 
     public Soldier cloneSoldier(String prototypeKey) {
@@ -135,19 +201,375 @@ public class AppController {
     // ─── Battalion Operations ─────────────────────────────────────────────────
 
     public Battalion createBattalion(String name, String prototypeKey, int count) {
-        Battalion battalion = factory.createBattalion(name, prototypeKey, count);
-        battalions.add(battalion);
+        return createBattalion(name, prototypeKey, count, StorageMode.LIST);
+    }
+
+    public Battalion createBattalion(String name, String prototypeKey, int count, StorageMode mode) {
+        ArmyMutationEvent event = beginMutation();
+        if (event != null) event.prototypeKey = prototypeKey;
+        ReservedIds soldierIds = Soldier.getIdGenerator().reserve(Math.max(count, 0));
+        Battalion battalion = factory.createBattalion(name, prototypeKey, count, mode, soldierIds);
+        list(battalion);
+        if (journal != null) {
+            journal.logCreateBattalion(battalion.getId(), firstId(soldierIds, count), name, prototypeKey, count,
+                    battalion.getStorageMode());
+        }
+        fire(ArmyChange.battalion(ArmyChange.Type.BATTALION_CREATED, battalion, battalions.size() - 1), event);
         return battalion;
     }
 
     public Battalion createMixedBattalion(String name, String[] keys, int count) {
-        Battalion battalion = factory.createMixedBattalion(name, keys, count);
-        battalions.add(battalion);
+        return createMixedBattalion(name, keys, count, StorageMode.LIST);
+    }
+
+    public Battalion createMixedBattalion(String name, String[] keys, int count, StorageMode mode) {
+        ArmyMutationEvent event = beginMutation();
+        if (event != null) event.prototypeKey = String.join(",", keys);
+        ReservedIds soldierIds = Soldier.getIdGenerator().reserve(Math.max(count, 0));
+        Battalion battalion = factory.createMixedBattalion(name, keys, count, mode, soldierIds);
+        list(battalion);
+        if (journal != null) {
+            journal.logCreateMixedBattalion(battalion.getId(), firstId(soldierIds, count), name, keys, count,
+                    battalion.getStorageMode());
+        }
+        fire(ArmyChange.battalion(ArmyChange.Type.BATTALION_CREATED, battalion, battalions.size() - 1), event);
         return battalion;
     }
 
+    /**
+     * Starts a battalion that is produced in chunks, typically off the UI thread. The
+     * battalion is listed right away and grows as the caller adds the chunks; call
+     * {@link #finishBattalion} when production ends, completed or not. Until then it
+     * {@link #isBuilding is building} and cannot be exported or sent to battle.
+     */
+    public BattalionBuild startBattalion(String name, String[] keys, int count) {
+        ArmyMutationEvent event = beginMutation();
+        if (event != null) event.prototypeKey = String.join(",", keys);
+        BattalionBuild build = factory.startBattalion(name, keys, count);
+        building.add(build.getBattalion());
+        list(build.getBattalion());
+        fire(ArmyChange.battalion(ArmyChange.Type.BATTALION_CREATED, build.getBattalion(), battalions.size() - 1), event);
+        return build;
+    }
+
+    /**
+     * Appends soldiers to a listed battalion, e.g. a chunk of a {@link BattalionBuild}.
+     */
+    public void addSoldiers(Battalion battalion, Soldier[] soldiers) {
+        ArmyMutationEvent event = beginMutation();
+        int index = battalions.indexOf(battalion);
+        if (index < 0) throw new IllegalArgumentException("Battalion is not listed: " + battalion.getId());
+        battalion.addSoldiers(soldiers);
+        fire(ArmyChange.battalion(ArmyChange.Type.BATTALION_CHANGED, battalion, index), event);
+    }
+
+    /**
+     * Journals a battalion produced through {@link #startBattalion} with the soldiers it
+     * actually holds, so a cancelled build replays as the smaller battalion it became.
+     * The entry records the prototypes resolved when the build started: their keys may
+     * have been removed or registered again while it ran. A build cancelled before its
+     * first soldier is dropped.
+     */
+    public void finishBattalion(BattalionBuild build) {
+        ArmyMutationEvent event = beginMutation();
+        Battalion battalion = build.getBattalion();
+        building.remove(battalion);
+        if (battalion.getSize() == 0) {
+            removeListed(battalion, event);
+            return;
+        }
+        if (journal == null || !battalions.contains(battalion)) return;
+        String[] keys = build.getKeys();
+        journal.logCreateMixedBattalion(battalion.getId(), build.getSoldierIds().get(0), battalion.getName(),
+                build.getPrototypes(), battalion.getSize(), battalion.getStorageMode());
+        if (event != null && event.shouldCommit()) {
+            event.operation = "BATTALION_FINISHED";
+            event.battalionId = battalion.getId();
+            event.prototypeKey = String.join(",", keys);
+            event.count = battalion.getSize();
+            event.commit();
+        }
+    }
+
+    /**
+     * Whether {@code battalion} was started with {@link #startBattalion} and is still
+     * growing: its rows change under anyone reading them from another thread.
+     */
+    public boolean isBuilding(Battalion battalion) {
+        return building.contains(battalion);
+    }
+
+    /**
+     * Fails with an {@link IllegalStateException} if {@code battalion} {@link #isBuilding is building}.
+     */
+    public void requireFinished(Battalion battalion) {
+        if (building.contains(battalion)) {
+            throw new IllegalStateException("Battalion '" + battalion.getName() + "' is still being produced.");
+        }
+    }
+
+    /**
+     * Drops the battalion and frees its off-heap rows, if it has any.
+     */
     public void removeBattalion(Battalion battalion) {
-        battalions.remove(battalion);
+        if (!removeListed(battalion, beginMutation())) return;
+        battalion.release();
+        if (journal != null) journal.logRemoveBattalion(battalion.getId());
+    }
+
+    /**
+     * First of the ids reserved for a new battalion's rows, or {@code null} if it has none.
+     */
+    private static String firstId(ReservedIds soldierIds, int count) {
+        return count > 0 ? soldierIds.get(0) : null;
+    }
+
+    /**
+     * Adds the battalion to the list and its soldiers to the army-wide totals.
+     */
+    private void list(Battalion battalion) {
+        battalions.add(battalion);
+        countBattalion(battalion, 1);
+        battalion.setListener(totals);
+    }
+
+    private boolean removeListed(Battalion battalion, ArmyMutationEvent event) {
+        int index = battalions.indexOf(battalion);
+        if (index < 0) return false;
+        battalions.remove(index);
+        building.remove(battalion);
+        battalion.setListener(null);
+        countBattalion(battalion, -1);
+        fire(ArmyChange.battalion(ArmyChange.Type.BATTALION_REMOVED, battalion, index), event);
+        return true;
+    }
+
+    private void countBattalion(Battalion battalion, int sign) {
+        armySize  += sign * (long) battalion.getSize();
+        armyPower += sign * battalion.getTotalCombatPower();
+        armyElite += sign * (long) battalion.getEliteCount();
+    }
+
+    // ─── Change Events ────────────────────────────────────────────────────────
+
+    /**
+     * Registers a listener for every later mutation made through this controller.
+     * Journal replay during {@link #recover} happens before anyone can listen.
+     */
+    public void addListener(ArmyListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ArmyListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts timing a mutation for JFR; {@code null} when {@link Tracing#JFR} is off.
+     */
+    private static ArmyMutationEvent beginMutation() {
+        if (!Tracing.JFR) return null;
+        ArmyMutationEvent event = new ArmyMutationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the mutation's JFR event, which stops its clock before the listeners run,
+     * then notifies the listeners.
+     */
+    private void fire(ArmyChange change, ArmyMutationEvent event) {
+        if (event != null && event.shouldCommit()) {
+            event.operation = change.getType().name();
+            if (change.getBattalion() != null) {
+                event.battalionId = change.getBattalion().getId();
+                event.count = change.getBattalion().getSize();
+            } else {
+                event.prototypeKey = change.getKey();
+                event.count = 1;
+            }
+            if (change.getSoldier() != null) event.soldierId = change.getSoldier().getId();
+            event.commit();
+        }
+        for (ArmyListener listener : listeners) listener.armyChanged(change);
+    }
+
+    // ─── Persistence ──────────────────────────────────────────────────────────
+
+    /**
+     * Writes prototypes, saved soldiers and battalions to a binary snapshot file. With a
+     * journal attached, the entries the snapshot now covers are dropped from it.
+     */
+    public void saveSnapshot(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        long lsn = journal != null ? journal.sync() : 0;
+        new StateSnapshot(registry.getAllPrototypes(), savedSoldiers, battalions, lsn).write(file);
+        if (journal != null) journal.truncate(lsn);
+    }
+
+    /**
+     * Restores a controller from a snapshot written by {@link #saveSnapshot(Path)}.
+     * Battalion rows stay in the file until they are first read.
+     */
+    public static AppController fromSnapshot(Path file) throws IOException {
+        return fromSnapshot(StateSnapshot.read(file));
+    }
+
+    private static AppController fromSnapshot(StateSnapshot snapshot) {
+        AppController controller = new AppController(false);
+        for (Map.Entry<String, Soldier> e : snapshot.getPrototypes().entrySet()) {
+            controller.registry.registerPrototype(e.getKey(), e.getValue());
+        }
+        controller.savedSoldiers.addAll(snapshot.getSavedSoldiers());
+        for (Battalion battalion : snapshot.getBattalions()) controller.list(battalion);
+        return controller;
+    }
+
+    /**
+     * Rebuilds the last known state: the snapshot if there is one (otherwise the default
+     * prototypes), then every journal entry written after it. The returned controller keeps
+     * logging its mutations to {@code journalFile}; call {@link #close()} when done.
+     *
+     * <p>The journal holds the operations of this class, not edits made to single rows of a
+     * battalion afterwards: those are back only if a snapshot was saved after them.</p>
+     */
+    public static AppController recover(Path snapshotFile, Path journalFile) throws IOException {
+        AppController controller;
+        long lsn = 0;
+        if (Files.isRegularFile(snapshotFile)) {
+            StateSnapshot snapshot = StateSnapshot.read(snapshotFile);
+            controller = fromSnapshot(snapshot);
+            lsn = snapshot.getJournalLsn();
+        } else {
+            controller = new AppController();
+        }
+        controller.journal = Journal.open(journalFile, lsn, controller.new Replayer());
+        return controller;
+    }
+
+    /**
+     * Renames the snapshot and journal that {@link #recover} could not read, to
+     * {@code <name>.unreadable-<millis>}, so that nothing saved afterwards overwrites them.
+     *
+     * @return the new paths of the files that existed
+     */
+    public static List<Path> setAside(Path snapshotFile, Path journalFile) throws IOException {
+        String suffix = ".unreadable-" + System.currentTimeMillis();
+        List<Path> moved = new ArrayList<>();
+        for (Path file : List.of(snapshotFile, journalFile)) {
+            if (!Files.exists(file)) continue;
+            Path target = file.resolveSibling(file.getFileName() + suffix);
+            Files.move(file, target);
+            moved.add(target);
+        }
+        return moved;
+    }
+
+    /**
+     * Streams every prototype, saved soldier and battalion row to {@code file}.
+     *
+     * @return number of soldier rows written
+     */
+    public long exportRoster(Path file, ExportFormat format) throws IOException {
+        for (Battalion battalion : battalions) requireFinished(battalion);
+        return RosterExporter.export(file, format, registry.getAllPrototypes(), savedSoldiers, battalions);
+    }
+
+    /**
+     * Streams the rows of one battalion to {@code file}. Safe to call off the event
+     * thread as long as the battalion is not removed or changed until it returns, so
+     * not for a battalion that {@link #isBuilding is building}; check that first on the
+     * event thread.
+     *
+     * @return number of soldier rows written
+     */
+    public long exportBattalion(Path file, ExportFormat format, Battalion battalion) throws IOException {
+        return RosterExporter.export(file, format, Map.of(), List.of(), List.of(battalion));
+    }
+
+    /**
+     * Flushes and closes the journal, if one is attached, and stops the factory's cloning threads.
+     */
+    public void close() throws IOException {
+        factory.close();
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * Re-applies journal entries without logging them again.
+     */
+    private final class Replayer implements JournalHandler {
+
+        @Override
+        public void saveSoldier(Soldier soldier) {
+            Soldier.getIdGenerator().advancePast(soldier.getId());
+            savedSoldiers.add(soldier);
+        }
+
+        @Override
+        public void removeSoldier(String soldierId) {
+            savedSoldiers.removeIf(s -> s.getId().equals(soldierId));
+        }
+
+        @Override
+        public void registerPrototype(String key, Soldier soldier) {
+            Soldier.getIdGenerator().advancePast(soldier.getId());
+            // Keep sharing the instance when a saved soldier was registered directly
+            Soldier target = soldier;
+            for (Soldier saved : savedSoldiers) {
+                if (saved.getId().equals(soldier.getId())) target = saved;
+            }
+            registry.registerPrototype(key, target);
+        }
+
+        @Override
+        public void removePrototype(String key) {
+            registry.removePrototype(key);
+        }
+
+        @Override
+        public void createBattalion(String battalionId, String firstSoldierId, String name, String prototypeKey,
+                                    int count, StorageMode mode) {
+            Battalion.getIdGenerator().advancePast(battalionId);
+            list(Battalion.restore(battalionId, factory.createBattalion(name, prototypeKey, count, mode,
+                    soldierIds(firstSoldierId, count))));
+        }
+
+        @Override
+        public void createMixedBattalion(String battalionId, String firstSoldierId, String name, String[] keys,
+                                         int count, StorageMode mode) {
+            Battalion.getIdGenerator().advancePast(battalionId);
+            list(Battalion.restore(battalionId, factory.createMixedBattalion(name, keys, count, mode,
+                    soldierIds(firstSoldierId, count))));
+        }
+
+        @Override
+        public void createMixedBattalion(String battalionId, String firstSoldierId, String name, Soldier[] prototypes,
+                                         int count, StorageMode mode) {
+            Battalion.getIdGenerator().advancePast(battalionId);
+            for (Soldier prototype : prototypes) Soldier.getIdGenerator().advancePast(prototype.getId());
+            list(Battalion.restore(battalionId, factory.createMixedBattalion(name, prototypes, count, mode,
+                    soldierIds(firstSoldierId, count))));
+        }
+
+        /**
+         * The ids the rows had when the entry was logged; fresh ones for entries that did not record them.
+         */
+        private ReservedIds soldierIds(String firstSoldierId, int count) {
+            IdGenerator ids = Soldier.getIdGenerator();
+            int rows = Math.max(count, 0);
+            return firstSoldierId != null ? ids.reserveFrom(firstSoldierId, rows) : ids.reserve(rows);
+        }
+
+        @Override
+        public void removeBattalion(String battalionId) {
+            for (Battalion battalion : List.copyOf(battalions)) {
+                if (battalion.getId().equals(battalionId) && removeListed(battalion, beginMutation())) battalion.release();
+            }
+        }
     }
 
     // ─── Getters ──────────────────────────────────────────────────────────────
@@ -155,4 +577,9 @@ public class AppController {
     public SoldierRegistry getRegistry()         { return registry; }
     public List<Battalion> getBattalions()       { return battalions; }
     public List<Soldier> getSavedSoldiers()      { return savedSoldiers; }
+
+    /** Soldiers in all listed battalions; saved soldiers are not included. */
+    public long getArmySize()                    { return armySize; }
+    public long getArmyCombatPower()             { return armyPower; }
+    public long getArmyEliteCount()              { return armyElite; }
 }
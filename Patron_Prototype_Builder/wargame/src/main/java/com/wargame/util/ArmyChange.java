@@ -0,0 +1,75 @@
+package com.wargame.util;
+
+import com.wargame.model.Battalion;
+import com.wargame.model.Soldier;
+
+/**
+ * One mutation published by {@link AppController} to its {@link ArmyListener}s.
+ *
+ * <p>{@link #getIndex()} is the position of the soldier or battalion in the controller's
+ * list at the time of the change — for removals, the position it was removed from.
+ * Prototype changes carry the registry key instead.</p>
+ */
+public final class ArmyChange {
+
+    public enum Type {
+        PROTOTYPE_ADDED, PROTOTYPE_REMOVED,
+        SOLDIER_SAVED, SOLDIER_REMOVED,
+        BATTALION_CREATED, BATTALION_REMOVED, BATTALION_CHANGED
+    }
+
+    private final Type type;
+    private final String key;
+    private final Soldier soldier;
+    private final Battalion battalion;
+    private final int index;
+
+    private ArmyChange(Type type, String key, Soldier soldier, Battalion battalion, int index) {
+        this.type = type;
+        this.key = key;
+        this.soldier = soldier;
+        this.battalion = battalion;
+        this.index = index;
+    }
+
+    static ArmyChange prototypeAdded(String key, Soldier prototype) {
+        return new ArmyChange(Type.PROTOTYPE_ADDED, key, prototype, null, -1);
+    }
+
+    static ArmyChange prototypeRemoved(String key) {
+        return new ArmyChange(Type.PROTOTYPE_REMOVED, key, null, null, -1);
+    }
+
+    static ArmyChange soldier(Type type, Soldier soldier, int index) {
+        return new ArmyChange(type, null, soldier, null, index);
+    }
+
+    static ArmyChange battalion(Type type, Battalion battalion, int index) {
+        return new ArmyChange(type, null, null, battalion, index);
+    }
+
+    public boolean isPrototypeChange() {
+        return type == Type.PROTOTYPE_ADDED || type == Type.PROTOTYPE_REMOVED;
+    }
+
+    public boolean isSoldierChange() {
+        return type == Type.SOLDIER_SAVED || type == Type.SOLDIER_REMOVED;
+    }
+
+    public boolean isBattalionChange() {
+        return battalion != null;
+    }
+
+    // ─── Getters ──────────────────────────────────────────────────────────────
+
+    public Type getType()              { return type; }
+    public String getKey()             { return key; }
+    public Soldier getSoldier()        { return soldier; }
+    public Battalion getBattalion()    { return battalion; }
+    public int getIndex()              { return index; }
+
+    @Override
+    public String toString() {
+        return type + (key != null ? " " + key : "") + (index >= 0 ? " @" + index : "");
+    }
+}
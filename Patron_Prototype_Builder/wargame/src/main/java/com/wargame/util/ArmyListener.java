@@ -0,0 +1,10 @@
+package com.wargame.util;
+
+/**
+ * Receives the {@link ArmyChange}s of an {@link AppController}, on the thread that made them.
+ */
+@FunctionalInterface
+public interface ArmyListener {
+
+    void armyChanged(ArmyChange change);
+}
@@ -0,0 +1,140 @@
+package com.wargame.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free {@link IdGenerator} backed by a monotonic counter.
+ *
+ * <p>Each thread claims a block of {@value #BLOCK_SIZE} consecutive values with a single
+ * atomic add and then hands them out locally, so concurrent cloning threads never contend.
+ * Values are rendered as fixed-width upper-case hex — the same shape as the old
+ * {@code UUID} prefixes. Ids never wrap around: once all {@code 16^width} values have been
+ * claimed, asking for another throws {@link IllegalStateException} rather than handing out
+ * an id that is already in use.</p>
+ *
+ * <p>{@link #advancePast(String)} moves the counter and bumps an epoch that makes every
+ * thread drop its partially used block.</p>
+ */
+public class BlockIdGenerator implements IdGenerator {
+
+    private static final int BLOCK_SIZE = 1024;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final int width;
+    /** Highest value that fits in {@code width} hex digits. */
+    private final long maxValue;
+    private final AtomicLong nextBlock = new AtomicLong(1);
+    private final AtomicLong epoch = new AtomicLong();
+    private final ThreadLocal<long[]> cursor = ThreadLocal.withInitial(() -> new long[3]);
+
+    /**
+     * @param width number of hex characters per id (3–16, so that a block fits)
+     */
+    public BlockIdGenerator(int width) {
+        if (width < 3 || width > 16) throw new IllegalArgumentException("Width must be 3–16");
+        this.width = width;
+        this.maxValue = width == 16 ? Long.MAX_VALUE : (1L << (width * 4)) - 1;
+    }
+
+    @Override
+    public String nextId() {
+        long[] c = cursor.get();          // c[0] = next value, c[1] = end of block, c[2] = epoch
+        long e = epoch.get();
+        if (c[0] == c[1] || c[2] != e) {
+            c[0] = claim(1);
+            c[1] = c[0] + BLOCK_SIZE;
+            c[2] = e;
+        }
+        return format(c[0]++);
+    }
+
+    /**
+     * Claims a contiguous range of whole blocks.
+     */
+    @Override
+    public ReservedIds reserve(int count) {
+        if (count < 0) throw new IllegalArgumentException("Cannot reserve " + count + " ids.");
+        long blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long base = claim(blocks);
+        if (count > 0 && count - 1 > maxValue - base) throw exhausted();
+        return range(base, count);
+    }
+
+    /**
+     * The range starts at {@code firstId}; the counter moves past its last id.
+     */
+    @Override
+    public ReservedIds reserveFrom(String firstId, int count) {
+        long base = parse(firstId);
+        if (base < 0 || count < 0 || count - 1L > maxValue - base) {
+            throw new IllegalArgumentException("Not the first of " + count + " ids: " + firstId);
+        }
+        if (count > 0) {
+            nextBlock.accumulateAndGet((base + count - 1) / BLOCK_SIZE + 1, Math::max);
+            epoch.incrementAndGet();
+        }
+        return range(base, count);
+    }
+
+    @Override
+    public void advancePast(String id) {
+        long value = parse(id);
+        if (value < 0) return;
+        long block = value / BLOCK_SIZE + 1;
+        nextBlock.accumulateAndGet(block, Math::max);
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * Ids are rendered only when asked for and parsed back to their index without rendering any.
+     */
+    private ReservedIds range(long base, int count) {
+        return new ReservedIds() {
+            @Override
+            public String get(int index) {
+                return format(base + index);
+            }
+
+            @Override
+            public int indexOf(String id) {
+                long index = parse(id) - base;
+                return index >= 0 && index < count ? (int) index : -1;
+            }
+        };
+    }
+
+    /**
+     * Value of an id this generator could have issued, or {@code -1}.
+     */
+    private long parse(String id) {
+        if (id.length() != width) return -1;
+        try {
+            long value = Long.parseUnsignedLong(id, 16);
+            return value >= 0 && value <= maxValue ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Claims {@code blocks} consecutive blocks and returns the first value of the first one.
+     */
+    private long claim(long blocks) {
+        long block = nextBlock.getAndAdd(blocks);
+        if (block > maxValue / BLOCK_SIZE) throw exhausted();
+        return block * BLOCK_SIZE;
+    }
+
+    private IllegalStateException exhausted() {
+        return new IllegalStateException("Out of ids: every " + width + "-digit hex id has been handed out.");
+    }
+
+    private String format(long value) {
+        char[] buf = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            buf[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return new String(buf);
+    }
+}
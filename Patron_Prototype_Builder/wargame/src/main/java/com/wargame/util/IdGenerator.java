@@ -0,0 +1,45 @@
+package com.wargame.util;
+
+import java.util.Arrays;
+
+/**
+ * Source of short unique identifiers for soldiers and battalions.
+ *
+ * <p>Implementations must be safe to call from several threads at once.</p>
+ */
+public interface IdGenerator {
+
+    /**
+     * Returns an identifier that this generator has never handed out before.
+     */
+    String nextId();
+
+    /**
+     * Makes sure no id handed out from now on equals {@code id} or any id issued before it.
+     * Called after restoring persisted ids; generators that cannot order ids may ignore it.
+     */
+    default void advancePast(String id) {
+    }
+
+    /**
+     * Reserves {@code count} ids at once, indexed {@code [0, count)}.
+     */
+    default ReservedIds reserve(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) ids[i] = nextId();
+        return new ReservedIds() {
+            @Override public String get(int index)    { return ids[index]; }
+            @Override public int indexOf(String id)   { return Arrays.asList(ids).indexOf(id); }
+        };
+    }
+
+    /**
+     * Recreates {@code count} ids reserved earlier, the first of which was {@code firstId},
+     * e.g. when replaying a journal, and makes sure none of them is handed out again.
+     *
+     * @throws UnsupportedOperationException if this generator cannot rebuild a range from its first id
+     */
+    default ReservedIds reserveFrom(String firstId, int count) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot restore reserved ids.");
+    }
+}
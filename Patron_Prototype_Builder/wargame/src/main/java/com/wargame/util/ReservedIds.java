@@ -0,0 +1,17 @@
+package com.wargame.util;
+
+/**
+ * A range of ids claimed in one go with {@link IdGenerator#reserve(int)}.
+ */
+public interface ReservedIds {
+
+    /**
+     * Id at {@code index}; always the same id for the same index.
+     */
+    String get(int index);
+
+    /**
+     * Index whose id is {@code id}, or {@code -1} if it is not one of these.
+     */
+    int indexOf(String id);
+}
@@ -0,0 +1,45 @@
+package com.wargame.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only, thread-safe mapping between strings and dense int codes.
+ *
+ * <p>Code {@code 0} stands for {@code null}. Lookups by code are a plain array read;
+ * only the first occurrence of a string takes a lock. Entries are never removed, so it
+ * is meant for small vocabularies such as soldier base names and factions.</p>
+ */
+public final class StringDictionary {
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int count = 1;
+
+    /**
+     * Returns the code of {@code value}, adding it on first use.
+     */
+    public int code(String value) {
+        if (value == null) return 0;
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    public String get(int code) {
+        return values[code];
+    }
+
+    public synchronized int size() {
+        return count - 1;
+    }
+
+    private synchronized int add(String value) {
+        Integer code = codes.get(value);
+        if (code != null) return code;
+        String[] v = values;
+        if (count == v.length) values = v = Arrays.copyOf(v, count * 2);
+        v[count] = value;
+        codes.put(value, count);
+        return count++;
+    }
+}
@@ -0,0 +1,114 @@
+package com.wargame.battle;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+import com.wargame.model.Battalion;
+import com.wargame.model.Soldier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BattleEngineTest {
+
+    private static final long SEED = 42;
+
+    @Test
+    void sameSeedPlaysTheSameBattleOnAnyNumberOfThreads() {
+        Battalion first = army("Norte", 150_000, 0);
+        Battalion second = army("Sur", 150_000, 1);
+
+        List<String> sequential = playByTick(first, second, 1, 60);
+        for (int parallelism : new int[]{ 2, 3, 8 }) {
+            assertEquals(sequential, playByTick(first, second, parallelism, 60), "parallelism " + parallelism);
+        }
+    }
+
+    @Test
+    void millionAgainstMillionIsDeterministic() {
+        Battalion first = army("Norte", 1_000_000, 0);
+        Battalion second = army("Sur", 1_000_000, 1);
+
+        assertEquals(playByTick(first, second, 1, 3), playByTick(first, second, 8, 3));
+    }
+
+    @Test
+    void differentSeedsPlayDifferentBattles() {
+        Battalion first = army("Norte", 50_000, 0);
+        Battalion second = army("Sur", 50_000, 1);
+
+        try (BattleEngine a = new BattleEngine(1, 2); BattleEngine b = new BattleEngine(2, 2)) {
+            assertNotEquals(a.fight(first, second, 5).toString(), b.fight(first, second, 5).toString());
+        }
+    }
+
+    @Test
+    void closeShutsDownOnlyAPoolOfItsOwn() {
+        ForkJoinPool shared = new ForkJoinPool(2);
+        try {
+            new BattleEngine(SEED, shared).close();
+            assertFalse(shared.isShutdown());
+        } finally {
+            shared.shutdown();
+        }
+
+        BattleEngine owning = new BattleEngine(SEED, 2);
+        Battle battle = owning.engage(army("Norte", 100_000, 0), army("Sur", 100_000, 1));
+        owning.close();
+        assertThrows(RejectedExecutionException.class, battle::tick);
+    }
+
+    /**
+     * Survivors and damage after every tick, then the result.
+     */
+    private static List<String> playByTick(Battalion first, Battalion second, int parallelism, int maxTicks) {
+        List<String> trace = new ArrayList<>();
+        try (BattleEngine engine = new BattleEngine(SEED, parallelism)) {
+            Battle battle = engine.engage(first, second);
+            while (!battle.isOver() && battle.getTick() < maxTicks) {
+                battle.tick();
+                trace.add(battle.getTick() + ": " + battle.getFirstSurvivors() + " / " + battle.getSecondSurvivors());
+            }
+            trace.add(battle.result().toString());
+        }
+        return trace;
+    }
+
+    /**
+     * A mixed battalion whose soldiers differ in every stat the simulation reads, so that
+     * targets, dodges, armor and regeneration all matter.
+     */
+    private static Battalion army(String name, int size, int variant) {
+        Soldier[] prototypes = {
+                soldier(Rank.SERGEANT, 300 + variant * 20, 40, 90, WeaponType.ASSAULT_RIFLE, HelmetType.KEVLAR_HELMET, SkillType.MEDIC),
+                soldier(Rank.CAPTAIN, 260, 70 - variant * 10, 40, WeaponType.SNIPER_RIFLE, HelmetType.STEALTH_HELMET, SkillType.SNIPER_TRAINING),
+                soldier(Rank.PRIVATE, 420, 90, 20 + variant * 15, WeaponType.MACHINE_GUN, HelmetType.TITANIUM_HELMET, SkillType.SURVIVALIST),
+        };
+        return Battalion.ofPrototypes(name, prototypes, size);
+    }
+
+    private static Soldier soldier(Rank rank, int health, int armor, int speed,
+                                   WeaponType weapon, HelmetType helmet, SkillType skill) {
+        return new SoldierBuilder()
+                .withName(rank.getTitle())
+                .withRank(rank)
+                .withHealth(health)
+                .withArmor(armor)
+                .withSpeed(speed)
+                .withPrimaryWeapon(weapon)
+                .withSecondaryWeapon(WeaponType.PISTOL)
+                .withHelmet(helmet)
+                .withSkill(skill)
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.wargame.factory;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.Rank;
+import com.wargame.enums.StorageMode;
+import com.wargame.model.Battalion;
+import com.wargame.model.SoldierRow;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BattalionFactoryTest {
+
+    private static final String[] KEYS = { "a", "b", "c" };
+
+    @Test
+    void poolAndBuildKeepThePrototypeCycle() {
+        try (BattalionFactory factory = new BattalionFactory(registry(), 4)) {
+            Battalion mixed = factory.createMixedBattalion("Mixto", KEYS, 50_001, StorageMode.COLUMNAR);
+            assertCycle(mixed, 50_001);
+
+            BattalionBuild build = factory.startBattalion("Por partes", KEYS, 40_000);
+            while (!build.isDone()) build.getBattalion().addSoldiers(build.nextChunk(17_000));
+            assertCycle(build.getBattalion(), 40_000);
+        }
+    }
+
+    @Test
+    void negativeCountsGiveEmptyMixedBattalions() {
+        try (BattalionFactory factory = new BattalionFactory(registry(), 4)) {
+            assertEquals(0, factory.createMixedBattalion("Vacío", KEYS, -5, StorageMode.LIST).getSize());
+            assertEquals(0, factory.createMixedBattalion("Vacío", KEYS, -5, StorageMode.PACKED).getSize());
+        }
+    }
+
+    private static void assertCycle(Battalion battalion, int size) {
+        assertEquals(size, battalion.getSize());
+        SoldierRow row = new SoldierRow();
+        for (int i = 0; i < size; i++) {
+            battalion.readRow(i, row);
+            assertEquals(KEYS[i % KEYS.length] + " [Clone]", row.getName(), "row " + i);
+        }
+    }
+
+    private static SoldierRegistry registry() {
+        SoldierRegistry registry = new SoldierRegistry();
+        for (String key : KEYS) {
+            registry.registerPrototype(key, new SoldierBuilder().withName(key).withRank(Rank.PRIVATE).withHealth(100).build());
+        }
+        return registry;
+    }
+}
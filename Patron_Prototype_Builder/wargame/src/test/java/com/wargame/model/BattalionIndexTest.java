@@ -0,0 +1,151 @@
+package com.wargame.model;
+
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BattalionIndexTest {
+
+    private static final String[] FACTIONS = { "Norte", "Sur", "Este" };
+
+    @Test
+    void removalsAcrossWordBoundariesMatchAFreshIndex() {
+        Random random = new Random(29);
+        List<SoldierRow> rows = new ArrayList<>();
+        BattalionIndex index = new BattalionIndex();
+        for (int i = 0; i < 320; i++) {
+            SoldierRow row = row(random);
+            rows.add(row);
+            index.add(row);
+        }
+
+        // First and last bits of a word, the last row, then the rest at random
+        for (int at : new int[]{ 0, 63, 64, 127, 128, 191, 255 }) {
+            remove(index, rows, at);
+            assertSameBits(rebuild(rows), index);
+        }
+        remove(index, rows, rows.size() - 1);
+        assertSameBits(rebuild(rows), index);
+        while (!rows.isEmpty()) {
+            remove(index, rows, random.nextInt(rows.size()));
+            assertSameBits(rebuild(rows), index);
+        }
+    }
+
+    @Test
+    void rowsAddedAfterRemovalsLandInTheFreedBits() {
+        Random random = new Random(31);
+        List<SoldierRow> rows = new ArrayList<>();
+        BattalionIndex index = new BattalionIndex();
+        for (int i = 0; i < 130; i++) {
+            SoldierRow row = row(random);
+            rows.add(row);
+            index.add(row);
+        }
+        remove(index, rows, 64);
+        remove(index, rows, 128);
+        for (int i = 0; i < 70; i++) {
+            SoldierRow row = row(random);
+            rows.add(row);
+            index.add(row);
+        }
+        assertSameBits(rebuild(rows), index);
+    }
+
+    @Test
+    void complementsStopAtTheLastRow() {
+        Random random = new Random(37);
+        for (int size : new int[]{ 0, 1, 63, 64, 65, 130 }) {
+            BattalionIndex index = new BattalionIndex();
+            for (int i = 0; i < size; i++) index.add(row(random));
+            int words = BattalionIndex.wordsFor(size);
+
+            assertArrayEquals(new long[words], SoldierQuery.all().not().evaluate(index), "size " + size);
+            assertArrayEquals(SoldierQuery.all().evaluate(index),
+                    SoldierQuery.elite().not().or(SoldierQuery.elite()).evaluate(index), "size " + size);
+            for (Rank rank : Rank.values()) {
+                long[] not = SoldierQuery.rank(rank).not().evaluate(index);
+                assertArrayEquals(not, SoldierQuery.all().andNot(SoldierQuery.rank(rank)).evaluate(index));
+                assertEquals(size - count(SoldierQuery.rank(rank).evaluate(index)), count(not));
+                assertArrayEquals(SoldierQuery.rank(rank).evaluate(index),
+                        SoldierQuery.rank(rank).not().not().evaluate(index));
+            }
+        }
+    }
+
+    @Test
+    void complementsStayTrimmedAfterRemovals() {
+        Random random = new Random(41);
+        List<SoldierRow> rows = new ArrayList<>();
+        BattalionIndex index = new BattalionIndex();
+        for (int i = 0; i < 200; i++) {
+            SoldierRow row = row(random);
+            rows.add(row);
+            index.add(row);
+        }
+        for (int i = 0; i < 70; i++) {
+            remove(index, rows, random.nextInt(rows.size()));
+            SoldierQuery notElite = SoldierQuery.elite().not();
+            assertEquals(rows.stream().filter(r -> !r.isElite()).count(), count(notElite.evaluate(index)));
+            assertArrayEquals(notElite.evaluate(index),
+                    SoldierQuery.all().andNot(SoldierQuery.elite()).evaluate(index));
+        }
+    }
+
+    private static void remove(BattalionIndex index, List<SoldierRow> rows, int at) {
+        rows.remove(at);
+        index.remove(at);
+    }
+
+    private static BattalionIndex rebuild(List<SoldierRow> rows) {
+        BattalionIndex index = new BattalionIndex();
+        for (SoldierRow row : rows) index.add(row);
+        return index;
+    }
+
+    private static void assertSameBits(BattalionIndex expected, BattalionIndex actual) {
+        assertEquals(expected.size(), actual.size());
+        for (Rank rank : Rank.values()) {
+            assertArrayEquals(expected.copy(expected.rank(rank)), actual.copy(actual.rank(rank)), rank.name());
+        }
+        for (WeaponType weapon : WeaponType.values()) {
+            assertArrayEquals(expected.copy(expected.weapon(weapon)), actual.copy(actual.weapon(weapon)), weapon.name());
+        }
+        for (HelmetType helmet : HelmetType.values()) {
+            assertArrayEquals(expected.copy(expected.helmet(helmet)), actual.copy(actual.helmet(helmet)), helmet.name());
+        }
+        for (SkillType skill : SkillType.values()) {
+            assertArrayEquals(expected.copy(expected.skill(skill)), actual.copy(actual.skill(skill)), skill.name());
+        }
+        for (String faction : FACTIONS) {
+            assertArrayEquals(expected.copy(expected.faction(faction)), actual.copy(actual.faction(faction)), faction);
+        }
+        assertArrayEquals(expected.copy(expected.elite()), actual.copy(actual.elite()), "elite");
+    }
+
+    private static int count(long[] bits) {
+        int count = 0;
+        for (long word : bits) count += Long.bitCount(word);
+        return count;
+    }
+
+    private static SoldierRow row(Random random) {
+        return new SoldierRow().set("", "Soldado", FACTIONS[random.nextInt(FACTIONS.length)],
+                100, 0, 10,
+                random.nextInt(Rank.values().length + 1),
+                random.nextInt(WeaponType.values().length + 1),
+                random.nextInt(WeaponType.values().length + 1),
+                random.nextInt(HelmetType.values().length + 1),
+                random.nextInt(1 << SkillType.values().length),
+                random.nextInt(4) == 0);
+    }
+}
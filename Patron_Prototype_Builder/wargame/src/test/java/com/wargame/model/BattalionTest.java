@@ -0,0 +1,131 @@
+package com.wargame.model;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.Rank;
+import com.wargame.enums.WeaponType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BattalionTest {
+
+    @Test
+    void editedListRowsAreReindexed() {
+        Battalion battalion = new Battalion("Norte");
+        Random random = new Random(3);
+        for (int i = 0; i < 2_000; i++) battalion.addSoldier(soldier(random));
+        assertEditsReindexed(battalion, random);
+    }
+
+    @Test
+    void editedPrototypeRowsAreReindexed() {
+        Random random = new Random(5);
+        Battalion battalion = Battalion.ofPrototypes("Sur", new Soldier[]{ soldier(random), soldier(random) }, 2_000);
+        assertEditsReindexed(battalion, random);
+    }
+
+    @Test
+    void aSoldierIsARowOfOneBattalion() {
+        Random random = new Random(9);
+        Battalion first = new Battalion("Este");
+        Battalion second = new Battalion("Oeste");
+        Soldier soldier = soldier(random);
+        first.addSoldier(soldier);
+
+        assertThrows(IllegalArgumentException.class, () -> second.addSoldier(soldier));
+        assertThrows(IllegalArgumentException.class,
+                () -> second.addSoldiers(new Soldier[]{ soldier(random), soldier }));
+        assertEquals(0, second.getSize());
+        assertEquals(0, second.getTotalCombatPower());
+
+        Battalion lazy = Battalion.ofPrototypes("Centro", new Soldier[]{ soldier(random) }, 10);
+        assertThrows(IllegalArgumentException.class, () -> second.addSoldier(lazy.getSoldiers().get(3)));
+
+        first.removeSoldier(soldier);
+        second.addSoldier(soldier);
+        soldier.setHealth(soldier.getHealth() == 500 ? 1 : soldier.getHealth() + 1);
+        assertEquals(soldier.calculateCombatPower(), second.getTotalCombatPower());
+        assertEquals(0, first.getTotalCombatPower());
+    }
+
+    @Test
+    void aPowerIndexPreparedBeforeAChangeIsNotInstalled() {
+        Random random = new Random(13);
+        Battalion battalion = new Battalion("Oeste");
+        for (int i = 0; i < 1_000; i++) battalion.addSoldier(soldier(random));
+
+        Battalion.PreparedPowerIndex stale = battalion.preparePowerIndex();
+        battalion.getSoldiers().get(10).setHealth(500);
+        assertFalse(battalion.installPowerIndex(stale));
+        assertFalse(battalion.hasPowerIndex());
+
+        assertTrue(battalion.installPowerIndex(battalion.preparePowerIndex()));
+        assertTrue(battalion.hasPowerIndex());
+        battalion.addSoldier(soldier(random));
+        Battalion fresh = Battalion.restore(battalion.getId(), battalion);
+        assertEquals(ids(fresh.getSoldiersByPower(true)), ids(battalion.getSoldiersByPower(true)));
+
+        battalion.dropPowerIndex();
+        assertFalse(battalion.hasPowerIndex());
+    }
+
+    /**
+     * Builds both indexes, removes and edits random rows through the soldier list and
+     * checks every answer against a battalion that indexes the remaining rows from scratch.
+     */
+    private static void assertEditsReindexed(Battalion battalion, Random random) {
+        battalion.select(SoldierQuery.all());
+        battalion.getPowerPercentile(50);
+
+        List<Soldier> soldiers = battalion.getSoldiers();
+        for (int i = 0; i < 200; i++) {
+            battalion.removeSoldier(soldiers.get(random.nextInt(soldiers.size())));
+        }
+        for (int i = 0; i < 300; i++) {
+            Soldier soldier = soldiers.get(random.nextInt(soldiers.size()));
+            switch (random.nextInt(3)) {
+                case 0  -> soldier.setRank(Rank.values()[random.nextInt(Rank.values().length)]);
+                case 1  -> soldier.setHealth(1 + random.nextInt(500));
+                default -> soldier.setPrimaryWeapon(WeaponType.values()[random.nextInt(WeaponType.values().length)]);
+            }
+        }
+
+        Battalion fresh = Battalion.restore(battalion.getId(), battalion);
+        for (Rank rank : Rank.values()) {
+            assertArrayEquals(fresh.select(SoldierQuery.rank(rank)).toArray(),
+                    battalion.select(SoldierQuery.rank(rank)).toArray(), rank.name());
+        }
+        for (WeaponType weapon : WeaponType.values()) {
+            assertArrayEquals(fresh.select(SoldierQuery.weapon(weapon)).toArray(),
+                    battalion.select(SoldierQuery.weapon(weapon)).toArray(), weapon.name());
+        }
+        assertEquals(ids(fresh.getSoldiersByPower(true)), ids(battalion.getSoldiersByPower(true)));
+        assertEquals(ids(fresh.getSoldiersByPower(false)), ids(battalion.getSoldiersByPower(false)));
+        for (int percentile = 0; percentile <= 100; percentile += 10) {
+            assertEquals(fresh.getPowerPercentile(percentile), battalion.getPowerPercentile(percentile));
+        }
+        Soldier some = soldiers.get(random.nextInt(soldiers.size()));
+        assertEquals(fresh.getPowerRank(some), battalion.getPowerRank(some));
+    }
+
+    private static List<String> ids(List<Soldier> soldiers) {
+        return soldiers.stream().map(Soldier::getId).toList();
+    }
+
+    private static Soldier soldier(Random random) {
+        return new SoldierBuilder()
+                .withName("Soldado")
+                .withRank(Rank.values()[random.nextInt(Rank.values().length)])
+                .withHealth(1 + random.nextInt(500))
+                .withArmor(random.nextInt(100))
+                .withPrimaryWeapon(WeaponType.values()[random.nextInt(WeaponType.values().length)])
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.wargame.model;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.Rank;
+import com.wargame.enums.StorageMode;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapStorageTest {
+
+    private static final Soldier PROTOTYPE = new SoldierBuilder()
+            .withName("Soldado").withRank(Rank.SERGEANT).withHealth(200).build();
+
+    @Test
+    void readingAfterReleaseThrows() {
+        OffHeapStorage storage = new OffHeapStorage(10_000);
+        storage.fill(new Soldier[]{ PROTOTYPE }, 10_000);
+        Battalion battalion = Battalion.restore("000001", "Norte", storage);
+        battalion.release();
+
+        assertEquals(0, battalion.getSize());
+        assertThrows(IndexOutOfBoundsException.class, () -> battalion.readRow(0, new SoldierRow()));
+        assertThrows(IndexOutOfBoundsException.class, () -> battalion.getSoldiers().get(0));
+        // A reader that missed the release still only sees the empty chunk table
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> storage.wordAt(0));
+        assertThrows(IllegalStateException.class, battalion::pin);
+    }
+
+    @Test
+    void pinnedMemoryIsFreedByTheLastUnpin() {
+        long before = directMemoryUsed();
+        Battalion battalion = PackedBattalion.of("Sur", new Soldier[]{ PROTOTYPE }, 3_000_000, StorageMode.OFF_HEAP);
+        long allocated = directMemoryUsed() - before;
+        assertTrue(allocated >= 3_000_000L * Long.BYTES, "allocated " + allocated);
+
+        Battalion.Pin first = battalion.pin();
+        Battalion.Pin second = battalion.pin();
+        battalion.release();
+        assertEquals(before + allocated, directMemoryUsed());
+        first.close();
+        assertEquals(before + allocated, directMemoryUsed());
+        second.close();
+        assertEquals(before, directMemoryUsed());
+    }
+
+    @Test
+    void unpinnedReleaseFreesAtOnce() {
+        long before = directMemoryUsed();
+        Battalion battalion = PackedBattalion.of("Este", new Soldier[]{ PROTOTYPE }, 2_000_000, StorageMode.OFF_HEAP);
+        battalion.pin().close();
+        battalion.release();
+        assertEquals(before, directMemoryUsed());
+    }
+
+    private static long directMemoryUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        }
+        throw new AssertionError("No direct buffer pool");
+    }
+}
@@ -0,0 +1,101 @@
+package com.wargame.model;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.WeaponType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PackedSoldierTest {
+
+    @Test
+    void everyFieldSurvivesTheRoundTrip() {
+        Random random = new Random(17);
+        SoldierRow expected = new SoldierRow();
+        SoldierRow decoded = new SoldierRow();
+        for (int i = 0; i < 5_000; i++) {
+            Soldier soldier = soldier(random);
+            int label = random.nextInt(PackedSoldier.MAX_LABEL + 1);
+            long word = PackedSoldier.encode(soldier, label);
+
+            assertEquals(label, PackedSoldier.label(word));
+            expected.set(soldier);
+            PackedSoldier.decode(word, soldier.getId(), soldier.getName(), soldier.getFaction(), decoded);
+            assertEquals(render(expected), render(decoded));
+        }
+    }
+
+    @Test
+    void powerFromTheBitsMatchesTheSoldier() {
+        Random random = new Random(19);
+        for (int i = 0; i < 5_000; i++) {
+            Soldier soldier = soldier(random);
+            long word = PackedSoldier.encode(soldier, 0);
+            assertEquals(soldier.calculateCombatPower(), PackedSoldier.combatPower(word), soldier.toString());
+        }
+    }
+
+    @Test
+    void relabellingLeavesTheOtherFieldsAlone() {
+        Soldier soldier = soldier(new Random(23));
+        long word = PackedSoldier.encode(soldier, 5);
+        long relabelled = PackedSoldier.withLabel(word, PackedSoldier.MAX_LABEL);
+
+        assertEquals(PackedSoldier.MAX_LABEL, PackedSoldier.label(relabelled));
+        assertEquals(PackedSoldier.withLabel(word, 0), PackedSoldier.withLabel(relabelled, 0));
+        assertEquals(PackedSoldier.combatPower(word), PackedSoldier.combatPower(relabelled));
+    }
+
+    @Test
+    void outOfRangeStatsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedSoldier.encode(PackedSoldier.MAX_HEALTH + 1, 0, 0, 0, 0, 0, 0, 0, false, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedSoldier.encode(1, -1, 0, 0, 0, 0, 0, 0, false, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedSoldier.encode(1, 0, PackedSoldier.MAX_SPEED + 1, 0, 0, 0, 0, 0, false, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedSoldier.withLabel(0, PackedSoldier.MAX_LABEL + 1));
+    }
+
+    private static String render(SoldierRow row) {
+        return String.join("|", row.getId(), row.getName(), row.getFaction(),
+                String.valueOf(row.getHealth()), String.valueOf(row.getArmor()), String.valueOf(row.getSpeed()),
+                String.valueOf(row.getRankCode()), String.valueOf(row.getPrimaryCode()),
+                String.valueOf(row.getSecondaryCode()), String.valueOf(row.getHelmetCode()),
+                String.valueOf(row.getSkillMask()), String.valueOf(row.isElite()));
+    }
+
+    private static Soldier soldier(Random random) {
+        SoldierBuilder builder = new SoldierBuilder()
+                .withName("Soldado " + random.nextInt(10))
+                .withFaction("Facción " + random.nextInt(3))
+                .withHealth(1 + random.nextInt(500))
+                .withArmor(random.nextInt(201))
+                .withSpeed(1 + random.nextInt(150))
+                .asElite(random.nextBoolean());
+        Rank rank = pick(random, Rank.values());
+        if (rank != null) builder.withRank(rank);
+        WeaponType primary = pick(random, WeaponType.values());
+        if (primary != null) builder.withPrimaryWeapon(primary);
+        WeaponType secondary = pick(random, WeaponType.values());
+        if (secondary != null) builder.withSecondaryWeapon(secondary);
+        HelmetType helmet = pick(random, HelmetType.values());
+        if (helmet != null) builder.withHelmet(helmet);
+        for (SkillType skill : SkillType.values()) {
+            if (random.nextBoolean()) builder.withSkill(skill);
+        }
+        return builder.build();
+    }
+
+    private static <E> E pick(Random random, E[] values) {
+        int i = random.nextInt(values.length + 1);
+        return i == values.length ? null : values[i];
+    }
+}
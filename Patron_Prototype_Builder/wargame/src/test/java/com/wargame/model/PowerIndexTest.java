@@ -0,0 +1,100 @@
+package com.wargame.model;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.Rank;
+import com.wargame.enums.StorageMode;
+import com.wargame.enums.WeaponType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PowerIndexTest {
+
+    @Test
+    void addAndRemoveMatchASortedArray() {
+        Random random = new Random(7);
+        PowerIndex index = PowerIndex.build(SoldierStorage.create(StorageMode.LIST));
+        List<Integer> rows = new ArrayList<>();
+
+        // Few distinct powers so that ties are common; the index starts at 8 sequence
+        // numbers and has to grow many times.
+        for (int step = 0; step < 20_000; step++) {
+            if (rows.isEmpty() || random.nextInt(3) != 0) {
+                int power = random.nextInt(50) - 10;
+                index.add(power);
+                rows.add(power);
+            } else {
+                int row = random.nextInt(rows.size());
+                index.remove(row);
+                rows.remove(row);
+            }
+            if (step % 500 == 0) assertMatches(rows, index, random);
+        }
+        assertMatches(rows, index, random);
+    }
+
+    @Test
+    void bulkBuildMatchesTheStorage() {
+        Random random = new Random(11);
+        SoldierStorage storage = SoldierStorage.create(StorageMode.COLUMNAR);
+        for (int i = 0; i < 5_000; i++) {
+            storage.add(new SoldierBuilder()
+                    .withName("S" + i)
+                    .withRank(Rank.values()[random.nextInt(Rank.values().length)])
+                    .withHealth(50 + random.nextInt(4) * 50)
+                    .withArmor(random.nextInt(3) * 10)
+                    .withPrimaryWeapon(WeaponType.values()[random.nextInt(WeaponType.values().length)])
+                    .build());
+        }
+        List<Integer> rows = new ArrayList<>();
+        SoldierRow row = new SoldierRow();
+        for (int i = 0; i < storage.size(); i++) {
+            storage.readAttributes(i, row);
+            rows.add(row.getCombatPower());
+        }
+
+        PowerIndex index = PowerIndex.build(storage);
+        assertMatches(rows, index, random);
+
+        for (int i = 0; i < 2_000; i++) {
+            int at = random.nextInt(rows.size());
+            index.remove(at);
+            rows.remove(at);
+            int power = rows.get(random.nextInt(rows.size()));
+            index.add(power);
+            rows.add(power);
+        }
+        assertMatches(rows, index, random);
+    }
+
+    /**
+     * Checks every position and a sample of powers against {@code rows}, the power of each
+     * row in row order.
+     */
+    private static void assertMatches(List<Integer> rows, PowerIndex index, Random random) {
+        int n = rows.size();
+        assertEquals(n, index.size());
+        int[] weakest = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparing(rows::get))
+                .mapToInt(Integer::intValue).toArray();
+        int[] strongest = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparing(rows::get, Comparator.reverseOrder()))
+                .mapToInt(Integer::intValue).toArray();
+        for (int position = 0; position < n; position++) {
+            assertEquals(weakest[position], index.rowAt(position), "weakest " + position);
+            assertEquals(rows.get(weakest[position]), index.powerAt(position), "power " + position);
+            assertEquals(strongest[position], index.rowAtStrongest(position), "strongest " + position);
+        }
+        for (int i = 0; i < 50; i++) {
+            int power = random.nextInt(70) - 20;
+            long below = rows.stream().filter(p -> p < power).count();
+            assertEquals(below, index.countBelow(power), "below " + power);
+        }
+    }
+}
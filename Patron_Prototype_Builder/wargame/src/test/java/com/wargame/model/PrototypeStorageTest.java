@@ -0,0 +1,178 @@
+package com.wargame.model;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.Rank;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrototypeStorageTest {
+
+    private static final Soldier[] TEMPLATES = {
+            new SoldierBuilder().withName("Fusilero").withRank(Rank.PRIVATE).withHealth(100).build(),
+            new SoldierBuilder().withName("Sargento").withRank(Rank.SERGEANT).withHealth(200).asElite(true).build(),
+            new SoldierBuilder().withName("Médico").withRank(Rank.CORPORAL).withHealth(150).build(),
+    };
+
+    @Test
+    void virtualRowsKeepTheirIdsAndShareNothing() {
+        PrototypeStorage storage = new PrototypeStorage(TEMPLATES, 10);
+        Soldier first = storage.get(4);
+        Soldier second = storage.get(4);
+        assertNotSame(first, second);
+        assertEquals(first.getId(), second.getId());
+        assertEquals(TEMPLATES[1].getName(), first.getName());
+        assertEquals(4, storage.indexOf(second));
+
+        assertEquals(expectedPower(storage), storage.totalCombatPower());
+        assertEquals(3, storage.eliteCount());
+    }
+
+    @Test
+    void aMutatedViewBecomesTheRow() {
+        PrototypeStorage storage = new PrototypeStorage(TEMPLATES, 10);
+        Soldier view = storage.get(2);
+        view.setHealth(499);
+
+        assertSame(view, storage.get(2));
+        assertEquals(499, storage.get(2).getHealth());
+        assertEquals(150, TEMPLATES[2].getHealth(), "the template is untouched");
+        assertEquals(TEMPLATES[2].getHealth(), storage.get(5).getHealth(), "other rows of the template are untouched");
+        assertEquals(expectedPower(storage), storage.totalCombatPower());
+    }
+
+    @Test
+    void aStaleViewCatchesUpAndHandsOnItsChange() {
+        PrototypeStorage storage = new PrototypeStorage(TEMPLATES, 10);
+        Soldier early = storage.get(1);
+        Soldier late = storage.get(1);
+        late.setHealth(321);
+        early.setArmor(77);
+
+        Soldier row = storage.get(1);
+        assertSame(late, row);
+        assertEquals(321, row.getHealth());
+        assertEquals(77, row.getArmor());
+        assertEquals(321, early.getHealth(), "the stale view caught up before its own change");
+        assertEquals(expectedPower(storage), storage.totalCombatPower());
+    }
+
+    @Test
+    void aViewOfARemovedRowIsDetached() {
+        PrototypeStorage storage = new PrototypeStorage(TEMPLATES, 10);
+        Soldier view = storage.get(3);
+        String next = storage.get(4).getId();
+        assertTrue(storage.remove(storage.get(3)));
+        assertFalse(storage.remove(view));
+
+        view.setHealth(1);
+        assertEquals(9, storage.size());
+        assertEquals(next, storage.get(3).getId());
+        assertEquals(-1, storage.indexOf(view));
+        assertEquals(expectedPower(storage), storage.totalCombatPower());
+    }
+
+    @Test
+    void randomEditsMatchAPlainList() {
+        Random random = new Random(43);
+        PrototypeStorage storage = new PrototypeStorage(TEMPLATES, 3_000);
+        List<String> expected = new ArrayList<>();
+        SoldierRow row = new SoldierRow();
+        for (int i = 0; i < storage.size(); i++) {
+            storage.readRow(i, row);
+            expected.add(render(row));
+        }
+
+        for (int step = 0; step < 3_000; step++) {
+            int op = random.nextInt(4);
+            if (op == 0 || expected.isEmpty()) {
+                Soldier added = TEMPLATES[random.nextInt(TEMPLATES.length)].clone();
+                storage.add(added);
+                expected.add(render(row.set(added)));
+            } else if (op == 1) {
+                int index = random.nextInt(expected.size());
+                assertTrue(storage.remove(storage.get(index)));
+                expected.remove(index);
+            } else {
+                int index = random.nextInt(expected.size());
+                Soldier soldier = storage.get(index);
+                assertEquals(index, storage.indexOf(soldier));
+                soldier.setHealth(1 + random.nextInt(500));
+                expected.set(index, render(row.set(soldier)));
+            }
+        }
+
+        assertEquals(expected.size(), storage.size());
+        for (int i = 0; i < expected.size(); i++) {
+            storage.readRow(i, row);
+            assertEquals(expected.get(i), render(row), "row " + i);
+        }
+        assertEquals(expectedPower(storage), storage.totalCombatPower());
+    }
+
+    @Test
+    void removedOrdinalsMatchASortedSet() {
+        Random random = new Random(47);
+        RemovedOrdinals removed = new RemovedOrdinals();
+        TreeSet<Integer> expected = new TreeSet<>();
+        int range = 5_000;
+        // Boundaries of the first capacities, then the rest at random, growing the tree as it goes
+        for (int ordinal : new int[]{ 0, 7, 8, 15, 16, 4_095, 4_096 }) {
+            removed.add(ordinal);
+            expected.add(ordinal);
+        }
+        while (expected.size() < 2_500) {
+            int ordinal = random.nextInt(range);
+            if (expected.add(ordinal)) removed.add(ordinal);
+            if (expected.size() % 250 == 0) assertSameOrdinals(expected, removed, range);
+        }
+        assertSameOrdinals(expected, removed, range);
+
+        removed.add(1 << 20);
+        expected.add(1 << 20);
+        assertEquals(expected.size(), removed.count());
+        assertEquals(expected.size() - 1, removed.countBelow(1 << 20));
+        assertEquals(expected.size(), removed.countBelow(Integer.MAX_VALUE));
+
+        removed.clear();
+        assertEquals(0, removed.count());
+        assertEquals(123, removed.ordinalOf(123));
+        assertFalse(removed.contains(0));
+    }
+
+    private static void assertSameOrdinals(TreeSet<Integer> expected, RemovedOrdinals removed, int range) {
+        assertEquals(expected.size(), removed.count());
+        int index = 0;
+        for (int ordinal = 0; ordinal < range + 100; ordinal++) {
+            assertEquals(expected.contains(ordinal), removed.contains(ordinal), "ordinal " + ordinal);
+            assertEquals(expected.headSet(ordinal).size(), removed.countBelow(ordinal), "below " + ordinal);
+            if (!expected.contains(ordinal)) {
+                assertEquals(ordinal, removed.ordinalOf(index++), "index " + (index - 1));
+            }
+        }
+    }
+
+    private static long expectedPower(PrototypeStorage storage) {
+        long total = 0;
+        SoldierRow row = new SoldierRow();
+        for (int i = 0; i < storage.size(); i++) {
+            storage.readRow(i, row);
+            total += row.getCombatPower();
+        }
+        return total;
+    }
+
+    private static String render(SoldierRow row) {
+        return String.join("|", row.getId(), row.getName(), String.valueOf(row.getHealth()),
+                String.valueOf(row.getRankCode()), String.valueOf(row.isElite()));
+    }
+}
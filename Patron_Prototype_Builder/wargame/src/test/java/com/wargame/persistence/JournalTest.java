@@ -0,0 +1,212 @@
+package com.wargame.persistence;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.Rank;
+import com.wargame.enums.StorageMode;
+import com.wargame.model.Soldier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalTest {
+
+    private static final Soldier SOLDIER = new SoldierBuilder()
+            .withName("Sargento \"Ñandú\"").withRank(Rank.SERGEANT).withHealth(300).withFaction("Norte").build();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyEntryTypeIsReplayedInOrder() throws IOException {
+        Path file = dir.resolve("wal.log");
+        try (Journal journal = Journal.open(file, 0, null)) {
+            journal.logRegisterPrototype("sargento", SOLDIER);
+            journal.logSaveSoldier(SOLDIER);
+            journal.logCreateBattalion("000001", "00010000", "Norte", "sargento", 500, StorageMode.PACKED);
+            journal.logCreateMixedBattalion("000002", "00020000", "Sur", new String[]{ "sargento", "cabo" }, 40, StorageMode.LIST);
+            journal.logCreateMixedBattalion("000003", null, "Este", new Soldier[]{ SOLDIER }, 7, StorageMode.COLUMNAR);
+            journal.logRemoveBattalion("000001");
+            journal.logRemoveSoldier(SOLDIER.getId());
+            journal.logRemovePrototype("sargento");
+            assertEquals(8, journal.sync());
+        }
+
+        assertEquals(List.of(
+                "registerPrototype sargento " + render(SOLDIER),
+                "saveSoldier " + render(SOLDIER),
+                "createBattalion 000001 00010000 Norte sargento 500 PACKED",
+                "createMixedBattalion 000002 00020000 Sur [sargento, cabo] 40 LIST",
+                "createMixedBattalion 000003 null Este [" + render(SOLDIER) + "] 7 COLUMNAR",
+                "removeBattalion 000001",
+                "removeSoldier " + SOLDIER.getId(),
+                "removePrototype sargento"), replay(file, 0));
+        assertEquals(List.of("removePrototype sargento"), replay(file, 7));
+    }
+
+    @Test
+    void aTornTailIsCutOffAndOverwritten() throws IOException {
+        Path file = dir.resolve("wal.log");
+        log(file, 0, "000001", "000002", "000003");
+        long whole = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(whole - 3);
+        }
+
+        Recorder recorder = new Recorder();
+        try (Journal journal = Journal.open(file, 0, recorder)) {
+            assertEquals(List.of("removeBattalion 000001", "removeBattalion 000002"), recorder.calls);
+            assertEquals(2, journal.getLastLsn());
+            assertEquals(3, journal.logRemoveBattalion("000004"));
+            journal.sync();
+        }
+        assertEquals(List.of("removeBattalion 000001", "removeBattalion 000002", "removeBattalion 000004"),
+                replay(file, 0));
+    }
+
+    @Test
+    void replayStopsAtAnEntryThatFailsItsChecksum() throws IOException {
+        Path file = dir.resolve("wal.log");
+        log(file, 0, "000001", "000002", "000003");
+        long whole = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, whole - 1);
+            last.put(0, (byte) (last.get(0) ^ 0x5A));
+            channel.write(last.rewind(), whole - 1);
+        }
+
+        assertEquals(List.of("removeBattalion 000001", "removeBattalion 000002"), replay(file, 0));
+        assertTrue(Files.size(file) < whole, "the bad entry is cut off on open");
+    }
+
+    @Test
+    void truncateAfterASnapshotKeepsNumberingGoing() throws IOException {
+        Path file = dir.resolve("wal.log");
+        long snapshot;
+        try (Journal journal = Journal.open(file, 0, null)) {
+            journal.logRemoveBattalion("000001");
+            journal.logRemoveBattalion("000002");
+            snapshot = journal.sync();
+            journal.truncate(snapshot);
+            assertEquals(3, journal.logRemoveBattalion("000003"));
+            journal.sync();
+        }
+
+        assertEquals(List.of("removeBattalion 000003"), replay(file, snapshot));
+        // The header carries the numbering on even if the snapshot is older than the journal
+        assertEquals(List.of("removeBattalion 000003"), replay(file, 0));
+        try (Journal journal = Journal.open(file, snapshot, null)) {
+            assertEquals(4, journal.logRemoveBattalion("000004"));
+        }
+    }
+
+    @Test
+    void truncateKeepsEntriesLoggedAfterTheSnapshot() throws IOException {
+        Path file = dir.resolve("wal.log");
+        long snapshot;
+        try (Journal journal = Journal.open(file, 0, null)) {
+            journal.logRemoveBattalion("000001");
+            snapshot = journal.sync();
+            journal.logRemoveBattalion("000002");
+            journal.truncate(snapshot);
+            journal.sync();
+        }
+
+        assertEquals(List.of("removeBattalion 000001", "removeBattalion 000002"), replay(file, 0));
+        assertEquals(List.of("removeBattalion 000002"), replay(file, snapshot));
+    }
+
+    @Test
+    void aJournalOpenedAfterASnapshotStartsPastIt() throws IOException {
+        Path file = dir.resolve("wal.log");
+        try (Journal journal = Journal.open(file, 41, null)) {
+            assertEquals(42, journal.logRemoveBattalion("000001"));
+            journal.sync();
+        }
+        assertEquals(List.of("removeBattalion 000001"), replay(file, 41));
+        assertEquals(List.of(), replay(file, 42));
+    }
+
+    private static void log(Path file, long afterLsn, String... battalionIds) throws IOException {
+        try (Journal journal = Journal.open(file, afterLsn, null)) {
+            for (String id : battalionIds) journal.logRemoveBattalion(id);
+            journal.sync();
+        }
+    }
+
+    private static List<String> replay(Path file, long afterLsn) throws IOException {
+        Recorder recorder = new Recorder();
+        Journal.open(file, afterLsn, recorder).close();
+        return recorder.calls;
+    }
+
+    private static String render(Soldier s) {
+        return String.join("|", s.getId(), s.getName(), s.getFaction(), String.valueOf(s.getHealth()),
+                String.valueOf(s.getRank()), String.valueOf(s.calculateCombatPower()));
+    }
+
+    private static final class Recorder implements JournalHandler {
+
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void saveSoldier(Soldier soldier) {
+            calls.add("saveSoldier " + render(soldier));
+        }
+
+        @Override
+        public void removeSoldier(String soldierId) {
+            calls.add("removeSoldier " + soldierId);
+        }
+
+        @Override
+        public void registerPrototype(String key, Soldier soldier) {
+            calls.add("registerPrototype " + key + " " + render(soldier));
+        }
+
+        @Override
+        public void removePrototype(String key) {
+            calls.add("removePrototype " + key);
+        }
+
+        @Override
+        public void createBattalion(String battalionId, String firstSoldierId, String name, String prototypeKey,
+                                    int count, StorageMode mode) {
+            calls.add(String.join(" ", "createBattalion", battalionId, String.valueOf(firstSoldierId), name,
+                    prototypeKey, String.valueOf(count), mode.name()));
+        }
+
+        @Override
+        public void createMixedBattalion(String battalionId, String firstSoldierId, String name, String[] keys,
+                                         int count, StorageMode mode) {
+            calls.add(String.join(" ", "createMixedBattalion", battalionId, String.valueOf(firstSoldierId), name,
+                    Arrays.toString(keys), String.valueOf(count), mode.name()));
+        }
+
+        @Override
+        public void createMixedBattalion(String battalionId, String firstSoldierId, String name, Soldier[] prototypes,
+                                         int count, StorageMode mode) {
+            List<String> rendered = new ArrayList<>();
+            for (Soldier prototype : prototypes) rendered.add(render(prototype));
+            calls.add(String.join(" ", "createMixedBattalion", battalionId, String.valueOf(firstSoldierId), name,
+                    rendered.toString(), String.valueOf(count), mode.name()));
+        }
+
+        @Override
+        public void removeBattalion(String battalionId) {
+            calls.add("removeBattalion " + battalionId);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.wargame.persistence;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.ExportFormat;
+import com.wargame.enums.SkillType;
+import com.wargame.model.Battalion;
+import com.wargame.model.Soldier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RosterExporterTest {
+
+    private static final String[] NAMES = {
+            "Fusilero",
+            "Capitán \"Rojo\", el malo",
+            "Línea\nnueva",
+            "Retorno\r\ny tab\t",
+            "Barra \\ invertida",
+            "Control \u0001 \u001f",
+            "x".repeat(200) + ",\"",
+    };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void csvQuotesEveryFieldThatNeedsIt() throws IOException {
+        Path file = dir.resolve("roster.csv");
+        long rows = export(file, ExportFormat.CSV);
+
+        List<List<String>> records = parseCsv(Files.readString(file, StandardCharsets.UTF_8));
+        assertEquals(rows + 1, records.size());
+        assertEquals("group", records.get(0).get(0));
+        for (List<String> record : records) assertEquals(15, record.size(), record.toString());
+
+        List<String> expected = expectedNames();
+        for (int i = 0; i < expected.size(); i++) {
+            List<String> record = records.get(i + 1);
+            assertEquals(expected.get(i), record.get(3), "row " + i);
+        }
+        List<String> first = records.get(1);
+        assertEquals("prototype", first.get(0));
+        assertEquals("clave, 0", first.get(1));
+        assertEquals("", first.get(4));
+        assertEquals("", first.get(10));
+        assertEquals("MEDIC|SNIPER_TRAINING", first.get(12));
+    }
+
+    @Test
+    void ndjsonEscapesStringsAndKeepsOneRowPerLine() throws IOException {
+        Path file = dir.resolve("roster.ndjson");
+        long rows = export(file, ExportFormat.NDJSON);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(rows, lines.size());
+        List<String> expected = expectedNames();
+        for (int i = 0; i < expected.size(); i++) {
+            String line = lines.get(i);
+            assertTrue(line.startsWith("{\"group\":") && line.endsWith("}"), line);
+            assertTrue(line.contains(",\"name\":" + json(expected.get(i)) + ",\"faction\":"), line);
+        }
+        String first = lines.get(0);
+        assertTrue(first.contains("\"key\":\"clave, 0\""), first);
+        assertTrue(first.contains("\"faction\":null"), first);
+        assertTrue(first.contains("\"secondary\":null"), first);
+        assertTrue(first.contains("\"skills\":[\"MEDIC\",\"SNIPER_TRAINING\"]"), first);
+        assertTrue(lines.get(1).contains("\"skills\":[]"), lines.get(1));
+        assertTrue(lines.get(2).contains("\"name\":\"L\u00ednea\\nnueva\""), lines.get(2));
+        assertTrue(lines.get(5).contains("\"name\":\"Control \\u0001 \\u001f\""), lines.get(5));
+    }
+
+    /** Prototypes in {@link #NAMES} order, then a battalion cycling through them. */
+    private static long export(Path file, ExportFormat format) throws IOException {
+        Map<String, Soldier> prototypes = new LinkedHashMap<>();
+        Soldier[] soldiers = new Soldier[NAMES.length];
+        for (int i = 0; i < NAMES.length; i++) {
+            SoldierBuilder builder = new SoldierBuilder().withName(NAMES[i]).withFaction("Facción, " + i);
+            if (i == 0) {
+                builder.withFaction(null).withSecondaryWeapon(null)
+                       .withSkill(SkillType.MEDIC).withSkill(SkillType.SNIPER_TRAINING);
+            }
+            soldiers[i] = builder.build();
+            prototypes.put("clave, " + i, soldiers[i]);
+        }
+        Battalion battalion = Battalion.ofPrototypes("Norte \"A\"", soldiers, 2_000);
+        return RosterExporter.export(file, format, prototypes, List.of(), List.of(battalion));
+    }
+
+    private static List<String> expectedNames() {
+        List<String> names = new ArrayList<>(List.of(NAMES));
+        for (int i = 0; i < 2_000; i++) names.add(NAMES[i % NAMES.length] + " [Clone]");
+        return names;
+    }
+
+    private static String json(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"'  -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default   -> sb.append(c < 0x20 ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /** RFC 4180: quoted fields may hold commas, line breaks and doubled quotes. */
+    private static List<List<String>> parseCsv(String text) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                record.add(field.toString());
+                field.setLength(0);
+                records.add(record);
+                record = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        return records;
+    }
+}
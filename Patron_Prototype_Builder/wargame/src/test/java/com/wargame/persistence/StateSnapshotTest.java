@@ -0,0 +1,143 @@
+package com.wargame.persistence;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.HelmetType;
+import com.wargame.enums.Rank;
+import com.wargame.enums.SkillType;
+import com.wargame.enums.StorageMode;
+import com.wargame.enums.WeaponType;
+import com.wargame.model.Battalion;
+import com.wargame.model.PackedBattalion;
+import com.wargame.model.Soldier;
+import com.wargame.model.SoldierRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StateSnapshotTest {
+
+    private static final Soldier[] PROTOTYPES = {
+            new SoldierBuilder().withName("Fusilero").withRank(Rank.PRIVATE).withHealth(100).withArmor(20)
+                    .withSpeed(30).withPrimaryWeapon(WeaponType.values()[0]).withFaction("Norte").build(),
+            new SoldierBuilder().withName("Capitán \"Rojo\"").withRank(Rank.SERGEANT).withHealth(250).withArmor(60)
+                    .withSpeed(15).withPrimaryWeapon(WeaponType.values()[1]).withSecondaryWeapon(WeaponType.values()[0])
+                    .withHelmet(HelmetType.values()[0]).withSkill(SkillType.values()[0]).withFaction("Sur")
+                    .asElite(true).build(),
+    };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoredBattalionsMatchAndKeepTheirModeWhenChanged() throws IOException {
+        List<Battalion> battalions = new ArrayList<>();
+        for (StorageMode mode : StorageMode.values()) battalions.add(battalion(mode, 500));
+        Map<String, List<String>> saved = rowsById(battalions);
+
+        Path file = dir.resolve("state.bin");
+        new StateSnapshot(prototypes(), List.of(PROTOTYPES[0]), battalions).write(file);
+        StateSnapshot restored = StateSnapshot.read(file);
+
+        assertEquals(saved, rowsById(restored.getBattalions()));
+        for (int b = 0; b < battalions.size(); b++) {
+            Battalion before = battalions.get(b);
+            Battalion after = restored.getBattalions().get(b);
+            assertEquals(before.getName(), after.getName());
+            assertEquals(before.getTotalCombatPower(), after.getTotalCombatPower());
+            assertEquals(before.getEliteCount(), after.getEliteCount());
+            StorageMode expected = before.getStorageMode() == StorageMode.LAZY ? StorageMode.COLUMNAR : before.getStorageMode();
+            assertEquals(expected, after.getStorageMode());
+
+            after.removeSoldier(after.getSoldiers().get(7));
+            after.addSoldier(PROTOTYPES[1].clone());
+            assertEquals(expected, after.getStorageMode(), "after a change");
+            assertEquals(500, after.getSize());
+            assertEquals(recount(after), after.getTotalCombatPower());
+        }
+    }
+
+    @Test
+    void editsToRestoredListRowsAreKept() throws IOException {
+        Path file = dir.resolve("state.bin");
+        new StateSnapshot(prototypes(), List.of(), List.of(battalion(StorageMode.LIST, 100))).write(file);
+        Battalion restored = StateSnapshot.read(file).getBattalions().get(0);
+
+        Soldier soldier = restored.getSoldiers().get(42);
+        soldier.setHealth(499);
+        assertEquals(499, restored.getSoldiers().get(42).getHealth());
+        assertEquals(recount(restored), restored.getTotalCombatPower());
+    }
+
+    @Test
+    void savingOverAMappedFileLeavesItsRowsAlone() throws IOException {
+        Path file = dir.resolve("state.bin");
+        List<Battalion> battalions = List.of(battalion(StorageMode.COLUMNAR, 300), battalion(StorageMode.PACKED, 300));
+        Map<String, List<String>> saved = rowsById(battalions);
+        new StateSnapshot(prototypes(), List.of(), battalions).write(file);
+        StateSnapshot restored = StateSnapshot.read(file);
+
+        // Nothing has been read yet; the new file puts other rows where these used to be
+        List<Battalion> next = new ArrayList<>();
+        next.add(battalion(StorageMode.COLUMNAR, 1_000));
+        next.addAll(restored.getBattalions());
+        new StateSnapshot(prototypes(), List.of(), next).write(file);
+
+        assertEquals(saved, rowsById(restored.getBattalions()));
+        StateSnapshot reread = StateSnapshot.read(file);
+        assertEquals(saved, rowsById(reread.getBattalions().subList(1, 3)));
+    }
+
+    private static Battalion battalion(StorageMode mode, int count) {
+        if (mode == StorageMode.LAZY) return Battalion.ofPrototypes("Perezoso", PROTOTYPES, count);
+        if (mode == StorageMode.PACKED || mode == StorageMode.OFF_HEAP) {
+            return PackedBattalion.of("Compacto " + mode, PROTOTYPES, count, mode);
+        }
+        Battalion battalion = new Battalion("Batallón " + mode, mode);
+        for (int i = 0; i < count; i++) battalion.addSoldier(PROTOTYPES[i % PROTOTYPES.length].clone());
+        return battalion;
+    }
+
+    private static Map<String, Soldier> prototypes() {
+        Map<String, Soldier> prototypes = new LinkedHashMap<>();
+        prototypes.put("fusilero", PROTOTYPES[0]);
+        prototypes.put("capitan", PROTOTYPES[1]);
+        return prototypes;
+    }
+
+    /** Every row of every battalion, rendered field by field, keyed by battalion id. */
+    private static Map<String, List<String>> rowsById(List<Battalion> battalions) {
+        Map<String, List<String>> rows = new LinkedHashMap<>();
+        SoldierRow row = new SoldierRow();
+        for (Battalion battalion : battalions) {
+            List<String> rendered = new ArrayList<>();
+            for (int i = 0; i < battalion.getSize(); i++) {
+                battalion.readRow(i, row);
+                rendered.add(String.join("|", row.getId(), row.getName(), row.getFaction(),
+                        String.valueOf(row.getHealth()), String.valueOf(row.getArmor()), String.valueOf(row.getSpeed()),
+                        String.valueOf(row.getRankCode()), String.valueOf(row.getPrimaryCode()),
+                        String.valueOf(row.getSecondaryCode()), String.valueOf(row.getHelmetCode()),
+                        String.valueOf(row.getSkillMask()), String.valueOf(row.isElite())));
+            }
+            rows.put(battalion.getId(), rendered);
+        }
+        return rows;
+    }
+
+    private static long recount(Battalion battalion) {
+        long total = 0;
+        SoldierRow row = new SoldierRow();
+        for (int i = 0; i < battalion.getSize(); i++) {
+            battalion.readRow(i, row);
+            total += row.getCombatPower();
+        }
+        return total;
+    }
+}
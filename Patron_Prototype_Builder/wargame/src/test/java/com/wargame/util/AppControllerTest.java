@@ -0,0 +1,96 @@
+package com.wargame.util;
+
+import com.wargame.builder.SoldierBuilder;
+import com.wargame.enums.ExportFormat;
+import com.wargame.enums.Rank;
+import com.wargame.enums.StorageMode;
+import com.wargame.factory.BattalionBuild;
+import com.wargame.model.Battalion;
+import com.wargame.model.SoldierRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppControllerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void aBattalionBeingProducedCannotBeExported() throws IOException {
+        AppController controller = AppController.empty();
+        controller.registerAsPrototype("fusilero",
+                new SoldierBuilder().withName("Fusilero").withRank(Rank.PRIVATE).withHealth(100).build());
+
+        BattalionBuild build = controller.startBattalion("Norte", new String[]{ "fusilero" }, 1_000);
+        Battalion battalion = build.getBattalion();
+        controller.addSoldiers(battalion, build.nextChunk(300));
+        assertTrue(controller.isBuilding(battalion));
+        assertThrows(IllegalStateException.class, () -> controller.requireFinished(battalion));
+        assertThrows(IllegalStateException.class, () -> controller.exportRoster(dir.resolve("roster.csv"), ExportFormat.CSV));
+
+        controller.finishBattalion(build);
+        assertFalse(controller.isBuilding(battalion));
+        controller.requireFinished(battalion);
+        assertEquals(301, controller.exportRoster(dir.resolve("roster.csv"), ExportFormat.CSV));
+    }
+
+    @Test
+    void recoveredBattalionsKeepTheirSoldierIds() throws IOException {
+        Path snapshot = dir.resolve("state.snapshot");
+        Path journal = dir.resolve("state.journal");
+        AppController controller = AppController.recover(snapshot, journal);
+        controller.registerAsPrototype("fusilero",
+                new SoldierBuilder().withName("Fusilero").withRank(Rank.PRIVATE).withHealth(100).build());
+        controller.registerAsPrototype("sargento",
+                new SoldierBuilder().withName("Sargento").withRank(Rank.SERGEANT).withHealth(200).build());
+        String[] keys = { "fusilero", "sargento" };
+        for (StorageMode mode : StorageMode.values()) {
+            controller.createBattalion("Único " + mode, "fusilero", 20_000, mode);
+            controller.createMixedBattalion("Mixto " + mode, keys, 20_000, mode);
+        }
+        BattalionBuild build = controller.startBattalion("Por partes", keys, 30_000);
+        controller.addSoldiers(build.getBattalion(), build.nextChunk(12_345));
+        controller.finishBattalion(build);
+        Map<String, List<String>> before = idsByBattalion(controller);
+        controller.close();
+
+        AppController recovered = AppController.recover(snapshot, journal);
+        try {
+            assertEquals(before, idsByBattalion(recovered));
+            Battalion fresh = recovered.createBattalion("Nuevo", "fusilero", 5_000);
+            Set<String> used = new HashSet<>();
+            before.values().forEach(used::addAll);
+            for (String id : idsByBattalion(recovered).get(fresh.getId())) assertFalse(used.contains(id), id);
+        } finally {
+            recovered.close();
+        }
+    }
+
+    private static Map<String, List<String>> idsByBattalion(AppController controller) {
+        Map<String, List<String>> ids = new LinkedHashMap<>();
+        SoldierRow row = new SoldierRow();
+        for (Battalion battalion : controller.getBattalions()) {
+            List<String> rows = new ArrayList<>();
+            for (int i = 0; i < battalion.getSize(); i++) {
+                battalion.readRow(i, row);
+                rows.add(row.getId());
+            }
+            ids.put(battalion.getId(), rows);
+        }
+        return ids;
+    }
+}
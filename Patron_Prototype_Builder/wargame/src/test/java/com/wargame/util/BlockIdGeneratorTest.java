@@ -0,0 +1,83 @@
+package com.wargame.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockIdGeneratorTest {
+
+    @Test
+    void runningOutOfIdsThrowsInsteadOfWrapping() {
+        // Three hex digits leave blocks 1–3 after the unused block 0
+        BlockIdGenerator generator = new BlockIdGenerator(3);
+        Set<String> ids = new HashSet<>();
+        String last = null;
+        for (int i = 0; i < 3 * 1024; i++) assertTrue(ids.add(last = generator.nextId()));
+        assertEquals("FFF", last);
+        assertThrows(IllegalStateException.class, generator::nextId);
+        assertThrows(IllegalStateException.class, () -> generator.reserve(1));
+    }
+
+    @Test
+    void aReservationPastTheLastIdThrows() {
+        BlockIdGenerator generator = new BlockIdGenerator(3);
+        ReservedIds ids = generator.reserve(2 * 1024);
+        assertEquals("400", ids.get(0));
+        assertEquals("BFF", ids.get(2 * 1024 - 1));
+        assertEquals(2 * 1024 - 1, ids.indexOf("BFF"));
+        assertEquals(-1, ids.indexOf("C00"));
+        assertEquals(-1, ids.indexOf("3FF"));
+
+        assertThrows(IllegalStateException.class, () -> generator.reserve(1024 + 1));
+    }
+
+    @Test
+    void advancingPastAnIdSkipsEveryThreadsCurrentBlock() throws Exception {
+        BlockIdGenerator generator = new BlockIdGenerator(8);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    List<String> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) ids.add(generator.nextId());
+                    return ids;
+                }));
+            }
+            Future<?> advancing = pool.submit(() -> {
+                start.await();
+                for (int i = 1; i <= 200; i++) generator.advancePast(String.format("%08X", i * 4_096));
+                return null;
+            });
+            start.countDown();
+            advancing.get();
+
+            Set<String> seen = new HashSet<>();
+            for (Future<List<String>> result : results) {
+                for (String id : result.get()) assertTrue(seen.add(id), "duplicate id " + id);
+            }
+            assertEquals(threads * perThread, seen.size());
+
+            // Nothing handed out after the last advance is at or below it
+            long last = 200 * 4_096;
+            assertTrue(Long.parseLong(generator.nextId(), 16) > last);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
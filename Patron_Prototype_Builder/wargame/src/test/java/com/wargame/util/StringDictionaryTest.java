@@ -0,0 +1,78 @@
+package com.wargame.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StringDictionaryTest {
+
+    @Test
+    void nullIsCodeZeroAndNeverCounted() {
+        StringDictionary dictionary = new StringDictionary();
+        assertEquals(0, dictionary.code(null));
+        assertNull(dictionary.get(0));
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    void equalStringsShareACodePastTheFirstGrowth() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i + 1, dictionary.code("Soldado " + i));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            String value = new String("Soldado " + i);
+            assertEquals(i + 1, dictionary.code(value));
+            assertEquals(value, dictionary.get(i + 1));
+        }
+        assertEquals(1_000, dictionary.size());
+    }
+
+    @Test
+    void concurrentFirstUsesAgreeOnOneCode() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        int threads = 8;
+        int values = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int[] codes = new int[values];
+                    for (int i = 0; i < values; i++) {
+                        int v = (i + offset * 613) % values;
+                        codes[v] = dictionary.code("Facción " + v);
+                        assertEquals("Facción " + v, dictionary.get(codes[v]));
+                    }
+                    return codes;
+                }));
+            }
+            start.countDown();
+
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                int[] codes = result.get();
+                for (int v = 0; v < values; v++) assertEquals(first[v], codes[v], "value " + v);
+            }
+            Set<Integer> distinct = new HashSet<>();
+            for (int code : first) distinct.add(code);
+            assertEquals(values, distinct.size());
+            assertEquals(values, dictionary.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}